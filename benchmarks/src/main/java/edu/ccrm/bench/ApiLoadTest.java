@@ -0,0 +1,224 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.api.ApiServer;
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.Course;
+import edu.ccrm.metrics.LatencyHistogram;
+import edu.ccrm.metrics.Metrics;
+import edu.ccrm.service.SearchService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test for the HTTP API: many concurrent clients, each sending its next
+ * request as soon as the previous one is answered, for a fixed time. Reports
+ * requests/sec and p50/p90/p99/p99.9 latency, and writes them to
+ * api-load-results.json.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar edu.ccrm.bench.ApiLoadTest
+ *      [--clients 1000] [--seconds 30] [--warmup 5] [--students 100000] [--url http://host:port]
+ * </pre>
+ *
+ * Without --url an in-process server is started on a free port, over a store
+ * filled by {@link DataGenerator}. The request mix is 60% student by ID, 15%
+ * student search, 10% course filter, 10% transcript and 5% enrollment. Rejected
+ * enrollments (409) are normal answers; only 5xx and I/O failures count as errors.
+ */
+public final class ApiLoadTest {
+
+    private static final String[] SEARCH_PREFIXES = {"al", "maya", "kim", "ra", "jon", "pri", "sof"};
+
+    private ApiLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = intOption(args, "--clients", 1000);
+        int seconds = intOption(args, "--seconds", 30);
+        int warmupSeconds = intOption(args, "--warmup", 5);
+        int students = intOption(args, "--students", 100_000);
+        String url = option(args, "--url", null);
+
+        // Also needed against a remote server: requests are built from the generated
+        // catalog, so start that server over the same --students scale.
+        System.out.println("Generating " + students + " students...");
+        DataGenerator.populate(DataGenerator.Scale.ofStudents(students), DataGenerator.DEFAULT_SEED);
+        List<Course> courses = DataStore.getInstance().getCourses();
+
+        ApiServer server = null;
+        if (url == null) {
+            server = new ApiServer(0, new SearchService());
+            server.start();
+            url = "http://localhost:" + server.getPort();
+            System.out.println("Started the API on " + url + " ("
+                    + (server.usesVirtualThreads() ? "virtual threads" : "platform thread pool") + ")");
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String baseUrl = url + "/api";
+        try {
+            System.out.printf("Warming up with %d clients for %d s...%n", clients, warmupSeconds);
+            run(client, baseUrl, clients, warmupSeconds, students, courses, "load.warmup");
+            Metrics.getInstance().reset();
+
+            System.out.printf("Measuring with %d clients for %d s...%n", clients, seconds);
+            Result result = run(client, baseUrl, clients, seconds, students, courses, "load.request");
+            report(result, clients, seconds);
+            if (server != null) {
+                reportServerSide();
+            }
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    private static final class Result {
+        final LatencyHistogram.Snapshot latency;
+        final long errors;
+        final double elapsedSeconds;
+
+        Result(LatencyHistogram.Snapshot latency, long errors, double elapsedSeconds) {
+            this.latency = latency;
+            this.errors = errors;
+            this.elapsedSeconds = elapsedSeconds;
+        }
+    }
+
+    private static Result run(HttpClient client, String baseUrl, int clients, int seconds, int students,
+                              List<Course> courses, String metricName) throws InterruptedException {
+        LatencyHistogram latency = Metrics.getInstance().histogram(metricName);
+        LongAdder errors = new LongAdder();
+        CountDownLatch done = new CountDownLatch(clients);
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + seconds * 1_000_000_000L;
+
+        for (int c = 0; c < clients; c++) {
+            SplittableRandom random = new SplittableRandom(c);
+            Thread thread = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < endNanos) {
+                        HttpRequest request = nextRequest(random, baseUrl, students, courses);
+                        long sentNanos = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            if (response.statusCode() >= 500) {
+                                errors.increment();
+                            }
+                        } catch (IOException e) {
+                            errors.increment();
+                        }
+                        latency.recordSince(sentNanos);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + c);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        double elapsed = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        return new Result(latency.snapshot(), errors.sum(), elapsed);
+    }
+
+    private static HttpRequest nextRequest(SplittableRandom random, String baseUrl, int students, List<Course> courses) {
+        int studentId = 1 + random.nextInt(students);
+        Course course = courses.get(random.nextInt(courses.size()));
+        int dice = random.nextInt(100);
+        String path;
+        if (dice < 60) {
+            path = "/students/" + studentId;
+        } else if (dice < 75) {
+            path = "/students?q=" + SEARCH_PREFIXES[random.nextInt(SEARCH_PREFIXES.length)] + "&limit=20";
+        } else if (dice < 85) {
+            path = "/courses?semester=" + course.getSemester() + "&instructorId=" + course.getInstructorId();
+        } else if (dice < 95) {
+            path = "/students/" + studentId + "/transcript";
+        } else {
+            String form = "studentId=" + studentId + "&courseCode=" + course.getCourseCode();
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/enrollments"))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(form))
+                    .build();
+        }
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private static void report(Result result, int clients, int seconds) throws IOException {
+        LatencyHistogram.Snapshot latency = result.latency;
+        double requestsPerSecond = latency.getCount() / result.elapsedSeconds;
+        System.out.printf(Locale.ROOT, "%nRequests: %d in %.1f s (%.0f requests/sec), errors: %d%n",
+                latency.getCount(), result.elapsedSeconds, requestsPerSecond, result.errors);
+        System.out.printf(Locale.ROOT, "Latency (ms): p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+                millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                millis(latency.getMaxNanos()));
+
+        String json = String.format(Locale.ROOT,
+                "{\"clients\": %d, \"seconds\": %d, \"requests\": %d, \"errors\": %d, \"requestsPerSecond\": %.1f,"
+                        + " \"p50Ms\": %.3f, \"p90Ms\": %.3f, \"p99Ms\": %.3f, \"p999Ms\": %.3f, \"maxMs\": %.3f}%n",
+                clients, seconds, latency.getCount(), result.errors, requestsPerSecond,
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+                millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                millis(latency.getMaxNanos()));
+        Path output = Paths.get("api-load-results.json");
+        Files.write(output, json.getBytes(StandardCharsets.UTF_8));
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    /**
+     * Time spent inside the in-process server's handlers, per endpoint. The gap to
+     * the client-side figures is time spent queued and in the HTTP layers.
+     */
+    private static void reportServerSide() {
+        System.out.println("Server-side handler latency (ms):");
+        for (LatencyHistogram histogram : Metrics.getInstance().getHistograms()) {
+            if (!histogram.getName().startsWith("api.")) {
+                continue;
+            }
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            System.out.printf(Locale.ROOT, "  %-18s %8d requests  p50 %.3f  p99 %.3f%n", snapshot.getName(),
+                    snapshot.getCount(), millis(snapshot.getValueAtPercentile(50)),
+                    millis(snapshot.getValueAtPercentile(99)));
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static int intOption(String[] args, String name, int defaultValue) {
+        String value = option(args, name, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+}
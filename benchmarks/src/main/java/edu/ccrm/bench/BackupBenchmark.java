@@ -0,0 +1,102 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.io.BackupService;
+import edu.ccrm.io.FileService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backing up an export directory: a plain copy, a zip archive, a first incremental
+ * backup (every block hashed and stored) and an incremental backup where nothing
+ * has changed. Backup names are timestamped to the second, so the first three
+ * start from an empty backup root each time.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BackupBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Exports {
+        @Param({"100000", "1000000"})
+        public int students;
+
+        Path dir;
+        Path exports;
+        Path backups;
+        BackupService backupService;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            dir = Files.createTempDirectory("ccrm-backup");
+            exports = dir.resolve("exports");
+            backups = dir.resolve("backups");
+            DataGenerator.populate(DataGenerator.Scale.ofStudents(students), DataGenerator.DEFAULT_SEED);
+            new FileService().exportData(exports);
+            DataStore.getInstance().clear();
+            backupService = new BackupService(exports, backups);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            BenchFiles.deleteRecursively(dir);
+        }
+    }
+
+    /** Starts every backup from an empty backup root. */
+    @State(Scope.Benchmark)
+    public static class EmptyBackups {
+        @Setup(Level.Invocation)
+        public void empty(Exports exports) throws IOException {
+            BenchFiles.deleteRecursively(exports.backups);
+        }
+    }
+
+    /** Keeps one earlier incremental backup, so nothing has changed since. */
+    @State(Scope.Benchmark)
+    public static class PrimedBackups {
+        @Setup(Level.Trial)
+        public void prime(Exports exports) {
+            exports.backupService.createIncrementalBackup();
+        }
+    }
+
+    @Benchmark
+    public void fullCopy(Exports exports, EmptyBackups empty) {
+        exports.backupService.createBackup();
+    }
+
+    @Benchmark
+    public void compressed(Exports exports, EmptyBackups empty) {
+        exports.backupService.createCompressedBackup();
+    }
+
+    @Benchmark
+    public void incrementalFirst(Exports exports, EmptyBackups empty) {
+        exports.backupService.createIncrementalBackup();
+    }
+
+    @Benchmark
+    public void incrementalUnchanged(Exports exports, PrimedBackups primed) {
+        exports.backupService.createIncrementalBackup();
+    }
+}
@@ -0,0 +1,30 @@
+package edu.ccrm.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * File helpers for benchmark setup and teardown.
+ */
+final class BenchFiles {
+
+    private BenchFiles() {
+    }
+
+    /**
+     * Deletes a directory and everything in it; does nothing if it does not exist.
+     */
+    static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package edu.ccrm.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar. Runs JMH with the given arguments, writing the
+ * results as JSON to jmh-results.json unless -rf/-rff say otherwise, so every run
+ * leaves a machine-readable file that can be compared with earlier runs.
+ *
+ * Examples:
+ * <pre>
+ *   java -jar benchmarks/target/benchmarks.jar                      (everything)
+ *   java -jar benchmarks/target/benchmarks.jar Lookup -p students=1000000
+ *   java -jar benchmarks/target/benchmarks.jar -l                   (list benchmarks)
+ * </pre>
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf")) {
+            jmhArgs.add("-rf");
+            jmhArgs.add("json");
+        }
+        if (!jmhArgs.contains("-rff")) {
+            jmhArgs.add("-rff");
+            jmhArgs.add("jmh-results.json");
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,93 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.io.FileService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV import and export through FileService. The "rows" and "bytes" counters give
+ * rows/sec for loading and bytes/sec for exporting.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class CsvBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Data {
+        @Param({"100000", "1000000"})
+        public int students;
+
+        Path csvDir;
+        Path exportDir;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            DataGenerator.Scale scale = DataGenerator.Scale.ofStudents(students);
+            csvDir = Files.createTempDirectory("ccrm-csv");
+            exportDir = Files.createTempDirectory("ccrm-export");
+            DataGenerator.writeCsv(scale, DataGenerator.DEFAULT_SEED, csvDir);
+            DataGenerator.populate(scale, DataGenerator.DEFAULT_SEED);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            BenchFiles.deleteRecursively(csvDir);
+            BenchFiles.deleteRecursively(exportDir);
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class RowCounter {
+        public long rows;
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class ByteCounter {
+        public long bytes;
+    }
+
+    private final FileService fileService = new FileService();
+
+    /**
+     * Loads into an empty store; clearing it is part of the measured time but is
+     * small next to parsing.
+     */
+    @Benchmark
+    public int load(Data data, RowCounter counter) throws IOException {
+        DataStore.getInstance().clear();
+        int rows = fileService.loadData(data.csvDir);
+        counter.rows += rows;
+        return rows;
+    }
+
+    @Benchmark
+    public long export(Data data, ByteCounter counter) throws IOException {
+        long bytes = fileService.exportData(data.exportDir);
+        counter.bytes += bytes;
+        return bytes;
+    }
+}
@@ -0,0 +1,207 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fills the DataStore (or writes CSV files) with synthetic, reproducible data at
+ * a chosen scale. The same seed always gives the same data.
+ *
+ * Enrollments are attached directly, without the EnrollmentService checks, so
+ * populating a million students stays quick. Each student takes distinct courses
+ * and stays under the 18-credit semester limit, so the data is still valid.
+ */
+public final class DataGenerator {
+
+    public static final long DEFAULT_SEED = 42L;
+
+    private static final String[] FIRST_NAMES = {
+            "Alice", "Bob", "Charlie", "Diana", "Ethan", "Fatima", "Grace", "Hiro", "Isha", "Jonas",
+            "Kavya", "Liam", "Maya", "Noah", "Olivia", "Priya", "Quinn", "Rahul", "Sofia", "Tariq" };
+    private static final String[] LAST_NAMES = {
+            "Johnson", "Smith", "Brown", "Garcia", "Chen", "Kumar", "Nguyen", "Okafor", "Rossi", "Singh",
+            "Tanaka", "Muller", "Novak", "Silva", "Cohen", "Patel", "Ivanova", "Kim", "Haddad", "Lee" };
+    private static final String[] DEPARTMENTS = {
+            "COMPUTER_SCIENCE", "MATHEMATICS", "PHYSICS", "CHEMISTRY", "BIOLOGY", "ECONOMICS", "HISTORY" };
+    private static final String[] TITLE_WORDS = {
+            "Introduction", "Advanced", "Applied", "Theory", "Systems", "Methods", "Analysis", "Design",
+            "Programming", "Calculus", "Mechanics", "Statistics", "Algorithms", "Networks", "Ethics" };
+
+    private static final LocalDate ENROLLED_ON = LocalDate.of(2024, 8, 1);
+
+    private DataGenerator() {
+    }
+
+    /**
+     * The size and shape of a generated data set.
+     */
+    public static final class Scale {
+        final int students;
+        final int courses;
+        final int enrollmentsPerStudent;
+        final double gradedFraction;
+
+        /**
+         * @param students              Number of students.
+         * @param courses               Number of courses (instructors are one per five courses).
+         * @param enrollmentsPerStudent Courses each student takes (at most 16).
+         * @param gradedFraction        Share of enrollments that have a grade, 0 to 1.
+         */
+        public Scale(int students, int courses, int enrollmentsPerStudent, double gradedFraction) {
+            if (enrollmentsPerStudent > 16 || enrollmentsPerStudent > courses) {
+                throw new IllegalArgumentException("At most 16 enrollments per student, and no more than there are courses");
+            }
+            this.students = students;
+            this.courses = courses;
+            this.enrollmentsPerStudent = enrollmentsPerStudent;
+            this.gradedFraction = gradedFraction;
+        }
+
+        /**
+         * A typical shape: one course per 50 students (at least 20), five
+         * enrollments per student, 70% graded.
+         */
+        public static Scale ofStudents(int students) {
+            return new Scale(students, Math.max(20, students / 50), 5, 0.7);
+        }
+
+        public int getStudents() {
+            return students;
+        }
+
+        public int getCourses() {
+            return courses;
+        }
+    }
+
+    /**
+     * Clears the DataStore and fills it with instructors, courses, students,
+     * enrollments and grades.
+     */
+    public static void populate(Scale scale, long seed) {
+        DataStore dataStore = DataStore.getInstance();
+        dataStore.clear();
+        SplittableRandom random = new SplittableRandom(seed);
+
+        dataStore.addInstructors(instructors(scale));
+        List<Course> courses = courses(scale, random);
+        dataStore.addCourses(courses);
+
+        Grade[] grades = Grade.values();
+        List<Student> students = new ArrayList<>(scale.students);
+        for (int id = 1; id <= scale.students; id++) {
+            Student student = student(id, random);
+            // Spread each student's courses over the semesters so no semester goes
+            // over 4 courses x 4 credits = 16 credits.
+            int first = random.nextInt(courses.size());
+            int stride = 1 + random.nextInt(Math.max(1, courses.size() - 1));
+            int taken = 0;
+            for (int i = 0; taken < scale.enrollmentsPerStudent && i < courses.size(); i++) {
+                Course course = courses.get((int) ((first + (long) i * stride) % courses.size()));
+                if (alreadyTaken(student, course) || student.getCreditsForSemester(course.getSemester()) + course.getCredits() > 16) {
+                    continue;
+                }
+                Enrollment enrollment = new Enrollment(id, course.getCourseCode(), ENROLLED_ON);
+                dataStore.attachEnrollment(student, enrollment, course);
+                course.occupySeat();
+                if (random.nextDouble() < scale.gradedFraction) {
+                    student.applyGrade(enrollment, grades[random.nextInt(grades.length)]);
+                }
+                taken++;
+            }
+            students.add(student);
+        }
+        dataStore.addStudents(students);
+    }
+
+    /**
+     * Writes instructors.csv, students.csv and courses.csv in the test-data format
+     * (header line first), for the CSV loader benchmarks.
+     */
+    public static void writeCsv(Scale scale, long seed, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        SplittableRandom random = new SplittableRandom(seed);
+
+        try (BufferedWriter out = Files.newBufferedWriter(directory.resolve("instructors.csv"), StandardCharsets.UTF_8)) {
+            out.write("ID,FullName,Email,Department\n");
+            for (Instructor instructor : instructors(scale)) {
+                out.write(instructor.getId() + "," + instructor.getFullName() + "," + instructor.getEmail()
+                        + "," + instructor.getDepartment() + "\n");
+            }
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(directory.resolve("courses.csv"), StandardCharsets.UTF_8)) {
+            out.write("CourseCode,Title,Credits,InstructorID,Semester,Department,Capacity\n");
+            for (Course course : courses(scale, random)) {
+                out.write(course.getCourseCode() + "," + course.getTitle() + "," + course.getCredits() + ","
+                        + course.getInstructorId() + "," + course.getSemester().name() + ","
+                        + course.getDepartment() + "\n");
+            }
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(directory.resolve("students.csv"), StandardCharsets.UTF_8)) {
+            out.write("ID,FullName,Email\n");
+            for (int id = 1; id <= scale.students; id++) {
+                Student student = student(id, random);
+                out.write(id + "," + student.getFullName() + "," + student.getEmail() + "\n");
+            }
+        }
+    }
+
+    private static List<Instructor> instructors(Scale scale) {
+        int count = Math.max(1, scale.courses / 5);
+        List<Instructor> instructors = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            String name = "Dr. " + FIRST_NAMES[id % FIRST_NAMES.length] + " " + LAST_NAMES[(id / FIRST_NAMES.length) % LAST_NAMES.length];
+            instructors.add(new Instructor(id, name, "instructor" + id + "@university.com", DEPARTMENTS[id % DEPARTMENTS.length]));
+        }
+        return instructors;
+    }
+
+    private static List<Course> courses(Scale scale, SplittableRandom random) {
+        int instructorCount = Math.max(1, scale.courses / 5);
+        Semester[] semesters = Semester.values();
+        List<Course> courses = new ArrayList<>(scale.courses);
+        for (int i = 0; i < scale.courses; i++) {
+            String department = DEPARTMENTS[i % DEPARTMENTS.length];
+            String title = TITLE_WORDS[random.nextInt(TITLE_WORDS.length)] + " "
+                    + TITLE_WORDS[random.nextInt(TITLE_WORDS.length)] + " " + (100 + i % 400);
+            courses.add(new Course.CourseBuilder(department.substring(0, 3) + (1000 + i), title)
+                    .credits(1 + random.nextInt(4))
+                    .department(department)
+                    .semester(semesters[i % semesters.length])
+                    .instructorId(1 + i % instructorCount)
+                    .build());
+        }
+        return courses;
+    }
+
+    private static Student student(int id, SplittableRandom random) {
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String email = first.toLowerCase() + "." + last.toLowerCase() + id + "@university.com";
+        return new Student(id, first + " " + last, email, "REG" + id, ENROLLED_ON);
+    }
+
+    private static boolean alreadyTaken(Student student, Course course) {
+        for (Enrollment enrollment : student.getEnrollments()) {
+            if (enrollment.getCourseCode().equals(course.getCourseCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,170 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Student;
+import edu.ccrm.exception.EnrollmentException;
+import edu.ccrm.exception.MaxCreditsException;
+import edu.ccrm.service.EnrollmentRequest;
+import edu.ccrm.service.EnrollmentResult;
+import edu.ccrm.service.EnrollmentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Enrollment through EnrollmentService, single-threaded and under contention.
+ *
+ * Enrolling the same student in the same course twice fails, so every measured
+ * enrollment needs a fresh student. Each iteration therefore adds BATCH new
+ * students per thread and then times BATCH enrollments (single-shot mode with a
+ * batch size); the score is the time for one batch.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = EnrollmentBenchmark.BATCH)
+@Measurement(iterations = 10, batchSize = EnrollmentBenchmark.BATCH)
+@Fork(1)
+@State(Scope.Thread)
+public class EnrollmentBenchmark {
+
+    static final int BATCH = 2000;
+
+    @State(Scope.Benchmark)
+    public static class Catalog {
+        @Param({"10000"})
+        public int students;
+
+        // Course every thread enrolls in for the hot-course case. Its capacity is
+        // finite so the lock-free seat check runs, but large enough never to fill.
+        public Course hotCourse;
+        public List<Course> courses;
+        final AtomicInteger nextStudentId = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            DataGenerator.populate(DataGenerator.Scale.ofStudents(students), DataGenerator.DEFAULT_SEED);
+            hotCourse = new Course.CourseBuilder("HOT101", "Hot Course").credits(1).capacity(Integer.MAX_VALUE - 1).build();
+            DataStore.getInstance().addCourse(hotCourse);
+            courses = DataStore.getInstance().getCourses();
+            nextStudentId.set(students + 1);
+        }
+
+        Student newStudent() {
+            int id = nextStudentId.getAndIncrement();
+            Student student = new Student(id, "Bench Student " + id, "bench" + id + "@university.com", "REG" + id, LocalDate.now());
+            DataStore.getInstance().addStudent(student);
+            return student;
+        }
+    }
+
+    /**
+     * The fresh students one thread enrolls during an iteration.
+     */
+    @State(Scope.Thread)
+    public static class FreshStudents {
+        int[] ids = new int[BATCH];
+        int next;
+        int courseCursor;
+
+        @Setup(Level.Iteration)
+        public void addStudents(Catalog catalog) {
+            for (int i = 0; i < BATCH; i++) {
+                ids[i] = catalog.newStudent().getId();
+            }
+            next = 0;
+        }
+
+        int nextId() {
+            return ids[next++ % BATCH];
+        }
+
+        String nextCourseCode(Catalog catalog) {
+            courseCursor = (courseCursor + 1) % catalog.courses.size();
+            return catalog.courses.get(courseCursor).getCourseCode();
+        }
+    }
+
+    /**
+     * One student shared by all threads, replaced every iteration, for measuring
+     * contention on a single student's lock and credit limit.
+     */
+    @State(Scope.Benchmark)
+    public static class SharedStudent {
+        int id;
+
+        @Setup(Level.Iteration)
+        public void addStudent(Catalog catalog) {
+            id = catalog.newStudent().getId();
+        }
+    }
+
+    private final EnrollmentService enrollmentService = new EnrollmentService();
+
+    @Benchmark
+    public boolean enrollOneThread(Catalog catalog, FreshStudents fresh) {
+        return enroll(fresh.nextId(), fresh.nextCourseCode(catalog));
+    }
+
+    @Benchmark
+    @Threads(64)
+    public boolean enroll64Threads(Catalog catalog, FreshStudents fresh) {
+        return enroll(fresh.nextId(), fresh.nextCourseCode(catalog));
+    }
+
+    /** Every thread enrolls its students in the same course. */
+    @Benchmark
+    @Threads(16)
+    public boolean enrollHotCourse16Threads(Catalog catalog, FreshStudents fresh) {
+        return enroll(fresh.nextId(), catalog.hotCourse.getCourseCode());
+    }
+
+    /** Every thread enrolls the same student; most attempts hit the credit limit. */
+    @Benchmark
+    @Threads(16)
+    public boolean enrollSameStudent16Threads(Catalog catalog, FreshStudents fresh, SharedStudent shared) {
+        return enroll(shared.id, fresh.nextCourseCode(catalog));
+    }
+
+    /**
+     * One enrollAll call per invocation, enrolling every student of the batch in
+     * two courses. With a batch size of 1 per measurement this is the time for
+     * 2 x BATCH enrollments.
+     */
+    @Benchmark
+    @Measurement(iterations = 10, batchSize = 1)
+    @Warmup(iterations = 5, batchSize = 1)
+    public List<EnrollmentResult> enrollAllBulk(Catalog catalog, FreshStudents fresh) {
+        List<EnrollmentRequest> requests = new ArrayList<>(2 * BATCH);
+        for (int id : fresh.ids) {
+            requests.add(new EnrollmentRequest(id, fresh.nextCourseCode(catalog)));
+            requests.add(new EnrollmentRequest(id, fresh.nextCourseCode(catalog)));
+        }
+        return enrollmentService.enrollAll(requests);
+    }
+
+    private boolean enroll(int studentId, String courseCode) {
+        try {
+            enrollmentService.enrollStudent(studentId, courseCode);
+            return true;
+        } catch (EnrollmentException | MaxCreditsException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.config.IntObjectMap;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.EnrollmentTable;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Measures retained heap. First the student index: an {@link IntObjectMap} versus
+ * a boxed HashMap&lt;Integer, Object&gt;, at 1k, 100k and 1M entries. Then the
+ * enrollments of 100k and 1M students with five each: the {@link EnrollmentTable}
+ * versus one object per enrollment in a per-student list, as they were stored
+ * before. JMH measures time, not footprint, so this is a separate main class:
+ *
+ * <pre>java -cp benchmarks/target/benchmarks.jar edu.ccrm.bench.FootprintReport [output.json]</pre>
+ *
+ * The values are shared by both maps and built before measuring, so only the maps
+ * themselves (tables, entries and boxed keys) are counted. Figures come from used
+ * heap after repeated GCs; run with a fixed heap (e.g. -Xms2g -Xmx2g) for stable numbers.
+ */
+public final class FootprintReport {
+
+    private static final int[] SIZES = {1_000, 100_000, 1_000_000};
+
+    private FootprintReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path output = Paths.get(args.length > 0 ? args[0] : "footprint-results.json");
+        List<String> results = new ArrayList<>();
+        for (int size : SIZES) {
+            Object[] values = new Object[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = new Object();
+            }
+            long intObjectMap = measure(() -> {
+                IntObjectMap<Object> map = new IntObjectMap<>();
+                for (int i = 0; i < size; i++) {
+                    map.put(i + 1, values[i]);
+                }
+                return map;
+            });
+            long hashMap = measure(() -> {
+                Map<Integer, Object> map = new HashMap<>();
+                for (int i = 0; i < size; i++) {
+                    map.put(i + 1, values[i]);
+                }
+                return map;
+            });
+            System.out.printf("%,10d entries: IntObjectMap %,12d bytes, HashMap %,12d bytes (%.1fx)%n",
+                    size, intObjectMap, hashMap, (double) hashMap / Math.max(1, intObjectMap));
+            results.add(String.format("  {\"entries\": %d, \"intObjectMapBytes\": %d, \"hashMapBytes\": %d}",
+                    size, intObjectMap, hashMap));
+        }
+        results.addAll(measureEnrollments());
+        Files.write(output, ("[\n" + String.join(",\n", results) + "\n]\n").getBytes(StandardCharsets.UTF_8));
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    private static final int[] ENROLLMENT_STUDENTS = {100_000, 1_000_000};
+    private static final int ENROLLMENTS_PER_STUDENT = 5;
+
+    /**
+     * Bytes per enrollment, counting everything the enrollments add to their
+     * students: rows and row lists, or objects, dates and lists. Each enrollment
+     * gets its own date object in the object layout, as loading from a file does.
+     */
+    private static List<String> measureEnrollments() {
+        Semester[] semesters = Semester.values();
+        Course[] courses = new Course[2000];
+        for (int i = 0; i < courses.length; i++) {
+            courses[i] = new Course.CourseBuilder("CS" + (1000 + i), "Course " + i)
+                    .credits(1 + i % 4).department("COMPUTER_SCIENCE").semester(semesters[i % semesters.length])
+                    .instructorId(1).build();
+        }
+        Grade[] grades = Grade.values();
+        List<String> results = new ArrayList<>();
+        for (int students : ENROLLMENT_STUDENTS) {
+            long enrollments = (long) students * ENROLLMENTS_PER_STUDENT;
+            long withoutEnrollments = measure(() -> students(students, 0, courses, grades));
+            long columnar = measure(() -> students(students, ENROLLMENTS_PER_STUDENT, courses, grades))
+                    - withoutEnrollments;
+            long objects = measure(() -> {
+                List<List<LegacyEnrollment>> lists = new ArrayList<>(students);
+                SplittableRandom random = new SplittableRandom(1);
+                for (int id = 1; id <= students; id++) {
+                    List<LegacyEnrollment> list = new CopyOnWriteArrayList<>();
+                    for (int e = 0; e < ENROLLMENTS_PER_STUDENT; e++) {
+                        Course course = courses[(id * 7 + e * 131) % courses.length];
+                        list.add(new LegacyEnrollment(id, course, LocalDate.ofEpochDay(19_000 + random.nextInt(1000)),
+                                e % 3 != 0 ? grades[e % grades.length] : null));
+                    }
+                    lists.add(list);
+                }
+                return lists;
+            }) - measure(() -> new ArrayList<>(students));
+            System.out.printf("%,10d enrollments: EnrollmentTable %.1f bytes each, objects %.1f bytes each (%.1fx)%n",
+                    enrollments, (double) columnar / enrollments, (double) objects / enrollments,
+                    (double) objects / Math.max(1, columnar));
+            results.add(String.format("  {\"enrollments\": %d, \"enrollmentTableBytes\": %d, \"objectBytes\": %d}",
+                    enrollments, columnar, objects));
+        }
+        return results;
+    }
+
+    private static List<Student> students(int count, int enrollmentsEach, Course[] courses, Grade[] grades) {
+        EnrollmentTable table = new EnrollmentTable();
+        SplittableRandom random = new SplittableRandom(1);
+        List<Student> students = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            Student student = new Student(id, "Student " + id, "s" + id + "@university.com", "REG" + id,
+                    LocalDate.ofEpochDay(19_000));
+            for (int e = 0; e < enrollmentsEach; e++) {
+                Course course = courses[(id * 7 + e * 131) % courses.length];
+                Enrollment enrollment = new Enrollment(id, course.getCourseCode(),
+                        LocalDate.ofEpochDay(19_000 + random.nextInt(1000)));
+                student.addEnrollment(enrollment, course, table);
+                if (e % 3 != 0) {
+                    student.applyGrade(enrollment, grades[e % grades.length]);
+                }
+            }
+            students.add(student);
+        }
+        return students;
+    }
+
+    /**
+     * An enrollment as one object, with the fields Enrollment had before the table.
+     */
+    private static final class LegacyEnrollment {
+        final int studentId;
+        final String courseCode;
+        volatile Grade grade;
+        final LocalDate enrollmentDate;
+        final int courseIndex;
+        final int credits;
+        final Semester semester;
+
+        LegacyEnrollment(int studentId, Course course, LocalDate enrollmentDate, Grade grade) {
+            this.studentId = studentId;
+            this.courseCode = course.getCourseCode();
+            this.enrollmentDate = enrollmentDate;
+            this.grade = grade;
+            this.courseIndex = course.getCatalogIndex();
+            this.credits = course.getCredits();
+            this.semester = course.getSemester();
+        }
+    }
+
+    /**
+     * The growth in used heap while the built object is still reachable.
+     */
+    private static long measure(Supplier<Object> builder) {
+        long before = usedHeap();
+        Object built = builder.get();
+        long after = usedHeap();
+        // Keep the map reachable until after the second reading.
+        Reference.reachabilityFence(built);
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
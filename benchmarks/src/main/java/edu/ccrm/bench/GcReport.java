@@ -0,0 +1,257 @@
+package edu.ccrm.bench;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.EnrollmentRequest;
+import edu.ccrm.service.EnrollmentResult;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.GpaEngine;
+import edu.ccrm.service.TranscriptService;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Compares garbage collection with the enrollments on the heap and off it. Each
+ * storage mode runs in its own JVM (same heap size, G1): the store is filled by
+ * {@link DataGenerator} with ten enrollments per student, then a mixed workload
+ * of transcripts, GPA recomputes and enrollment batches runs for a fixed time.
+ * Reports GC pauses, the live heap after a full GC and the memory held outside
+ * the heap, and writes them to gc-results.json.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar edu.ccrm.bench.GcReport
+ *      [--students 500000] [--seconds 30] [--heap 2g]
+ * </pre>
+ */
+public final class GcReport {
+
+    private static final String[] MODES = {"heap", "offheap"};
+    private static final String RESULT_PREFIX = "GC-RESULT ";
+
+    private GcReport() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--child")) {
+            runChild(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+            return;
+        }
+        int students = intOption(args, "--students", 500_000);
+        int seconds = intOption(args, "--seconds", 30);
+        String heap = option(args, "--heap", "2g");
+
+        List<Map<String, String>> results = new ArrayList<>();
+        for (String mode : MODES) {
+            System.out.printf("Running %s storage (%d students, %d s, -Xmx%s)...%n", mode, students, seconds, heap);
+            results.add(fork(mode, students, seconds, heap));
+        }
+
+        System.out.printf("%n%-8s %10s %8s %12s %10s %10s %14s %14s%n", "storage", "populate", "GCs",
+                "total pause", "max pause", "p99 pause", "live heap", "off-heap");
+        List<String> json = new ArrayList<>();
+        for (Map<String, String> result : results) {
+            System.out.printf(Locale.ROOT, "%-8s %8s ms %8s %9s ms %7s ms %7s ms %11.1f MB %11.1f MB%n",
+                    result.get("storage"), result.get("populateMs"), result.get("gcCount"),
+                    result.get("totalPauseMs"), result.get("maxPauseMs"), result.get("p99PauseMs"),
+                    megabytes(result.get("liveHeapBytes")), megabytes(result.get("offHeapBytes")));
+            List<String> fields = new ArrayList<>();
+            for (Map.Entry<String, String> field : result.entrySet()) {
+                fields.add(field.getKey().equals("storage")
+                        ? "\"storage\": \"" + field.getValue() + "\""
+                        : "\"" + field.getKey() + "\": " + field.getValue());
+            }
+            json.add("  {" + String.join(", ", fields) + "}");
+        }
+        Path output = Paths.get("gc-results.json");
+        Files.write(output, ("[\n" + String.join(",\n", json) + "\n]\n").getBytes(StandardCharsets.UTF_8));
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    /**
+     * Runs one storage mode in a new JVM and returns the fields of its result line.
+     */
+    private static Map<String, String> fork(String mode, int students, int seconds, String heap)
+            throws IOException, InterruptedException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        ProcessBuilder builder = new ProcessBuilder(java, "-Xms" + heap, "-Xmx" + heap, "-XX:+UseG1GC",
+                "-Dccrm.enrollmentStorage=" + mode, "-cp", System.getProperty("java.class.path"),
+                GcReport.class.getName(), "--child", String.valueOf(students), String.valueOf(seconds));
+        builder.redirectErrorStream(true);
+        Process process = builder.start();
+        Map<String, String> result = null;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    result = new LinkedHashMap<>();
+                    for (String field : line.substring(RESULT_PREFIX.length()).split(" ")) {
+                        int equals = field.indexOf('=');
+                        result.put(field.substring(0, equals), field.substring(equals + 1));
+                    }
+                } else {
+                    System.out.println("  " + line);
+                }
+            }
+        }
+        int exitCode = process.waitFor();
+        if (exitCode != 0 || result == null) {
+            throw new IllegalStateException("The " + mode + " run failed with exit code " + exitCode);
+        }
+        return result;
+    }
+
+    private static void runChild(int studentCount, int seconds) {
+        String mode = System.getProperty("ccrm.enrollmentStorage", "heap");
+        long startNanos = System.nanoTime();
+        DataGenerator.populate(new DataGenerator.Scale(studentCount, Math.max(40, studentCount / 50), 10, 0.7),
+                DataGenerator.DEFAULT_SEED);
+        long populateMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        System.out.println("Populated " + DataStore.getInstance().getEnrollmentTable().size()
+                + " enrollments in " + populateMillis + " ms");
+
+        // Only pauses of the workload count, not those of filling the store.
+        System.gc();
+        PauseRecorder pauses = new PauseRecorder();
+        pauses.register();
+
+        List<Student> students = DataStore.getInstance().getStudents();
+        List<Course> courses = DataStore.getInstance().getCourses();
+        TranscriptService transcriptService = new TranscriptService();
+        EnrollmentService enrollmentService = new EnrollmentService();
+        GpaEngine gpaEngine = new GpaEngine();
+        SplittableRandom random = new SplittableRandom(7);
+        long transcripts = 0;
+        long recomputes = 0;
+        long enrollments = 0;
+        long endNanos = System.nanoTime() + seconds * 1_000_000_000L;
+        for (long round = 0; System.nanoTime() < endNanos; round++) {
+            for (int i = 0; i < 1000; i++) {
+                transcriptService.generateTranscript(students.get(random.nextInt(students.size())));
+            }
+            transcripts += 1000;
+            if (round % 10 == 0) {
+                gpaEngine.recomputeAll();
+                recomputes++;
+            }
+            List<EnrollmentRequest> requests = new ArrayList<>(200);
+            for (int i = 0; i < 200; i++) {
+                requests.add(new EnrollmentRequest(1 + random.nextInt(studentCount),
+                        courses.get(random.nextInt(courses.size())).getCourseCode()));
+            }
+            enrollments += enrollmentService.enrollAll(requests).stream().filter(EnrollmentResult::isSuccess).count();
+        }
+        pauses.unregister();
+
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        long liveHeap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        long offHeap = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            offHeap += pool.getMemoryUsed();
+        }
+        System.out.println(RESULT_PREFIX + String.format(Locale.ROOT,
+                "storage=%s populateMs=%d gcCount=%d totalPauseMs=%d maxPauseMs=%d p99PauseMs=%d"
+                        + " liveHeapBytes=%d offHeapBytes=%d transcripts=%d recomputes=%d enrollments=%d",
+                mode, populateMillis, pauses.count(), pauses.total(), pauses.max(), pauses.percentile(99),
+                liveHeap, offHeap, transcripts, recomputes, enrollments));
+        // Keep the store reachable until everything above is measured.
+        System.out.println("Students: " + DataStore.getInstance().getStudents().size());
+    }
+
+    /**
+     * Collects the duration of every stop-the-world collection from the JVM's GC
+     * notifications. G1's concurrent cycle runs beside the application and is skipped.
+     */
+    private static final class PauseRecorder {
+        private final List<Long> pausesMillis = new ArrayList<>();
+        private final NotificationListener listener = (notification, handback) -> {
+            if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            if (info.getGcName().contains("Concurrent")) {
+                return;
+            }
+            synchronized (this) {
+                pausesMillis.add(info.getGcInfo().getDuration());
+            }
+        };
+
+        void register() {
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+            }
+        }
+
+        void unregister() {
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                try {
+                    ((NotificationEmitter) collector).removeNotificationListener(listener);
+                } catch (ListenerNotFoundException e) {
+                    // Not registered with this collector.
+                }
+            }
+        }
+
+        synchronized int count() {
+            return pausesMillis.size();
+        }
+
+        synchronized long total() {
+            return pausesMillis.stream().mapToLong(Long::longValue).sum();
+        }
+
+        synchronized long max() {
+            return pausesMillis.stream().mapToLong(Long::longValue).max().orElse(0);
+        }
+
+        synchronized long percentile(double percentile) {
+            if (pausesMillis.isEmpty()) {
+                return 0;
+            }
+            long[] sorted = pausesMillis.stream().mapToLong(Long::longValue).sorted().toArray();
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile / 100 * sorted.length) - 1)];
+        }
+    }
+
+    private static double megabytes(String bytes) {
+        return Long.parseLong(bytes) / (1024.0 * 1024.0);
+    }
+
+    private static int intOption(String[] args, String name, int defaultValue) {
+        String value = option(args, name, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,106 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Student;
+import edu.ccrm.exception.EnrollmentException;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.GpaEngine;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.service.TranscriptService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grading and GPA: assigning grades, reading a student's running GPA, cohort GPA
+ * queries and the fork/join recompute of every student's GPA.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GradeBenchmark {
+
+    @State(Scope.Thread)
+    public static class Enrollments {
+        private final SplittableRandom random = new SplittableRandom(11);
+        int[] studentIds;
+        String[] courseCodes;
+
+        @Setup(Level.Trial)
+        public void setUp(StoreState store) {
+            List<Enrollment> all = new ArrayList<>();
+            for (Student student : DataStore.getInstance().getStudents()) {
+                all.addAll(student.getEnrollments());
+                if (all.size() >= 100_000) {
+                    break;
+                }
+            }
+            studentIds = new int[all.size()];
+            courseCodes = new String[all.size()];
+            for (int i = 0; i < all.size(); i++) {
+                studentIds[i] = all.get(i).getStudentId();
+                courseCodes[i] = all.get(i).getCourseCode();
+            }
+        }
+
+        int pick() {
+            return random.nextInt(studentIds.length);
+        }
+
+        Grade grade() {
+            return Grade.values()[random.nextInt(Grade.values().length)];
+        }
+    }
+
+    private final EnrollmentService enrollmentService = new EnrollmentService();
+    private final StudentService studentService = new StudentService();
+    private final TranscriptService transcriptService = new TranscriptService();
+    private final GpaEngine gpaEngine = new GpaEngine();
+    private final SplittableRandom random = new SplittableRandom(13);
+
+    @Benchmark
+    public void assignGrade(StoreState store, Enrollments enrollments) throws EnrollmentException {
+        int i = enrollments.pick();
+        enrollmentService.assignGrade(enrollments.studentIds[i], enrollments.courseCodes[i], enrollments.grade());
+    }
+
+    @Benchmark
+    public double runningGpa(StoreState store) {
+        return transcriptService.calculateGpa(studentService.findById(store.randomStudentId(random)));
+    }
+
+    @Benchmark
+    public double recomputedGpaOneStudent(StoreState store) {
+        return gpaEngine.calculateGpa(studentService.findById(store.randomStudentId(random)));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Student> cohortBelowThreshold(StoreState store) {
+        return transcriptService.findStudentsWithGpaBelow(5.0);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public GpaEngine.GpaReport recomputeAllForkJoin(StoreState store) {
+        return gpaEngine.recomputeAll();
+    }
+}
@@ -0,0 +1,103 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.StudentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primary-key and secondary-index lookups: students by ID, courses by code,
+ * courses by instructor/semester/department and class rosters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LookupBenchmark {
+
+    @State(Scope.Thread)
+    public static class Keys {
+        private final SplittableRandom random = new SplittableRandom(7);
+        public List<Course> courses;
+        // A boxed map holding the same students, as a baseline for the int-keyed index.
+        public Map<Integer, Student> boxedStudents;
+
+        @Setup(Level.Trial)
+        public void setUp(StoreState store) {
+            courses = DataStore.getInstance().getCourses();
+            boxedStudents = new HashMap<>();
+            for (Student student : DataStore.getInstance().getStudents()) {
+                boxedStudents.put(student.getId(), student);
+            }
+        }
+
+        int studentId(StoreState store) {
+            return store.randomStudentId(random);
+        }
+
+        Course course() {
+            return courses.get(random.nextInt(courses.size()));
+        }
+    }
+
+    private final StudentService studentService = new StudentService();
+    private final CourseService courseService = new CourseService();
+
+    @Benchmark
+    public Student studentById(StoreState store, Keys keys) {
+        return studentService.findById(keys.studentId(store));
+    }
+
+    @Benchmark
+    public Student studentByIdBoxedHashMapBaseline(StoreState store, Keys keys) {
+        return keys.boxedStudents.get(keys.studentId(store));
+    }
+
+    @Benchmark
+    public Course courseByCodeIgnoringCase(Keys keys) {
+        return courseService.findById(keys.course().getCourseCode().toLowerCase(Locale.ROOT));
+    }
+
+    @Benchmark
+    public List<Course> coursesByInstructor(Keys keys) {
+        return courseService.findCoursesByInstructor(keys.course().getInstructorId());
+    }
+
+    @Benchmark
+    public List<Course> coursesByCombinedFilter(Keys keys) {
+        Course course = keys.course();
+        return courseService.findCourses(null, course.getSemester(), course.getDepartment());
+    }
+
+    @Benchmark
+    public List<Course> coursesBySemester() {
+        return courseService.findCoursesBySemester(Semester.FALL);
+    }
+
+    @Benchmark
+    public int[] classRoster(Keys keys) {
+        return courseService.getRosterIds(keys.course().getCourseCode());
+    }
+}
@@ -0,0 +1,64 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.SearchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prefix search: single-term type-ahead queries, multi-term queries and email
+ * lookups against the search index, after it has been built from the store.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Index {
+        SearchService searchService;
+
+        @Setup(Level.Trial)
+        public void build(StoreState store) {
+            searchService = new SearchService();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class StudentQuery {
+        @Param({"a", "mar", "priya", "maya k", "zoe m", "alice.johnson1"})
+        public String query;
+    }
+
+    @State(Scope.Benchmark)
+    public static class CourseQuery {
+        @Param({"alg", "advanced sys"})
+        public String query;
+    }
+
+    @Benchmark
+    public List<Student> searchStudents(Index index, StudentQuery studentQuery) {
+        return index.searchService.searchStudents(studentQuery.query);
+    }
+
+    @Benchmark
+    public List<Course> searchCourses(Index index, CourseQuery courseQuery) {
+        return index.searchService.searchCourses(courseQuery.query);
+    }
+}
@@ -0,0 +1,81 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.io.FileService;
+import edu.ccrm.io.SnapshotService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup paths: restoring from a binary snapshot versus parsing the CSV files,
+ * and writing a snapshot. The snapshot also holds every enrollment and grade,
+ * which the CSV files do not, so it restores more data than the CSV load.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Data {
+        @Param({"100000", "1000000"})
+        public int students;
+
+        Path dir;
+        Path snapshot;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            DataGenerator.Scale scale = DataGenerator.Scale.ofStudents(students);
+            dir = Files.createTempDirectory("ccrm-snapshot");
+            snapshot = dir.resolve("ccrm.snapshot");
+            DataGenerator.writeCsv(scale, DataGenerator.DEFAULT_SEED, dir.resolve("csv"));
+            DataGenerator.populate(scale, DataGenerator.DEFAULT_SEED);
+            new SnapshotService().save(snapshot);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            BenchFiles.deleteRecursively(dir);
+        }
+    }
+
+    private final SnapshotService snapshotService = new SnapshotService();
+    private final FileService fileService = new FileService();
+
+    @Benchmark
+    public int coldStartFromSnapshot(Data data) throws IOException {
+        DataStore.getInstance().clear();
+        return snapshotService.load(data.snapshot);
+    }
+
+    @Benchmark
+    public int coldStartFromCsv(Data data) throws IOException {
+        DataStore.getInstance().clear();
+        return fileService.loadData(data.dir.resolve("csv"));
+    }
+
+    @Benchmark
+    public long saveSnapshot(Data data) throws IOException {
+        return snapshotService.save(data.dir.resolve("saved.snapshot"));
+    }
+}
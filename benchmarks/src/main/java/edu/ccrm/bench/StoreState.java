@@ -0,0 +1,35 @@
+package edu.ccrm.bench;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+
+/**
+ * A DataStore filled by {@link DataGenerator} once per trial, at the scale given by
+ * the "students" parameter (override with e.g. -p students=1000000).
+ */
+@State(Scope.Benchmark)
+public class StoreState {
+
+    @Param({"1000", "100000", "1000000"})
+    public int students;
+
+    public DataGenerator.Scale scale;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        scale = DataGenerator.Scale.ofStudents(students);
+        DataGenerator.populate(scale, DataGenerator.DEFAULT_SEED);
+    }
+
+    /**
+     * A random existing student ID.
+     */
+    public int randomStudentId(SplittableRandom random) {
+        return 1 + random.nextInt(students);
+    }
+}
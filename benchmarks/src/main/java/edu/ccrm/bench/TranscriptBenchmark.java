@@ -0,0 +1,142 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Student;
+import edu.ccrm.io.TranscriptExporter;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.service.TranscriptService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transcript rendering: one transcript at a time (current code and the old
+ * String.format version as a baseline), repeated requests that hit the
+ * transcript cache, and the bulk exporter, whose "transcripts" counter gives
+ * transcripts/sec.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TranscriptBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Data {
+        @Param({"100000"})
+        public int students;
+
+        List<Student> all;
+        Path dir;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            DataGenerator.populate(DataGenerator.Scale.ofStudents(students), DataGenerator.DEFAULT_SEED);
+            all = DataStore.getInstance().getStudents();
+            dir = Files.createTempDirectory("ccrm-transcripts");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            BenchFiles.deleteRecursively(dir);
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long transcripts;
+    }
+
+    private final StudentService studentService = new StudentService();
+    private final TranscriptService transcriptService = new TranscriptService();
+    private final TranscriptExporter exporter = new TranscriptExporter();
+    private final SplittableRandom random = new SplittableRandom(17);
+
+    // Students asked for again and again; small enough to stay in the cache.
+    private static final int HOT_STUDENTS = 1000;
+
+    @Benchmark
+    public String renderTranscript(Data data) {
+        StringBuilder sb = new StringBuilder(256);
+        transcriptService.appendTranscript(studentService.findById(1 + random.nextInt(data.students)), sb);
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String generateTranscriptCached(Data data) {
+        return transcriptService.generateTranscript(studentService.findById(1 + random.nextInt(HOT_STUDENTS)));
+    }
+
+    @Benchmark
+    public String generateTranscriptStringFormatBaseline(Data data) {
+        return legacyTranscript(studentService.findById(1 + random.nextInt(data.students)));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public long bulkCombinedFile(Data data, Counters counters) throws IOException {
+        counters.transcripts += data.all.size();
+        return exporter.writeCombined(data.all, data.dir.resolve("all-transcripts.txt"));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public long bulkFilePerStudent(Data data, Counters counters) throws IOException {
+        counters.transcripts += data.all.size();
+        return exporter.writePerStudent(data.all, data.dir.resolve("per-student"));
+    }
+
+    /**
+     * The transcript as generateTranscript built it with String.format.
+     */
+    private String legacyTranscript(Student student) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n========================================\n");
+        sb.append("      ACADEMIC TRANSCRIPT\n");
+        sb.append("========================================\n");
+        sb.append(student.getProfile());
+        sb.append("\n----------------------------------------\n");
+        sb.append("Enrolled Courses:\n");
+        List<Enrollment> enrollments = student.getEnrollments();
+        if (enrollments.isEmpty()) {
+            sb.append("  No courses enrolled.\n");
+        } else {
+            for (Enrollment enrollment : enrollments) {
+                String gradeStr = (enrollment.getGrade() != null) ? enrollment.getGrade().name() : "Not Graded";
+                sb.append(String.format("  - %-10s | Grade: %s\n", enrollment.getCourseCode(), gradeStr));
+            }
+        }
+        sb.append("----------------------------------------\n");
+        sb.append(String.format("Cumulative GPA: %.2f\n", transcriptService.calculateGpa(student)));
+        sb.append("========================================\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.exception.EnrollmentException;
+import edu.ccrm.io.WriteAheadLog;
+import edu.ccrm.service.EnrollmentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable grade changes: assigning grades with the write-ahead log attached, one
+ * fsync per record versus group commit, from 1 and 8 threads. Run with
+ * -p students=100000 to skip the other store sizes; the log cost does not depend
+ * on them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class WalBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Journal {
+        @Param({"PER_OPERATION", "GROUP"})
+        public WriteAheadLog.SyncMode mode;
+
+        Path dir;
+        WriteAheadLog wal;
+
+        @Setup(Level.Trial)
+        public void open(StoreState store) throws IOException {
+            dir = Files.createTempDirectory("ccrm-wal");
+            wal = new WriteAheadLog(dir.resolve("ccrm.wal"), mode);
+            DataStore.getInstance().setJournal(wal);
+        }
+
+        /** Keeps the log from growing across iterations, as a snapshot would. */
+        @TearDown(Level.Iteration)
+        public void checkpoint() throws IOException {
+            wal.checkpoint();
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            DataStore.getInstance().setJournal(null);
+            wal.close();
+            BenchFiles.deleteRecursively(dir);
+        }
+    }
+
+    private final EnrollmentService enrollmentService = new EnrollmentService();
+
+    @Benchmark
+    public void assignGradeOneThread(Journal journal, GradeBenchmark.Enrollments enrollments) throws EnrollmentException {
+        assign(enrollments);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void assignGrade8Threads(Journal journal, GradeBenchmark.Enrollments enrollments) throws EnrollmentException {
+        assign(enrollments);
+    }
+
+    private void assign(GradeBenchmark.Enrollments enrollments) throws EnrollmentException {
+        int i = enrollments.pick();
+        enrollmentService.assignGrade(enrollments.studentIds[i], enrollments.courseCodes[i], enrollments.grade());
+    }
+}
@@ -0,0 +1,20 @@
+package edu.ccrm.api;
+
+/**
+ * Ends a request with an HTTP error status and a JSON error message.
+ */
+class ApiException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    int getStatus() {
+        return status;
+    }
+}
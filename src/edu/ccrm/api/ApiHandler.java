@@ -0,0 +1,199 @@
+package edu.ccrm.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import edu.ccrm.metrics.Counter;
+import edu.ccrm.metrics.LatencyHistogram;
+import edu.ccrm.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Common request handling for the API: splits the path below the handler's
+ * context, reads parameters from the query string and (for POST) a form body,
+ * and turns {@link ApiException}s and unexpected errors into JSON error responses.
+ * Each handler's latency is recorded as the metric api.&lt;name&gt;.
+ */
+abstract class ApiHandler implements HttpHandler {
+
+    // Form bodies are a few fields; anything larger is not a valid request.
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    // The most results a search returns, whatever limit the client asks for.
+    static final int MAX_LIMIT = 1000;
+
+    private static final Counter SERVER_ERRORS = Metrics.getInstance().counter("api.serverErrors");
+
+    private final LatencyHistogram latency;
+
+    ApiHandler(String name) {
+        this.latency = Metrics.getInstance().histogram("api." + name);
+    }
+
+    /**
+     * A parsed request.
+     */
+    static final class Request {
+        final String method;
+        // The path below the context, split on '/', without empty segments.
+        final String[] path;
+        final Map<String, String> params;
+
+        Request(String method, String[] path, Map<String, String> params) {
+            this.method = method;
+            this.path = path;
+            this.params = params;
+        }
+
+        String param(String name) {
+            return params.get(name);
+        }
+
+        String requireParam(String name) {
+            String value = params.get(name);
+            if (value == null || value.isBlank()) {
+                throw new ApiException(400, "Missing parameter '" + name + "'");
+            }
+            return value.trim();
+        }
+
+        int intParam(String name, int defaultValue) {
+            String value = params.get(name);
+            return value == null || value.isBlank() ? defaultValue : parseInt(name, value);
+        }
+
+        int requireIntParam(String name) {
+            return parseInt(name, requireParam(name));
+        }
+
+        /**
+         * @return The 'limit' parameter, or defaultValue if it is absent, capped at
+         *         {@link #MAX_LIMIT}.
+         * @throws ApiException (400) if the limit is negative.
+         */
+        int limitParam(int defaultValue) {
+            int limit = intParam("limit", defaultValue);
+            if (limit < 0) {
+                throw new ApiException(400, "Parameter 'limit' cannot be negative");
+            }
+            return Math.min(MAX_LIMIT, limit);
+        }
+
+        private static int parseInt(String name, String value) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                throw new ApiException(400, "Parameter '" + name + "' must be a number");
+            }
+        }
+    }
+
+    /**
+     * Handles one request and writes the JSON response body into sb.
+     *
+     * @return The HTTP status code.
+     */
+    abstract int handle(Request request, StringBuilder sb);
+
+    @Override
+    public final void handle(HttpExchange exchange) throws IOException {
+        long startNanos = System.nanoTime();
+        StringBuilder sb = new StringBuilder(512);
+        int status;
+        try {
+            status = handle(parse(exchange), sb);
+        } catch (ApiException e) {
+            status = e.getStatus();
+            error(sb, e.getMessage());
+        } catch (RuntimeException e) {
+            // The details stay in the server's log; the client only learns that it failed.
+            SERVER_ERRORS.increment();
+            System.err.println("Error handling " + exchange.getRequestMethod() + " "
+                    + exchange.getRequestURI().getRawPath() + ": " + e);
+            e.printStackTrace();
+            status = 500;
+            error(sb, "Internal server error");
+        }
+        byte[] body = sb.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+        latency.recordSince(startNanos);
+    }
+
+    private static void error(StringBuilder sb, String message) {
+        sb.setLength(0);
+        sb.append("{\"error\":");
+        Json.string(sb, message);
+        sb.append('}');
+    }
+
+    private static Request parse(HttpExchange exchange) throws IOException {
+        String context = exchange.getHttpContext().getPath();
+        String rawPath = exchange.getRequestURI().getRawPath();
+        String rest = rawPath.length() > context.length() ? rawPath.substring(context.length()) : "";
+        String[] path = Arrays.stream(rest.split("/"))
+                .filter(segment -> !segment.isEmpty())
+                .map(ApiHandler::decode)
+                .toArray(String[]::new);
+
+        Map<String, String> params = new HashMap<>();
+        addParams(exchange.getRequestURI().getRawQuery(), params);
+        if ("POST".equals(exchange.getRequestMethod())) {
+            addParams(readBody(exchange), params);
+        }
+        return new Request(exchange.getRequestMethod(), path, params);
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new ApiException(413, "Request body too large");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Adds name=value pairs from a query string or form body.
+     */
+    private static void addParams(String encoded, Map<String, String> params) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            params.put(decode(name), decode(value));
+        }
+    }
+
+    private static String decode(String encoded) {
+        try {
+            return URLDecoder.decode(encoded, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Malformed URL encoding: " + encoded);
+        }
+    }
+
+    static ApiException methodNotAllowed(Request request) {
+        return new ApiException(405, "Method " + request.method + " not allowed here");
+    }
+
+    static ApiException notFound(String message) {
+        return new ApiException(404, message);
+    }
+}
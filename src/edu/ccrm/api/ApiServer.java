@@ -0,0 +1,99 @@
+package edu.ccrm.api;
+
+import com.sun.net.httpserver.HttpServer;
+import edu.ccrm.service.SearchService;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An embedded HTTP server exposing the services as JSON endpoints under /api, built
+ * on the JDK's com.sun.net.httpserver so there are no outside dependencies. See
+ * {@link StudentHandler}, {@link CourseHandler} and {@link EnrollmentHandler} for
+ * the endpoints.
+ *
+ * Every request runs on its own virtual thread when the JDK has them (Java 21 and
+ * later; looked up by reflection because the project targets Java 17). On older
+ * JDKs requests run on a fixed pool of platform threads, and connections beyond it
+ * wait in the server's queue.
+ */
+public class ApiServer {
+
+    public static final int DEFAULT_PORT = 8080;
+
+    // Size of the fallback pool. Requests are short, but enrollments and grades
+    // wait for the write-ahead log, so there are more threads than cores.
+    private static final int PLATFORM_THREADS = Math.max(64, Runtime.getRuntime().availableProcessors() * 16);
+    // Connections waiting to be accepted, enough for a burst of 1k clients.
+    private static final int BACKLOG = 4096;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    /**
+     * @param port          The port to listen on; 0 picks a free one.
+     * @param searchService The search index to query, shared with the rest of the
+     *                      application so it is built only once.
+     */
+    public ApiServer(int port, SearchService searchService) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.createContext("/api/students", new StudentHandler(searchService));
+        server.createContext("/api/courses", new CourseHandler(searchService));
+        server.createContext("/api/enrollments", new EnrollmentHandler());
+
+        ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+        virtualThreads = virtual != null;
+        executor = virtualThreads ? virtual : Executors.newFixedThreadPool(PLATFORM_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "ccrm-api");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+    }
+
+    /**
+     * @return Executors.newVirtualThreadPerTaskExecutor() if this JDK has it, else null.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting connections, gives running requests up to a second to
+     * finish, then stops the request threads.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return The port the server listens on (useful when it was started on port 0).
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+}
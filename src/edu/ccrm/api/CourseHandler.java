@@ -0,0 +1,112 @@
+package edu.ccrm.api;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.SearchService;
+
+import java.util.Locale;
+
+/**
+ * /api/courses
+ * <pre>
+ * GET /api/courses                                          all courses
+ * GET /api/courses?instructorId=101&amp;semester=FALL&amp;department=...   filtered
+ * GET /api/courses?q=calc                                    prefix search on code and title
+ * GET /api/courses/{code}                                    one course
+ * GET /api/courses/{code}/roster                             IDs of the enrolled students
+ * POST /api/courses     courseCode, title, credits, department, semester, instructorId,
+ *                       capacity (optional, no seat limit if left out)
+ * </pre>
+ * Creating a course whose code is already taken is a 409.
+ */
+class CourseHandler extends ApiHandler {
+
+    private final CourseService courseService = new CourseService();
+    private final SearchService searchService;
+
+    CourseHandler(SearchService searchService) {
+        super("courses");
+        this.searchService = searchService;
+    }
+
+    @Override
+    int handle(Request request, StringBuilder sb) {
+        if (request.method.equals("POST") && request.path.length == 0) {
+            return create(request, sb);
+        }
+        if (!request.method.equals("GET")) {
+            throw methodNotAllowed(request);
+        }
+        if (request.path.length == 0) {
+            return list(request, sb);
+        }
+        Course course = courseService.findById(request.path[0]);
+        if (course == null) {
+            throw notFound("Course with code " + request.path[0] + " not found.");
+        }
+        if (request.path.length == 1) {
+            Json.course(sb, course);
+            return 200;
+        }
+        if (request.path.length == 2 && request.path[1].equals("roster")) {
+            sb.append("{\"courseCode\":");
+            Json.string(sb, course.getCourseCode());
+            sb.append(",\"studentIds\":");
+            Json.ints(sb, courseService.getRosterIds(course.getCourseCode()));
+            sb.append('}');
+            return 200;
+        }
+        throw notFound("No such resource");
+    }
+
+    private int list(Request request, StringBuilder sb) {
+        String query = request.param("q");
+        if (query != null) {
+            int limit = request.limitParam(SearchService.DEFAULT_LIMIT);
+            Json.courses(sb, searchService.searchCourses(query, limit));
+            return 200;
+        }
+        String instructorId = request.param("instructorId");
+        String semester = request.param("semester");
+        String department = request.param("department");
+        if (instructorId == null && semester == null && department == null) {
+            Json.courses(sb, courseService.getAllCourses());
+            return 200;
+        }
+        Json.courses(sb, courseService.findCourses(
+                instructorId == null ? null : request.requireIntParam("instructorId"),
+                semester == null ? null : parseSemester(semester),
+                department));
+        return 200;
+    }
+
+    private int create(Request request, StringBuilder sb) {
+        String courseCode = request.requireParam("courseCode");
+        String title = request.requireParam("title");
+        int credits = request.requireIntParam("credits");
+        String department = request.requireParam("department");
+        Semester semester = parseSemester(request.requireParam("semester"));
+        int instructorId = request.requireIntParam("instructorId");
+        int capacity = request.intParam("capacity", Course.UNLIMITED_CAPACITY);
+        if (capacity < 0) {
+            throw new ApiException(400, "Parameter 'capacity' cannot be negative");
+        }
+        Course course;
+        try {
+            course = courseService.addCourse(courseCode, title, credits, department, semester, instructorId, capacity);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(409, e.getMessage());
+        }
+        Json.course(sb, course);
+        return 201;
+    }
+
+    private static Semester parseSemester(String value) {
+        try {
+            return Semester.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Unknown semester '" + value + "'");
+        }
+    }
+}
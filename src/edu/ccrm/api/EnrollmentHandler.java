@@ -0,0 +1,81 @@
+package edu.ccrm.api;
+
+import edu.ccrm.domain.Grade;
+import edu.ccrm.exception.EnrollmentException;
+import edu.ccrm.exception.MaxCreditsException;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+
+import java.util.Locale;
+
+/**
+ * /api/enrollments
+ * <pre>
+ * POST /api/enrollments         studentId, courseCode
+ * POST /api/enrollments/grade   studentId, courseCode, grade
+ * </pre>
+ * A missing student or course is a 404; any other rejected change (already enrolled,
+ * course full, credit limit, not enrolled) is a 409 with the service's message.
+ */
+class EnrollmentHandler extends ApiHandler {
+
+    private final EnrollmentService enrollmentService = new EnrollmentService();
+    private final StudentService studentService = new StudentService();
+    private final CourseService courseService = new CourseService();
+
+    EnrollmentHandler() {
+        super("enrollments");
+    }
+
+    @Override
+    int handle(Request request, StringBuilder sb) {
+        if (!request.method.equals("POST")) {
+            throw methodNotAllowed(request);
+        }
+        int studentId = request.requireIntParam("studentId");
+        String courseCode = request.requireParam("courseCode");
+        if (studentService.findById(studentId) == null) {
+            throw notFound("Student with ID " + studentId + " not found.");
+        }
+        if (courseService.findById(courseCode) == null) {
+            throw notFound("Course with code " + courseCode + " not found.");
+        }
+
+        if (request.path.length == 0) {
+            try {
+                enrollmentService.enrollStudent(studentId, courseCode);
+            } catch (EnrollmentException | MaxCreditsException e) {
+                throw new ApiException(409, e.getMessage());
+            }
+            appendResult(sb, studentId, courseCode, "ENROLLED");
+            return 201;
+        }
+        if (request.path.length == 1 && request.path[0].equals("grade")) {
+            Grade grade = parseGrade(request.requireParam("grade"));
+            try {
+                enrollmentService.assignGrade(studentId, courseCode, grade);
+            } catch (EnrollmentException e) {
+                throw new ApiException(409, e.getMessage());
+            }
+            appendResult(sb, studentId, courseCode, "GRADED");
+            return 200;
+        }
+        throw notFound("No such resource");
+    }
+
+    private static void appendResult(StringBuilder sb, int studentId, String courseCode, String status) {
+        sb.append("{\"studentId\":").append(studentId);
+        sb.append(",\"courseCode\":");
+        Json.string(sb, courseCode);
+        sb.append(",\"status\":\"").append(status).append("\"}");
+    }
+
+    private static Grade parseGrade(String value) {
+        try {
+            return Grade.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Unknown grade '" + value + "'");
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package edu.ccrm.api;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Student;
+
+import java.util.List;
+
+/**
+ * Writes the JSON views of the domain objects. Hand-written so the API needs no
+ * libraries beyond the JDK; only the fields clients need are included.
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    static void student(StringBuilder sb, Student student, boolean withEnrollments) {
+        sb.append("{\"id\":").append(student.getId());
+        sb.append(",\"fullName\":");
+        string(sb, student.getFullName());
+        sb.append(",\"email\":");
+        string(sb, student.getEmail());
+        sb.append(",\"registrationNumber\":");
+        string(sb, student.getRegistrationNumber());
+        sb.append(",\"status\":\"").append(student.getStatus()).append('"');
+        sb.append(",\"enrollmentDate\":\"").append(student.getEnrollmentDate()).append('"');
+        sb.append(",\"gpa\":").append(student.getGpa());
+        if (withEnrollments) {
+            sb.append(",\"enrollments\":[");
+            List<Enrollment> enrollments = student.getEnrollments();
+            for (int i = 0; i < enrollments.size(); i++) {
+                Enrollment enrollment = enrollments.get(i);
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append("{\"courseCode\":");
+                string(sb, enrollment.getCourseCode());
+                sb.append(",\"semester\":");
+                string(sb, enrollment.getSemester() == null ? null : enrollment.getSemester().name());
+                sb.append(",\"credits\":").append(enrollment.getCredits());
+                sb.append(",\"grade\":");
+                string(sb, enrollment.getGrade() == null ? null : enrollment.getGrade().name());
+                sb.append('}');
+            }
+            sb.append(']');
+        }
+        sb.append('}');
+    }
+
+    static void students(StringBuilder sb, List<Student> students) {
+        sb.append('[');
+        for (int i = 0; i < students.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            student(sb, students.get(i), false);
+        }
+        sb.append(']');
+    }
+
+    static void course(StringBuilder sb, Course course) {
+        sb.append("{\"courseCode\":");
+        string(sb, course.getCourseCode());
+        sb.append(",\"title\":");
+        string(sb, course.getTitle());
+        sb.append(",\"credits\":").append(course.getCredits());
+        sb.append(",\"department\":");
+        string(sb, course.getDepartment());
+        sb.append(",\"semester\":");
+        string(sb, course.getSemester() == null ? null : course.getSemester().name());
+        sb.append(",\"instructorId\":").append(course.getInstructorId());
+        sb.append(",\"capacity\":").append(course.getCapacity());
+        sb.append(",\"seatsTaken\":").append(course.getSeatsTaken());
+        sb.append('}');
+    }
+
+    static void courses(StringBuilder sb, List<Course> courses) {
+        sb.append('[');
+        for (int i = 0; i < courses.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            course(sb, courses.get(i));
+        }
+        sb.append(']');
+    }
+
+    static void ints(StringBuilder sb, int[] values) {
+        sb.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(values[i]);
+        }
+        sb.append(']');
+    }
+
+    /**
+     * Appends a quoted, escaped JSON string, or null.
+     */
+    static void string(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
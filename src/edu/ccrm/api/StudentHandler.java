@@ -0,0 +1,83 @@
+package edu.ccrm.api;
+
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.SearchService;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.service.TranscriptService;
+
+/**
+ * /api/students
+ * <pre>
+ * GET  /api/students?q=ann&amp;limit=20    prefix search on name, email and reg no
+ * GET  /api/students/{id}                 one student with their enrollments
+ * GET  /api/students/{id}/transcript      the transcript text and GPA
+ * POST /api/students                      fullName, email, registrationNumber
+ * </pre>
+ */
+class StudentHandler extends ApiHandler {
+
+    private final StudentService studentService = new StudentService();
+    private final TranscriptService transcriptService = new TranscriptService();
+    private final SearchService searchService;
+
+    StudentHandler(SearchService searchService) {
+        super("students");
+        this.searchService = searchService;
+    }
+
+    @Override
+    int handle(Request request, StringBuilder sb) {
+        if (request.path.length == 0) {
+            return switch (request.method) {
+                case "GET" -> search(request, sb);
+                case "POST" -> create(request, sb);
+                default -> throw methodNotAllowed(request);
+            };
+        }
+        if (!request.method.equals("GET")) {
+            throw methodNotAllowed(request);
+        }
+        Student student = findStudent(request.path[0]);
+        if (request.path.length == 1) {
+            Json.student(sb, student, true);
+            return 200;
+        }
+        if (request.path.length == 2 && request.path[1].equals("transcript")) {
+            sb.append("{\"studentId\":").append(student.getId());
+            sb.append(",\"gpa\":").append(transcriptService.calculateGpa(student));
+            sb.append(",\"transcript\":");
+            Json.string(sb, transcriptService.generateTranscript(student));
+            sb.append('}');
+            return 200;
+        }
+        throw notFound("No such resource");
+    }
+
+    private int search(Request request, StringBuilder sb) {
+        String query = request.requireParam("q");
+        int limit = request.limitParam(SearchService.DEFAULT_LIMIT);
+        Json.students(sb, searchService.searchStudents(query, limit));
+        return 200;
+    }
+
+    private int create(Request request, StringBuilder sb) {
+        Student student = studentService.addStudent(request.requireParam("fullName"),
+                request.requireParam("email"), request.requireParam("registrationNumber"));
+        Json.student(sb, student, false);
+        return 201;
+    }
+
+    private Student findStudent(String idSegment) {
+        int id;
+        try {
+            id = Integer.parseInt(idSegment);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Student ID must be a number");
+        }
+        Student student = studentService.findById(id);
+        if (student == null) {
+            throw notFound("Student with ID " + id + " not found.");
+        }
+        return student;
+    }
+}
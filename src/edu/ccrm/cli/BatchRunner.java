@@ -0,0 +1,322 @@
+package edu.ccrm.cli;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Student;
+import edu.ccrm.exception.EnrollmentException;
+import edu.ccrm.io.BackupService;
+import edu.ccrm.io.FileService;
+import edu.ccrm.service.EnrollmentRequest;
+import edu.ccrm.service.EnrollmentResult;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs commands from a file or standard input without the interactive menu, e.g. to
+ * replay an upstream feed. One command per line, comma separated like the CSV files;
+ * blank lines and lines starting with '#' are skipped:
+ *
+ * <pre>
+ * add-student,&lt;full name&gt;,&lt;email&gt;,&lt;registration no&gt;
+ * enroll,&lt;student id&gt;,&lt;course code&gt;
+ * grade,&lt;student id&gt;,&lt;course code&gt;,&lt;grade&gt;
+ * export[,&lt;directory&gt;]
+ * backup[,full|zip|incremental]
+ * </pre>
+ *
+ * Runs of enroll commands go to {@link EnrollmentService#enrollAll} together, so they
+ * are spread over all cores. While commands run, waiting for the write-ahead log is
+ * deferred: every change is still logged in order, but the runner waits once for a
+ * whole batch to be on disk instead of once per change. Only failures are reported
+ * line by line, into a buffered writer, followed by a summary.
+ */
+class BatchRunner {
+
+    // Commands run between two waits for the write-ahead log.
+    private static final int BATCH_SIZE = 4096;
+
+    private enum Command {
+        ADD_STUDENT("add-student"),
+        ENROLL("enroll"),
+        GRADE("grade"),
+        EXPORT("export"),
+        BACKUP("backup");
+
+        private final String name;
+
+        Command(String name) {
+            this.name = name;
+        }
+
+        static Command parse(String name) {
+            for (Command command : values()) {
+                if (command.name.equalsIgnoreCase(name)) {
+                    return command;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private final StudentService studentService = new StudentService();
+    private final EnrollmentService enrollmentService = new EnrollmentService();
+    private final FileService fileService = new FileService();
+    private final BackupService backupService = new BackupService();
+    private final PrintWriter out;
+
+    private final List<EnrollmentRequest> pendingEnrollments = new ArrayList<>();
+    private final List<Integer> pendingEnrollmentLines = new ArrayList<>();
+    private final int[] succeeded = new int[Command.values().length];
+    private final int[] failed = new int[Command.values().length];
+    private int invalid;
+    private int sinceLastWait;
+    private DeferredJournal journal;
+
+    /**
+     * @param out Where failures and the summary are written. The caller flushes it.
+     */
+    BatchRunner(PrintWriter out) {
+        this.out = out;
+    }
+
+    /**
+     * Runs every command from the reader.
+     *
+     * @return The number of commands that failed or could not be parsed.
+     */
+    int run(BufferedReader in) throws IOException {
+        long startNanos = System.nanoTime();
+        MutationJournal original = dataStore.getJournal();
+        journal = new DeferredJournal(original);
+        dataStore.setJournal(journal);
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                execute(lineNumber, line.split(",", -1));
+                if (++sinceLastWait >= BATCH_SIZE) {
+                    awaitBatch();
+                }
+            }
+            awaitBatch();
+        } finally {
+            dataStore.setJournal(original);
+        }
+        printSummary(System.nanoTime() - startNanos);
+        return invalid + sum(failed);
+    }
+
+    private void execute(int lineNumber, String[] fields) {
+        Command command = Command.parse(fields[0].trim());
+        if (command == null) {
+            invalid++;
+            out.println("line " + lineNumber + ": unknown command '" + fields[0].trim() + "'");
+            return;
+        }
+        if (command != Command.ENROLL) {
+            // Later commands may depend on the enrollments, e.g. a grade for one.
+            flushEnrollments();
+        }
+        try {
+            switch (command) {
+                case ADD_STUDENT -> addStudent(fields);
+                case ENROLL -> queueEnrollment(lineNumber, fields);
+                case GRADE -> assignGrade(fields);
+                case EXPORT -> export(fields);
+                case BACKUP -> backup(fields);
+            }
+            if (command != Command.ENROLL) {
+                succeeded[command.ordinal()]++;
+            }
+        } catch (EnrollmentException | IOException | IllegalArgumentException e) {
+            failed[command.ordinal()]++;
+            out.println("line " + lineNumber + ": " + command.name + " failed: " + e.getMessage());
+        }
+    }
+
+    private void addStudent(String[] fields) {
+        requireFields(fields, 4, "add-student,<full name>,<email>,<registration no>");
+        studentService.addStudent(fields[1].trim(), fields[2].trim(), fields[3].trim());
+    }
+
+    private void queueEnrollment(int lineNumber, String[] fields) {
+        requireFields(fields, 3, "enroll,<student id>,<course code>");
+        pendingEnrollments.add(new EnrollmentRequest(parseId(fields[1]), fields[2].trim()));
+        pendingEnrollmentLines.add(lineNumber);
+        if (pendingEnrollments.size() >= BATCH_SIZE) {
+            flushEnrollments();
+        }
+    }
+
+    private void assignGrade(String[] fields) throws EnrollmentException {
+        requireFields(fields, 4, "grade,<student id>,<course code>,<grade>");
+        Grade grade;
+        try {
+            grade = Grade.valueOf(fields[3].trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid grade '" + fields[3].trim() + "'");
+        }
+        enrollmentService.assignGrade(parseId(fields[1]), fields[2].trim(), grade);
+    }
+
+    private void export(String[] fields) throws IOException {
+        Path directory = Paths.get(fields.length > 1 && !fields[1].isBlank() ? fields[1].trim() : "exports");
+        awaitBatch();
+        long bytes = fileService.exportData(directory);
+        out.println("Exported " + bytes + " bytes to " + directory.toAbsolutePath());
+    }
+
+    private void backup(String[] fields) throws IOException {
+        String kind = fields.length > 1 && !fields[1].isBlank() ? fields[1].trim().toLowerCase(Locale.ROOT) : "full";
+        awaitBatch();
+        // BackupService reports on the console itself; keep our output in order with it.
+        out.flush();
+        boolean created = switch (kind) {
+            case "full" -> backupService.createBackup();
+            case "zip" -> backupService.createCompressedBackup();
+            case "incremental" -> backupService.createIncrementalBackup();
+            default -> throw new IllegalArgumentException("unknown backup kind '" + kind + "' (full, zip or incremental)");
+        };
+        if (!created) {
+            throw new IOException("see the error above");
+        }
+    }
+
+    /**
+     * Sends the queued enrollments to the service in one call and reports failures.
+     */
+    private void flushEnrollments() {
+        if (pendingEnrollments.isEmpty()) {
+            return;
+        }
+        List<EnrollmentResult> results = enrollmentService.enrollAll(pendingEnrollments, ForkJoinPool.commonPool());
+        for (int i = 0; i < results.size(); i++) {
+            EnrollmentResult result = results.get(i);
+            if (result.isSuccess()) {
+                succeeded[Command.ENROLL.ordinal()]++;
+            } else {
+                failed[Command.ENROLL.ordinal()]++;
+                out.println("line " + pendingEnrollmentLines.get(i) + ": enroll failed: " + result.getMessage());
+            }
+        }
+        pendingEnrollments.clear();
+        pendingEnrollmentLines.clear();
+    }
+
+    /**
+     * Runs any queued enrollments and waits until every change so far is on disk.
+     */
+    private void awaitBatch() {
+        flushEnrollments();
+        journal.awaitAll();
+        sinceLastWait = 0;
+    }
+
+    private void printSummary(long elapsedNanos) {
+        int total = invalid + sum(succeeded) + sum(failed);
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        out.println();
+        out.println("--- Batch Summary ---");
+        out.printf(Locale.ROOT, "%d commands in %.3f s (%.0f commands/sec)%n", total, seconds, total / seconds);
+        for (Command command : Command.values()) {
+            int ok = succeeded[command.ordinal()];
+            int bad = failed[command.ordinal()];
+            if (ok + bad > 0) {
+                out.printf(Locale.ROOT, "  %-12s %8d ok %8d failed%n", command.name, ok, bad);
+            }
+        }
+        if (invalid > 0) {
+            out.printf(Locale.ROOT, "  %-12s %8d lines not understood%n", "invalid", invalid);
+        }
+    }
+
+    private static void requireFields(String[] fields, int count, String usage) {
+        if (fields.length != count) {
+            throw new IllegalArgumentException("expected " + usage);
+        }
+    }
+
+    private static int parseId(String field) {
+        try {
+            return Integer.parseInt(field.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid student ID '" + field.trim() + "'");
+        }
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Passes every record on to the real journal but does not wait in
+     * {@link #awaitDurable(long)}; the runner calls {@link #awaitAll()} per batch.
+     * enrollAll logs from several threads, so the last sequence is kept atomically.
+     */
+    private static final class DeferredJournal implements MutationJournal {
+        private final MutationJournal target;
+        private final AtomicLong lastSequence = new AtomicLong();
+
+        DeferredJournal(MutationJournal target) {
+            this.target = target;
+        }
+
+        @Override
+        public long studentAdded(Student student) {
+            return logged(target.studentAdded(student));
+        }
+
+        @Override
+        public long courseAdded(Course course) {
+            return logged(target.courseAdded(course));
+        }
+
+        @Override
+        public long enrolled(Enrollment enrollment) {
+            return logged(target.enrolled(enrollment));
+        }
+
+        @Override
+        public long gradeAssigned(int studentId, String courseCode, Grade grade) {
+            return logged(target.gradeAssigned(studentId, courseCode, grade));
+        }
+
+        @Override
+        public void awaitDurable(long sequence) {
+            // Deferred to the end of the batch.
+        }
+
+        void awaitAll() {
+            target.awaitDurable(lastSequence.get());
+        }
+
+        private long logged(long sequence) {
+            lastSequence.accumulateAndGet(sequence, Math::max);
+            return sequence;
+        }
+    }
+}
@@ -1,19 +1,40 @@
 package edu.ccrm.cli;
 
+import edu.ccrm.api.ApiServer;
+import edu.ccrm.config.DataStore;
 import edu.ccrm.domain.Course;
 import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
 import edu.ccrm.domain.Student;
 import edu.ccrm.exception.EnrollmentException;
 import edu.ccrm.exception.MaxCreditsException;
 import edu.ccrm.io.BackupService;
+import edu.ccrm.io.EnrollmentTableFile;
 import edu.ccrm.io.FileService;
+import edu.ccrm.io.SnapshotService;
+import edu.ccrm.io.TranscriptExporter;
+import edu.ccrm.io.WriteAheadLog;
+import edu.ccrm.metrics.Metrics;
+import edu.ccrm.metrics.MetricsReporter;
 import edu.ccrm.service.CourseService;
 import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.SearchService;
 import edu.ccrm.service.StudentService;
 import edu.ccrm.service.TranscriptService;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 public class CCRMApp {
 
@@ -21,12 +42,46 @@ public class CCRMApp {
     private static final CourseService courseService = new CourseService();
     private static final EnrollmentService enrollmentService = new EnrollmentService();
     private static final TranscriptService transcriptService = new TranscriptService();
+    // Created before any data is loaded so its indexes see every insert.
+    private static final SearchService searchService = new SearchService();
     private static final FileService fileService = new FileService();
     private static final BackupService backupService = new BackupService();
+    private static final SnapshotService snapshotService = new SnapshotService();
+    private static final TranscriptExporter transcriptExporter = new TranscriptExporter();
+    private static final MetricsReporter metricsReporter = new MetricsReporter();
     private static final Scanner scanner = new Scanner(System.in);
+    private static WriteAheadLog writeAheadLog;
+    private static EnrollmentTableFile enrollmentTableFile;
 
     public static void main(String[] args) {
-        fileService.loadInitialData();
+        boolean batchMode = args.length > 0 && args[0].equals("--batch");
+        boolean serveMode = args.length > 0 && args[0].equals("--serve");
+        if ((batchMode && args.length != 2) || (serveMode && args.length > 2)) {
+            System.err.println("Usage: CCRMApp [--batch <command file, or - for standard input> | --serve [port]]");
+            System.exit(2);
+        }
+
+        if (!"mapped".equalsIgnoreCase(System.getProperty("ccrm.enrollmentStorage"))
+                || !reattachEnrollmentTable()) {
+            // A binary snapshot is much faster to load than the CSV files, so prefer it.
+            if (!snapshotService.loadIfPresent()) {
+                fileService.loadInitialData();
+            }
+        }
+        openWriteAheadLog();
+        metricsReporter.startPeriodicDump(MetricsReporter.DEFAULT_DUMP_PATH,
+                MetricsReporter.DEFAULT_DUMP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        if (batchMode) {
+            int failures = runBatch(args[1]);
+            shutDown();
+            System.exit(failures == 0 ? 0 : 1);
+        }
+        if (serveMode) {
+            serve(args.length == 2 ? args[1] : String.valueOf(ApiServer.DEFAULT_PORT));
+            return;
+        }
+
         displayWelcomeMessage();
 
         boolean exit = false;
@@ -39,16 +94,164 @@ public class CCRMApp {
                 case 2 -> handleCourseMenu();
                 case 3 -> handleEnrollmentMenu();
                 case 4 -> handleFileMenu();
-                case 5 -> {
+                case 5 -> handleMetricsMenu();
+                case 6 -> {
                     exit = true;
+                    shutDown();
                     System.out.println("\nThank you for using CCRM. Goodbye!");
                 }
-                default -> System.out.println("Invalid choice. Please enter a number between 1 and 5.");
+                default -> System.out.println("Invalid choice. Please enter a number between 1 and 6.");
             }
         }
         scanner.close();
     }
 
+    /**
+     * Runs the commands in a file (or standard input for "-") with {@link BatchRunner}.
+     *
+     * @return The number of commands that failed.
+     */
+    private static int runBatch(String source) {
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 64 * 1024));
+        try (BufferedReader in = source.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8)) {
+            return new BatchRunner(out).run(in);
+        } catch (IOException e) {
+            System.err.println("Error reading batch commands: " + e.getMessage());
+            return 1;
+        } finally {
+            out.flush();
+        }
+    }
+
+    /**
+     * Starts the HTTP API and keeps serving until the process is stopped (Ctrl+C),
+     * then closes the write-ahead log as on a normal exit.
+     */
+    private static void serve(String port) {
+        try {
+            ApiServer server = new ApiServer(Integer.parseInt(port), searchService);
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                shutDown();
+            }, "ccrm-shutdown"));
+            System.out.println("Serving the CCRM API at http://localhost:" + server.getPort() + "/api/ ("
+                    + (server.usesVirtualThreads() ? "virtual threads" : "platform thread pool")
+                    + "). Press Ctrl+C to stop.");
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid port: " + port);
+            shutDown();
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Could not start the API server: " + e.getMessage());
+            shutDown();
+            System.exit(1);
+        }
+    }
+
+    private static void shutDown() {
+        closeWriteAheadLog();
+        closeEnrollmentTable();
+        metricsReporter.stop();
+    }
+
+    /**
+     * With -Dccrm.enrollmentStorage=mapped, keeps the enrollments in
+     * {@link EnrollmentTableFile#DEFAULT_PATH}. If the file was closed cleanly
+     * against the current snapshot, loads the snapshot without its enrollments and
+     * maps the stored rows back instead; otherwise starts a new file, which the
+     * normal load then fills.
+     *
+     * @return true if the data was loaded, false if the caller still has to load it.
+     */
+    private static boolean reattachEnrollmentTable() {
+        DataStore dataStore = DataStore.getInstance();
+        try {
+            enrollmentTableFile = EnrollmentTableFile.open(EnrollmentTableFile.DEFAULT_PATH);
+            if (enrollmentTableFile.canReattach(SnapshotService.fingerprint(SnapshotService.DEFAULT_PATH))
+                    && snapshotService.loadIfPresent(false)) {
+                long startNanos = System.nanoTime();
+                int enrollments = dataStore.reattachEnrollments(enrollmentTableFile.reattach(dataStore::findCourseByCode));
+                long millis = (System.nanoTime() - startNanos) / 1_000_000;
+                System.out.println("Reattached " + enrollments + " enrollments from "
+                        + EnrollmentTableFile.DEFAULT_PATH + " in " + millis + " ms.");
+                return true;
+            }
+            dataStore.useEnrollmentTable(enrollmentTableFile.createTable());
+        } catch (IOException | RuntimeException e) {
+            // A failed reattach leaves an empty store with its in-memory table, and
+            // the normal load below replaces whatever the snapshot already added.
+            System.err.println("Enrollment table file unavailable, keeping enrollments in memory: " + e.getMessage());
+            if (enrollmentTableFile != null) {
+                try {
+                    enrollmentTableFile.close();
+                } catch (IOException ignored) {
+                    // Already failing; the file is not marked clean either way.
+                }
+                enrollmentTableFile = null;
+            }
+        }
+        return false;
+    }
+
+    private static void closeEnrollmentTable() {
+        if (enrollmentTableFile == null) {
+            return;
+        }
+        try {
+            enrollmentTableFile.close(DataStore.getInstance().getStudents(),
+                    SnapshotService.fingerprint(SnapshotService.DEFAULT_PATH));
+        } catch (IOException e) {
+            System.err.println("Error closing the enrollment table file: " + e.getMessage());
+        }
+        enrollmentTableFile = null;
+    }
+
+    /**
+     * Replays changes made since the last snapshot or CSV load, then keeps logging
+     * every new change so that a crash does not lose it.
+     */
+    private static void openWriteAheadLog() {
+        try {
+            writeAheadLog = new WriteAheadLog(WriteAheadLog.DEFAULT_PATH, WriteAheadLog.SyncMode.GROUP);
+            int replayed = writeAheadLog.replay(DataStore.getInstance());
+            if (replayed > 0) {
+                System.out.println("Recovered " + replayed + " changes from the write-ahead log.");
+            }
+            DataStore.getInstance().setJournal(writeAheadLog);
+        } catch (IOException e) {
+            System.err.println("Write-ahead log unavailable, changes will not survive a crash: " + e.getMessage());
+        }
+    }
+
+    private static void closeWriteAheadLog() {
+        if (writeAheadLog == null) {
+            return;
+        }
+        try {
+            DataStore.getInstance().setJournal(null);
+            writeAheadLog.close();
+        } catch (IOException e) {
+            System.err.println("Error closing the write-ahead log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves a snapshot and, once it is safely on disk, empties the write-ahead log.
+     */
+    private static void saveSnapshot() {
+        if (snapshotService.saveSnapshot() && writeAheadLog != null) {
+            try {
+                writeAheadLog.checkpoint();
+            } catch (IOException e) {
+                System.err.println("Error truncating the write-ahead log: " + e.getMessage());
+            }
+        }
+    }
+
     private static void displayWelcomeMessage() {
         System.out.println("======================================================");
         System.out.println(" Welcome to the Campus Course & Records Manager (CCRM)");
@@ -61,7 +264,8 @@ public class CCRMApp {
         System.out.println("2. Manage Courses");
         System.out.println("3. Manage Enrollments & Grades");
         System.out.println("4. File Utilities");
-        System.out.println("5. Exit");
+        System.out.println("5. View Metrics");
+        System.out.println("6. Exit");
         System.out.print("Enter your choice: ");
     }
 
@@ -70,7 +274,8 @@ public class CCRMApp {
         System.out.println("1. Add New Student"); // NEW OPTION
         System.out.println("2. List All Students");
         System.out.println("3. View Student Profile & Transcript");
-        System.out.println("4. Back to Main Menu");
+        System.out.println("4. Search Students (name, email, reg no)");
+        System.out.println("5. Back to Main Menu");
         System.out.print("Enter your choice: ");
         int choice = getUserChoice();
 
@@ -78,7 +283,8 @@ public class CCRMApp {
             case 1 -> addNewStudent(); // NEW METHOD CALL
             case 2 -> listAllStudents();
             case 3 -> viewStudentProfile();
-            case 4 -> System.out.println("Returning to Main Menu...");
+            case 4 -> searchStudents();
+            case 5 -> System.out.println("Returning to Main Menu...");
             default -> System.out.println("Invalid choice.");
         }
     }
@@ -103,18 +309,54 @@ public class CCRMApp {
         System.out.println("\n--- Course Management ---");
         System.out.println("1. List All Courses");
         System.out.println("2. Search Courses by Instructor ID");
-        System.out.println("3. Back to Main Menu");
+        System.out.println("3. Filter Courses (instructor, semester, department)");
+        System.out.println("4. View Class Roster");
+        System.out.println("5. Search Courses by Title");
+        System.out.println("6. Add New Course");
+        System.out.println("7. Back to Main Menu");
         System.out.print("Enter your choice: ");
         int choice = getUserChoice();
 
         switch (choice) {
             case 1 -> listAllCourses();
             case 2 -> searchCoursesByInstructor();
-            case 3 -> System.out.println("Returning to Main Menu...");
+            case 3 -> filterCourses();
+            case 4 -> viewClassRoster();
+            case 5 -> searchCourses();
+            case 6 -> addNewCourse();
+            case 7 -> System.out.println("Returning to Main Menu...");
             default -> System.out.println("Invalid choice.");
         }
     }
 
+    private static void addNewCourse() {
+        System.out.println("\n--- Add New Course ---");
+        System.out.print("Enter Course Code: ");
+        String courseCode = scanner.nextLine().trim();
+        System.out.print("Enter Title: ");
+        String title = scanner.nextLine().trim();
+        System.out.print("Enter Credits: ");
+        String creditsInput = scanner.nextLine().trim();
+        System.out.print("Enter Department: ");
+        String department = scanner.nextLine().trim();
+        System.out.print("Semester (FALL, INTERIM, SUMMER, WINTER): ");
+        String semesterInput = scanner.nextLine().trim();
+        System.out.print("Enter Instructor ID: ");
+        String instructorInput = scanner.nextLine().trim();
+        System.out.print("Capacity (blank for no limit): ");
+        String capacityInput = scanner.nextLine().trim();
+
+        try {
+            int capacity = capacityInput.isEmpty() ? Course.UNLIMITED_CAPACITY : Integer.parseInt(capacityInput);
+            Course course = courseService.addCourse(courseCode, title, Integer.parseInt(creditsInput), department,
+                    Semester.valueOf(semesterInput.toUpperCase()), Integer.parseInt(instructorInput), capacity);
+            System.out.println("Course added successfully!");
+            System.out.println(course);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Could not add course: " + e.getMessage());
+        }
+    }
+
     private static void handleEnrollmentMenu() {
         System.out.println("\n--- Enrollment & Grade Management ---");
         System.out.println("1. Enroll Student in a Course");
@@ -135,18 +377,78 @@ public class CCRMApp {
         System.out.println("\n--- File Utilities ---");
         System.out.println("1. Export All Data");
         System.out.println("2. Create Backup of Exported Data");
-        System.out.println("3. Back to Main Menu");
+        System.out.println("3. Create Compressed Backup (zip)");
+        System.out.println("4. Create Incremental Backup");
+        System.out.println("5. Restore Incremental Backup");
+        System.out.println("6. Save Snapshot (fast startup)");
+        System.out.println("7. Generate All Transcripts");
+        System.out.println("8. Back to Main Menu");
         System.out.print("Enter your choice: ");
         int choice = getUserChoice();
 
         switch (choice) {
             case 1 -> fileService.exportData();
             case 2 -> backupService.createBackup();
-            case 3 -> System.out.println("Returning to Main Menu...");
+            case 3 -> backupService.createCompressedBackup();
+            case 4 -> backupService.createIncrementalBackup();
+            case 5 -> restoreIncrementalBackup();
+            case 6 -> saveSnapshot();
+            case 7 -> generateAllTranscripts();
+            case 8 -> System.out.println("Returning to Main Menu...");
+            default -> System.out.println("Invalid choice.");
+        }
+    }
+
+    private static void handleMetricsMenu() {
+        Metrics metrics = Metrics.getInstance();
+        System.out.println("\n--- Metrics ---");
+        System.out.println("1. Show Latencies & Counters");
+        System.out.println("2. Reset Metrics");
+        System.out.println("3. Turn Recording " + (metrics.isEnabled() ? "Off" : "On"));
+        System.out.println("4. Back to Main Menu");
+        System.out.print("Enter your choice: ");
+        int choice = getUserChoice();
+
+        switch (choice) {
+            case 1 -> {
+                System.out.println();
+                System.out.print(metricsReporter.report());
+                System.out.println("(Also written every " + MetricsReporter.DEFAULT_DUMP_INTERVAL_SECONDS
+                        + " s to " + MetricsReporter.DEFAULT_DUMP_PATH.toAbsolutePath() + ")");
+            }
+            case 2 -> {
+                metrics.reset();
+                System.out.println("Metrics reset.");
+            }
+            case 3 -> {
+                metrics.setEnabled(!metrics.isEnabled());
+                System.out.println("Metrics recording is now " + (metrics.isEnabled() ? "on." : "off."));
+            }
+            case 4 -> System.out.println("Returning to Main Menu...");
             default -> System.out.println("Invalid choice.");
         }
     }
 
+    private static void restoreIncrementalBackup() {
+        List<String> backups = backupService.listIncrementalBackups();
+        if (backups.isEmpty()) {
+            System.out.println("No incremental backups found.");
+            return;
+        }
+        System.out.println("\n--- Incremental Backups ---");
+        backups.forEach(System.out::println);
+        System.out.print("Enter backup name to restore: ");
+        String backupName = scanner.nextLine().trim();
+        Path targetDir = Paths.get("restored", backupName);
+        backupService.restoreIncrementalBackup(backupName, targetDir);
+    }
+
+    private static void generateAllTranscripts() {
+        System.out.print("Write one file per student? (y/n): ");
+        boolean perStudent = scanner.nextLine().trim().equalsIgnoreCase("y");
+        transcriptExporter.exportAll(perStudent);
+    }
+
     private static void listAllStudents() {
         System.out.println("\n--- List of All Students ---");
         studentService.getAllStudents().forEach(student -> System.out.println(student.getProfile()));
@@ -163,6 +465,28 @@ public class CCRMApp {
         }
     }
 
+    private static void searchStudents() {
+        System.out.print("Search: ");
+        String query = scanner.nextLine();
+        List<Student> matches = searchService.searchStudents(query);
+        if (matches.isEmpty()) {
+            System.out.println("No students found.");
+        } else {
+            matches.forEach(student -> System.out.println(student.getProfile()));
+        }
+    }
+
+    private static void searchCourses() {
+        System.out.print("Search course titles: ");
+        String query = scanner.nextLine();
+        List<Course> matches = searchService.searchCourses(query);
+        if (matches.isEmpty()) {
+            System.out.println("No courses found.");
+        } else {
+            matches.forEach(System.out::println);
+        }
+    }
+
     private static void listAllCourses() {
         System.out.println("\n--- List of All Courses ---");
         courseService.getAllCourses().forEach(System.out::println);
@@ -180,6 +504,44 @@ public class CCRMApp {
         }
     }
 
+    private static void filterCourses() {
+        System.out.println("Leave a field blank to match any value.");
+        System.out.print("Instructor ID: ");
+        String instructorInput = scanner.nextLine().trim();
+        System.out.print("Semester (FALL, INTERIM, SUMMER, WINTER): ");
+        String semesterInput = scanner.nextLine().trim();
+        System.out.print("Department: ");
+        String departmentInput = scanner.nextLine().trim();
+
+        try {
+            Integer instructorId = instructorInput.isEmpty() ? null : Integer.valueOf(instructorInput);
+            Semester semester = semesterInput.isEmpty() ? null : Semester.valueOf(semesterInput.toUpperCase());
+            String department = departmentInput.isEmpty() ? null : departmentInput;
+
+            List<Course> courses = courseService.findCourses(instructorId, semester, department);
+            System.out.println("\n--- Matching Courses ---");
+            if (courses.isEmpty()) {
+                System.out.println("No courses match these filters.");
+            } else {
+                courses.forEach(System.out::println);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid filter: " + e.getMessage());
+        }
+    }
+
+    private static void viewClassRoster() {
+        System.out.print("Enter Course Code: ");
+        String courseCode = scanner.nextLine().trim();
+        List<Student> roster = courseService.getRoster(courseCode);
+        System.out.println("\n--- Roster for " + courseCode + " (" + roster.size() + " students) ---");
+        if (roster.isEmpty()) {
+            System.out.println("No students are enrolled in this course.");
+        } else {
+            roster.forEach(student -> System.out.println(student.getProfile()));
+        }
+    }
+
     private static void enrollStudent() {
         System.out.print("Enter Student ID: ");
         int studentId = getUserChoice();
@@ -0,0 +1,43 @@
+package edu.ccrm.config;
+
+import java.util.Arrays;
+
+/**
+ * The IDs of the students enrolled in one course, in enrollment order, kept in a
+ * growable int array so a roster of any size costs no boxed Integers.
+ */
+final class CourseRoster {
+
+    private int[] studentIds = new int[16];
+    private int size;
+
+    synchronized void add(int studentId) {
+        if (size == studentIds.length) {
+            studentIds = Arrays.copyOf(studentIds, size * 2);
+        }
+        studentIds[size++] = studentId;
+    }
+
+    /**
+     * Removes the student, keeping the others in order. Only used when a student is
+     * deleted, so the linear search is fine.
+     */
+    synchronized boolean remove(int studentId) {
+        for (int i = 0; i < size; i++) {
+            if (studentIds[i] == studentId) {
+                System.arraycopy(studentIds, i + 1, studentIds, i, size - i - 1);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized int[] toArray() {
+        return Arrays.copyOf(studentIds, size);
+    }
+}
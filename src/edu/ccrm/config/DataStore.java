@@ -2,28 +2,85 @@ package edu.ccrm.config;
 
 import edu.ccrm.domain.Course;
 import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.EnrollmentTable;
 import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.OffHeapEnrollmentStorage;
+import edu.ccrm.domain.Semester;
 import edu.ccrm.domain.Student;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Implements the Singleton design pattern to provide a single, global point of access
  * to the application's in-memory data. This ensures that all parts of the application
  * share the same data store.
+ *
+ * The store is safe to use from many threads. Entities live in concurrent maps (the
+ * primitive student index is guarded by a read/write lock), the getters return
+ * read-only snapshots, and per-student lock stripes serialize enrollment mutations.
  */
 public class DataStore {
 
+    // Number of per-student lock stripes. A power of two so a mask picks the stripe.
+    private static final int STUDENT_LOCK_STRIPES = 256;
+
     // 1. The single, static instance of the class. It's private so no one else can access it.
     private static DataStore instance = null;
 
-    // Data lists to hold our domain objects.
+    // Students are keyed by a primitive int map so no Integer objects are created.
+    // The list keeps insertion order for snapshots; both are guarded by studentsLock.
+    private final IntObjectMap<Student> studentsById;
     private final List<Student> students;
-    private final List<Instructor> instructors;
-    private final List<Course> courses;
-    private final List<Enrollment> enrollments;
+    private final ReadWriteLock studentsLock;
+
+    // Primary-key indexes for the other entities. Course codes are keyed upper-case.
+    private final Map<Integer, Instructor> instructorsById;
+    private final Map<String, Course> coursesByCode;
+
+    // Dense catalog indexes, one per course code ever added. An index stays with its
+    // code when the course is replaced or removed, so enrollments never point at the
+    // wrong course.
+    private final Map<String, Integer> courseIndexByCode;
+    private final AtomicInteger nextCourseIndex;
+
+    // Secondary course indexes, kept in step with coursesByCode. Departments are keyed
+    // upper-case. Writers hold catalogLock so a course is never half re-indexed;
+    // readers only touch the concurrent sets.
+    private final Map<Integer, Set<Course>> coursesByInstructor;
+    private final Map<Semester, Set<Course>> coursesBySemester;
+    private final Map<String, Set<Course>> coursesByDepartment;
+    private final Object catalogLock = new Object();
+
+    // Class rosters: course code (upper-case) to the IDs of its enrolled students.
+    // Updated by attachEnrollment, which every enrollment path goes through.
+    private final Map<String, CourseRoster> rostersByCode;
+
+    // Every enrollment's data, row by row; students hold their row numbers. Replaced
+    // by clear(), so students from before keep reading their old rows. Kept outside
+    // the heap with -Dccrm.enrollmentStorage=offheap (or mapped, see CCRMApp).
+    private volatile EnrollmentTable enrollmentTable;
+
+    // Locks that EnrollmentService takes before changing a student's enrollments.
+    private final Lock[] studentLocks;
+
+    // Where the services record their changes; replaced when a write-ahead log is attached.
+    private volatile MutationJournal journal = MutationJournal.NONE;
+
+    // Notified after students and courses are added or removed.
+    private final List<DataStoreListener> listeners = new CopyOnWriteArrayList<>();
 
     // AtomicIntegers are a thread-safe way to generate unique IDs.
     private final AtomicInteger studentIdCounter;
@@ -34,11 +91,27 @@ public class DataStore {
      * It prevents anyone from creating a new instance using `new DataStore()`.
      */
     private DataStore() {
+        studentsById = new IntObjectMap<>();
         students = new ArrayList<>();
-        instructors = new ArrayList<>();
-        courses = new ArrayList<>();
-        enrollments = new ArrayList<>();
-        
+        studentsLock = new ReentrantReadWriteLock();
+        instructorsById = new ConcurrentHashMap<>();
+        coursesByCode = new ConcurrentHashMap<>();
+        courseIndexByCode = new ConcurrentHashMap<>();
+        nextCourseIndex = new AtomicInteger(0);
+        coursesByInstructor = new ConcurrentHashMap<>();
+        coursesBySemester = new EnumMap<>(Semester.class);
+        for (Semester semester : Semester.values()) {
+            coursesBySemester.put(semester, ConcurrentHashMap.newKeySet());
+        }
+        coursesByDepartment = new ConcurrentHashMap<>();
+        rostersByCode = new ConcurrentHashMap<>();
+        enrollmentTable = newEnrollmentTable(System.getProperty("ccrm.enrollmentStorage", "heap"));
+
+        studentLocks = new Lock[STUDENT_LOCK_STRIPES];
+        for (int i = 0; i < studentLocks.length; i++) {
+            studentLocks[i] = new ReentrantLock();
+        }
+
         // Start counters from 1
         studentIdCounter = new AtomicInteger(0);
         instructorIdCounter = new AtomicInteger(0);
@@ -67,21 +140,520 @@ public class DataStore {
         return instructorIdCounter.incrementAndGet();
     }
 
-    // --- Data Access Methods (Getters for the lists) ---
+    // --- Entity Mutation ---
+    // Entities must be added through these methods so that the indexes stay consistent.
+
+    public void addStudent(Student student) {
+        Student previous;
+        studentsLock.writeLock().lock();
+        try {
+            previous = studentsById.put(student.getId(), student);
+            if (previous != null) {
+                students.removeIf(existing -> existing.getId() == student.getId());
+            }
+            students.add(student);
+        } finally {
+            studentsLock.writeLock().unlock();
+        }
+        // Loaded students carry their own ids, so keep the generator ahead of them.
+        studentIdCounter.accumulateAndGet(student.getId(), Math::max);
+        for (DataStoreListener listener : listeners) {
+            if (previous != null) {
+                listener.studentRemoved(previous);
+            }
+            listener.studentAdded(student);
+        }
+    }
+
+    /**
+     * Adds many students while taking the write lock only once, for bulk loads.
+     */
+    public void addStudents(List<Student> newStudents) {
+        int maxId = 0;
+        List<Student> replaced = new ArrayList<>();
+        studentsLock.writeLock().lock();
+        try {
+            for (Student student : newStudents) {
+                Student previous = studentsById.put(student.getId(), student);
+                if (previous != null) {
+                    students.removeIf(existing -> existing.getId() == student.getId());
+                    replaced.add(previous);
+                }
+                students.add(student);
+                maxId = Math.max(maxId, student.getId());
+            }
+        } finally {
+            studentsLock.writeLock().unlock();
+        }
+        studentIdCounter.accumulateAndGet(maxId, Math::max);
+        for (DataStoreListener listener : listeners) {
+            replaced.forEach(listener::studentRemoved);
+            newStudents.forEach(listener::studentAdded);
+        }
+    }
+
+    public boolean removeStudent(int studentId) {
+        Student removed;
+        studentsLock.writeLock().lock();
+        try {
+            removed = studentsById.remove(studentId);
+            if (removed == null) {
+                return false;
+            }
+            students.remove(removed);
+        } finally {
+            studentsLock.writeLock().unlock();
+        }
+        // Give back the seats and flag the rows, so the courses can be filled again
+        // and a stored table does not bring the enrollments back on reattach.
+        EnrollmentTable table = removed.getEnrollmentTable();
+        int count = removed.getEnrollmentCount();
+        for (int i = 0; i < count; i++) {
+            int row = removed.getEnrollmentRow(i);
+            String courseCode = table.courseCode(row);
+            CourseRoster roster = rostersByCode.get(courseKey(courseCode));
+            if (roster != null && roster.remove(studentId)) {
+                Course course = findCourseByCode(courseCode);
+                if (course != null) {
+                    course.releaseSeat();
+                }
+            }
+            table.markRemoved(row);
+        }
+        for (DataStoreListener listener : listeners) {
+            listener.studentRemoved(removed);
+        }
+        return true;
+    }
+
+    public void addInstructor(Instructor instructor) {
+        instructorsById.put(instructor.getId(), instructor);
+        instructorIdCounter.accumulateAndGet(instructor.getId(), Math::max);
+    }
+
+    public void addInstructors(List<Instructor> newInstructors) {
+        newInstructors.forEach(this::addInstructor);
+    }
+
+    /**
+     * Adds (or replaces) a course, gives it its code's dense catalog index and
+     * adds it to the secondary indexes. A course added under a code that already
+     * has a roster, e.g. one replacing an earlier version, starts with those
+     * students' seats taken.
+     */
+    public void addCourse(Course course) {
+        String key = courseKey(course.getCourseCode());
+        Course previous;
+        synchronized (catalogLock) {
+            course.setCatalogIndex(courseIndexByCode.computeIfAbsent(key, k -> nextCourseIndex.getAndIncrement()));
+            previous = coursesByCode.put(key, course);
+            if (previous != null) {
+                unindexCourse(previous);
+            }
+            if (previous != course) {
+                course.occupySeats(getHeadcount(key));
+            }
+            indexCourse(course);
+        }
+        for (DataStoreListener listener : listeners) {
+            if (previous != null) {
+                listener.courseRemoved(previous);
+            }
+            listener.courseAdded(course);
+        }
+    }
+
+    public void addCourses(List<Course> newCourses) {
+        newCourses.forEach(this::addCourse);
+    }
+
+    public boolean removeCourse(String courseCode) {
+        Course removed;
+        synchronized (catalogLock) {
+            removed = coursesByCode.remove(courseKey(courseCode));
+            if (removed == null) {
+                return false;
+            }
+            unindexCourse(removed);
+        }
+        for (DataStoreListener listener : listeners) {
+            listener.courseRemoved(removed);
+        }
+        return true;
+    }
 
+    /**
+     * Moves a course to another instructor. Use this rather than
+     * Course.setInstructorId so the instructor index stays correct.
+     *
+     * @return false if there is no course with that code.
+     */
+    public boolean reassignInstructor(String courseCode, int instructorId) {
+        synchronized (catalogLock) {
+            Course course = findCourseByCode(courseCode);
+            if (course == null) {
+                return false;
+            }
+            removeFromIndex(coursesByInstructor, course.getInstructorId(), course);
+            course.setInstructorId(instructorId);
+            coursesByInstructor.computeIfAbsent(instructorId, id -> ConcurrentHashMap.newKeySet()).add(course);
+            return true;
+        }
+    }
+
+    private void indexCourse(Course course) {
+        coursesByInstructor.computeIfAbsent(course.getInstructorId(), id -> ConcurrentHashMap.newKeySet()).add(course);
+        if (course.getSemester() != null) {
+            coursesBySemester.get(course.getSemester()).add(course);
+        }
+        if (course.getDepartment() != null) {
+            coursesByDepartment.computeIfAbsent(departmentKey(course.getDepartment()),
+                    d -> ConcurrentHashMap.newKeySet()).add(course);
+        }
+    }
+
+    private void unindexCourse(Course course) {
+        removeFromIndex(coursesByInstructor, course.getInstructorId(), course);
+        if (course.getSemester() != null) {
+            coursesBySemester.get(course.getSemester()).remove(course);
+        }
+        if (course.getDepartment() != null) {
+            removeFromIndex(coursesByDepartment, departmentKey(course.getDepartment()), course);
+        }
+    }
+
+    // Empty sets are dropped so the maps do not fill up with departed keys.
+    // Callers hold catalogLock, which is the only place sets are added to.
+    private static <K> void removeFromIndex(Map<K, Set<Course>> index, K key, Course course) {
+        Set<Course> courses = index.get(key);
+        if (courses != null && courses.remove(course) && courses.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    // --- Indexed Lookups ---
+
+    public Student findStudentById(int studentId) {
+        studentsLock.readLock().lock();
+        try {
+            return studentsById.get(studentId);
+        } finally {
+            studentsLock.readLock().unlock();
+        }
+    }
+
+    public Instructor findInstructorById(int instructorId) {
+        return instructorsById.get(instructorId);
+    }
+
+    /**
+     * Looks up a course by its code, ignoring case (e.g. "cs101" finds "CS101").
+     */
+    public Course findCourseByCode(String courseCode) {
+        if (courseCode == null) {
+            return null;
+        }
+        return coursesByCode.get(courseKey(courseCode));
+    }
+
+    /**
+     * @return The courses taught by the instructor, ordered by course code.
+     */
+    public List<Course> findCoursesByInstructor(int instructorId) {
+        return sortedByCode(coursesByInstructor.get(instructorId));
+    }
+
+    /**
+     * @return The courses offered in the semester, ordered by course code.
+     */
+    public List<Course> findCoursesBySemester(Semester semester) {
+        return semester != null ? sortedByCode(coursesBySemester.get(semester)) : List.of();
+    }
+
+    /**
+     * @return The courses of the department (ignoring case), ordered by course code.
+     */
+    public List<Course> findCoursesByDepartment(String department) {
+        return department != null ? sortedByCode(coursesByDepartment.get(departmentKey(department))) : List.of();
+    }
+
+    /**
+     * Finds the courses matching every given criterion; a null criterion matches
+     * anything. Only the smallest matching index is walked, and its courses are
+     * checked against the other criteria, so the cost depends on the result size
+     * and not on the size of the catalog.
+     *
+     * @return The matching courses, ordered by course code.
+     */
+    public List<Course> findCourses(Integer instructorId, Semester semester, String department) {
+        String departmentKey = department != null ? departmentKey(department) : null;
+        Set<Course> smallest = null;
+        if (instructorId != null) {
+            smallest = smaller(smallest, coursesByInstructor.get(instructorId));
+        }
+        if (semester != null) {
+            smallest = smaller(smallest, coursesBySemester.get(semester));
+        }
+        if (department != null) {
+            smallest = smaller(smallest, coursesByDepartment.get(departmentKey));
+        }
+        if (smallest == null) {
+            return instructorId == null && semester == null && department == null ? getCourses() : List.of();
+        }
+
+        List<Course> matches = new ArrayList<>(smallest.size());
+        for (Course course : smallest) {
+            if ((instructorId == null || course.getInstructorId() == instructorId)
+                    && (semester == null || course.getSemester() == semester)
+                    && (departmentKey == null || (course.getDepartment() != null
+                            && departmentKey.equals(departmentKey(course.getDepartment()))))) {
+                matches.add(course);
+            }
+        }
+        matches.sort(Comparator.comparing(Course::getCourseCode));
+        return List.copyOf(matches);
+    }
+
+    // Returns the smaller set. A criterion with no index entry gives an empty set,
+    // which ends the search.
+    private static Set<Course> smaller(Set<Course> current, Set<Course> candidate) {
+        if (candidate == null) {
+            return Set.of();
+        }
+        return current == null || candidate.size() < current.size() ? candidate : current;
+    }
+
+    private static List<Course> sortedByCode(Set<Course> courses) {
+        if (courses == null || courses.isEmpty()) {
+            return List.of();
+        }
+        List<Course> snapshot = new ArrayList<>(courses);
+        snapshot.sort(Comparator.comparing(Course::getCourseCode));
+        return List.copyOf(snapshot);
+    }
+
+    private static String courseKey(String courseCode) {
+        return courseCode.toUpperCase(Locale.ROOT);
+    }
+
+    private static String departmentKey(String department) {
+        return department.toUpperCase(Locale.ROOT);
+    }
+
+    // --- Enrollments and Rosters ---
+
+    /**
+     * Adds an enrollment to a student and to the course's roster. All code that
+     * creates enrollments should use this so the roster stays complete. Callers
+     * changing a student that is already in the store must hold its
+     * {@link #lockForStudent(int)} lock.
+     *
+     * @param course The enrolled course, or null if it is not in the catalog.
+     */
+    public void attachEnrollment(Student student, Enrollment enrollment, Course course) {
+        student.addEnrollment(enrollment, course, enrollmentTable);
+        rostersByCode.computeIfAbsent(courseKey(enrollment.getCourseCode()), code -> new CourseRoster())
+                .add(student.getId());
+    }
+
+    /**
+     * @return The table that new enrollments are stored in, for code that scans
+     *         all enrollments row by row.
+     */
+    public EnrollmentTable getEnrollmentTable() {
+        return enrollmentTable;
+    }
+
+    /**
+     * Stores new enrollments in the given table from now on, e.g. one backed by a
+     * mapped file. Meant for startup, before any enrollment is added.
+     *
+     * @throws IllegalStateException if the current table already has rows.
+     */
+    public void useEnrollmentTable(EnrollmentTable table) {
+        if (enrollmentTable.size() > 0) {
+            throw new IllegalStateException("The store already has " + enrollmentTable.size() + " enrollments");
+        }
+        enrollmentTable = table;
+    }
+
+    /**
+     * Adopts a table whose rows were stored by an earlier run, instead of loading
+     * the enrollments again. Every row goes back to its student, in row order, and
+     * to the course's roster and seat count. Rows of students that are not in the
+     * store (any more) are marked as removed. Meant for startup, after the students
+     * and courses are loaded without their enrollments.
+     *
+     * If a row cannot be reattached, the half-attached store is cleared and the
+     * previous (empty) table is put back before the exception is rethrown, so the
+     * caller can load the data the normal way instead.
+     *
+     * @return The number of enrollments reattached.
+     */
+    public int reattachEnrollments(EnrollmentTable table) {
+        EnrollmentTable previous = enrollmentTable;
+        useEnrollmentTable(table);
+        try {
+            int rows = table.size();
+            int attached = 0;
+            for (int row = 0; row < rows; row++) {
+                if (table.isRemoved(row)) {
+                    continue;
+                }
+                Student student = findStudentById(table.studentId(row));
+                if (student == null) {
+                    table.markRemoved(row);
+                    continue;
+                }
+                String courseCode = table.courseCode(row);
+                student.addStoredEnrollment(table, row);
+                rostersByCode.computeIfAbsent(courseKey(courseCode), code -> new CourseRoster()).add(student.getId());
+                Course course = findCourseByCode(courseCode);
+                if (course != null) {
+                    course.occupySeat();
+                }
+                attached++;
+            }
+            return attached;
+        } catch (RuntimeException e) {
+            clear();
+            enrollmentTable = previous;
+            throw e;
+        }
+    }
+
+    private static EnrollmentTable newEnrollmentTable(String storage) {
+        return switch (storage.toLowerCase(Locale.ROOT)) {
+            // With "mapped", CCRMApp swaps in the file's table at startup.
+            case "offheap", "mapped" -> new EnrollmentTable(OffHeapEnrollmentStorage.direct());
+            default -> new EnrollmentTable();
+        };
+    }
+
+    /**
+     * @return The IDs of the students enrolled in the course (ignoring case), in
+     *         enrollment order. Empty if nobody is enrolled.
+     */
+    public int[] getRosterIds(String courseCode) {
+        CourseRoster roster = courseCode != null ? rostersByCode.get(courseKey(courseCode)) : null;
+        return roster != null ? roster.toArray() : new int[0];
+    }
+
+    /**
+     * @return The number of students enrolled in the course (ignoring case).
+     */
+    public int getHeadcount(String courseCode) {
+        CourseRoster roster = courseCode != null ? rostersByCode.get(courseKey(courseCode)) : null;
+        return roster != null ? roster.size() : 0;
+    }
+
+    // --- Locking ---
+
+    /**
+     * Returns the lock guarding enrollment changes for a student. Students share
+     * a fixed pool of locks, so unrelated students rarely contend with each other.
+     *
+     * @param studentId The ID of the student about to be modified.
+     * @return The lock stripe for that student.
+     */
+    public Lock lockForStudent(int studentId) {
+        int h = studentId * 0x9E3779B9;
+        return studentLocks[(h ^ (h >>> 16)) & (STUDENT_LOCK_STRIPES - 1)];
+    }
+
+    // --- Journal ---
+
+    public MutationJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Attaches the journal that records service-layer changes, or detaches it when
+     * given null.
+     */
+    public void setJournal(MutationJournal journal) {
+        this.journal = journal != null ? journal : MutationJournal.NONE;
+    }
+
+    /**
+     * Removes all students, instructors, courses, enrollments and rosters and
+     * restarts the ID counters, e.g. to reset between benchmark runs. Listeners are
+     * not notified and the journal is left attached.
+     */
+    public void clear() {
+        studentsLock.writeLock().lock();
+        try {
+            studentsById.clear();
+            students.clear();
+        } finally {
+            studentsLock.writeLock().unlock();
+        }
+        synchronized (catalogLock) {
+            coursesByCode.clear();
+            courseIndexByCode.clear();
+            nextCourseIndex.set(0);
+            coursesByInstructor.clear();
+            coursesByDepartment.clear();
+            coursesBySemester.values().forEach(Set::clear);
+        }
+        instructorsById.clear();
+        rostersByCode.clear();
+        enrollmentTable = enrollmentTable.emptyCopy();
+        studentIdCounter.set(0);
+        instructorIdCounter.set(0);
+    }
+
+    // --- Listeners ---
+
+    public void addListener(DataStoreListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(DataStoreListener listener) {
+        listeners.remove(listener);
+    }
+
+    // --- Data Access Methods (read-only snapshots) ---
+    // Each call returns an unmodifiable copy that later changes do not affect.
+
+    /**
+     * @return All students in insertion order. Use {@link #addStudent(Student)} to add.
+     */
     public List<Student> getStudents() {
-        return students;
+        studentsLock.readLock().lock();
+        try {
+            return List.copyOf(students);
+        } finally {
+            studentsLock.readLock().unlock();
+        }
     }
 
+    /**
+     * @return All instructors ordered by ID.
+     */
     public List<Instructor> getInstructors() {
-        return instructors;
+        List<Instructor> snapshot = new ArrayList<>(instructorsById.values());
+        snapshot.sort(Comparator.comparingInt(Instructor::getId));
+        return List.copyOf(snapshot);
     }
 
+    /**
+     * @return All courses ordered by course code.
+     */
     public List<Course> getCourses() {
-        return courses;
+        List<Course> snapshot = new ArrayList<>(coursesByCode.values());
+        snapshot.sort(Comparator.comparing(Course::getCourseCode));
+        return List.copyOf(snapshot);
     }
 
+    /**
+     * @return Every enrollment of every student, grouped by student.
+     */
     public List<Enrollment> getEnrollments() {
-        return enrollments;
+        List<Enrollment> snapshot = new ArrayList<>();
+        for (Student student : getStudents()) {
+            snapshot.addAll(student.getEnrollments());
+        }
+        return List.copyOf(snapshot);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package edu.ccrm.config;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Student;
+
+/**
+ * Receives a call after students or courses are added to or removed from the
+ * DataStore, so derived structures (such as search indexes) can stay in step.
+ *
+ * Calls are made on the thread that changed the store, after its locks are
+ * released. Replacing an entity with the same key is reported as a removal of
+ * the old one followed by an addition of the new one.
+ */
+public interface DataStoreListener {
+
+    default void studentAdded(Student student) {
+    }
+
+    default void studentRemoved(Student student) {
+    }
+
+    default void courseAdded(Course course) {
+    }
+
+    default void courseRemoved(Course course) {
+    }
+}
@@ -0,0 +1,71 @@
+package edu.ccrm.config;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Student;
+
+/**
+ * Receives every state change made through the service layer so it can be made
+ * durable, e.g. by a write-ahead log. Services append a record while the change
+ * is being made (so records are in the same order as the changes) and then call
+ * {@link #awaitDurable(long)} once they have released their locks.
+ */
+public interface MutationJournal {
+
+    /**
+     * A journal that records nothing. Used when no log is attached.
+     */
+    MutationJournal NONE = new MutationJournal() {
+        @Override
+        public long studentAdded(Student student) {
+            return 0;
+        }
+
+        @Override
+        public long courseAdded(Course course) {
+            return 0;
+        }
+
+        @Override
+        public long enrolled(Enrollment enrollment) {
+            return 0;
+        }
+
+        @Override
+        public long gradeAssigned(int studentId, String courseCode, Grade grade) {
+            return 0;
+        }
+
+        @Override
+        public void awaitDurable(long sequence) {
+            // Nothing to wait for.
+        }
+    };
+
+    /**
+     * @return The sequence number of the record, to pass to {@link #awaitDurable(long)}.
+     */
+    long studentAdded(Student student);
+
+    /**
+     * @return The sequence number of the record, to pass to {@link #awaitDurable(long)}.
+     */
+    long courseAdded(Course course);
+
+    /**
+     * @return The sequence number of the record, to pass to {@link #awaitDurable(long)}.
+     */
+    long enrolled(Enrollment enrollment);
+
+    /**
+     * @return The sequence number of the record, to pass to {@link #awaitDurable(long)}.
+     */
+    long gradeAssigned(int studentId, String courseCode, Grade grade);
+
+    /**
+     * Blocks until the record with the given sequence number (and every record
+     * before it) is safely on disk.
+     */
+    void awaitDurable(long sequence);
+}
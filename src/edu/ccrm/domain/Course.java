@@ -1,8 +1,12 @@
 package edu.ccrm.domain;   
 
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Course {
 
+    /** Capacity value meaning the course has no seat limit. */
+    public static final int UNLIMITED_CAPACITY = Integer.MAX_VALUE;
+
     // --- Fields ---
     private final String courseCode;    
     private final String title;        
@@ -10,6 +14,11 @@ public class Course {
     private final String department;    
     private final Semester semester;    
     private int instructorId;           
+    private final int capacity;
+    // Dense 0-based ID assigned by the DataStore, used to index primitive lookup tables.
+    private int catalogIndex = -1;
+    // Seats handed out so far. Updated lock-free so a popular course is not a bottleneck.
+    private final AtomicInteger seatsTaken = new AtomicInteger();
 
     private Course(CourseBuilder builder) {
         this.courseCode = builder.courseCode;
@@ -18,6 +27,7 @@ public class Course {
         this.department = builder.department;
         this.semester = builder.semester;
         this.instructorId = builder.instructorId;
+        this.capacity = builder.capacity;
     }
 
     // --- Getters ---
@@ -27,11 +37,66 @@ public class Course {
     public String getDepartment() { return department; }
     public Semester getSemester() { return semester; }
     public int getInstructorId() { return instructorId; }
+    public int getCapacity() { return capacity; }
+    public int getSeatsTaken() { return seatsTaken.get(); }
+    public int getCatalogIndex() { return catalogIndex; }
+
+    public void setCatalogIndex(int catalogIndex) {
+        this.catalogIndex = catalogIndex;
+    }
 
+    /**
+     * Changes the instructor field only. For a course in the DataStore use
+     * DataStore.reassignInstructor, which also updates the instructor index.
+     */
     public void setInstructorId(int instructorId) {
         this.instructorId = instructorId;
     }
 
+    /**
+     * Tries to take one seat without locking. The compare-and-set loop only
+     * increments while seats remain, so the course is never oversubscribed.
+     *
+     * @return true if a seat was reserved, false if the course is full.
+     */
+    public boolean tryReserveSeat() {
+        if (capacity == UNLIMITED_CAPACITY) {
+            seatsTaken.incrementAndGet();
+            return true;
+        }
+        int taken;
+        do {
+            taken = seatsTaken.get();
+            if (taken >= capacity) {
+                return false;
+            }
+        } while (!seatsTaken.compareAndSet(taken, taken + 1));
+        return true;
+    }
+
+    /**
+     * Takes a seat without checking capacity. Only for restoring enrollments that
+     * already exist (e.g. from a snapshot), which must be counted even if the
+     * capacity has since been lowered.
+     */
+    public void occupySeat() {
+        seatsTaken.incrementAndGet();
+    }
+
+    /**
+     * Takes several seats without checking capacity, like {@link #occupySeat()}.
+     */
+    public void occupySeats(int seats) {
+        seatsTaken.addAndGet(seats);
+    }
+
+    /**
+     * Gives back a seat taken by {@link #tryReserveSeat()}.
+     */
+    public void releaseSeat() {
+        seatsTaken.decrementAndGet();
+    }
+
     @Override
     public String toString() {
         return String.format("Course[Code=%s, Title='%s', Credits=%d, Dept=%s, Semester=%s, InstructorID=%d]",
@@ -47,6 +112,7 @@ public class Course {
         private String department = "UNDECLARED";
         private Semester semester = Semester.FALL;
         private int instructorId = 0;
+        private int capacity = UNLIMITED_CAPACITY;
 
         public CourseBuilder(String courseCode, String title) {
             this.courseCode = courseCode;
@@ -73,6 +139,14 @@ public class Course {
             return this;
         }
 
+        public CourseBuilder capacity(int capacity) {
+            if (capacity < 0) {
+                throw new IllegalArgumentException("Capacity cannot be negative: " + capacity);
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
         public Course build() {
             return new Course(this);
         }
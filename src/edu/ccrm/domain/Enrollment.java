@@ -7,13 +7,24 @@ import java.time.LocalDate;
  * This class acts as a link between the Student and Course entities,
  * and it also stores the grade and enrollment date. This is a classic
  * example of an association class in object-oriented design.
+ *
+ * Once added to a student, an enrollment's data lives in a row of the
+ * {@link EnrollmentTable} and this object is only a view of that row;
+ * {@link Student#getEnrollments()} creates such views on demand. Two views of
+ * the same row are equal. Before it is added, an enrollment holds its own values.
  */
 public class Enrollment {
 
-    private final int studentId;
-    private final String courseCode;
+    // Set when the enrollment is added to a student; from then on the row is
+    // the only copy of the data.
+    private EnrollmentTable table;
+    private int row = -1;
+
+    // Only used until the enrollment is added to a student.
+    private int studentId;
+    private String courseCode;
     private Grade grade; // Grade is null by default for new objects
-    private final LocalDate enrollmentDate;
+    private LocalDate enrollmentDate;
 
     /**
      * Constructor for a new enrollment.
@@ -23,39 +34,116 @@ public class Enrollment {
      * @param courseCode The code of the course they are enrolling in.
      */
     public Enrollment(int studentId, String courseCode) {
+        this(studentId, courseCode, LocalDate.now()); // Sets the enrollment date to the current date
+    }
+
+    /**
+     * Constructor for restoring an existing enrollment, e.g. from a snapshot,
+     * where the original enrollment date must be kept.
+     *
+     * @param studentId      The ID of the enrolled student.
+     * @param courseCode     The code of the course.
+     * @param enrollmentDate The date the student originally enrolled.
+     */
+    public Enrollment(int studentId, String courseCode, LocalDate enrollmentDate) {
         this.studentId = studentId;
         this.courseCode = courseCode;
-        this.enrollmentDate = LocalDate.now(); // Sets the enrollment date to the current date
-        // No need to set this.grade = null; it's the default value.
+        this.enrollmentDate = enrollmentDate;
+    }
+
+    // A view of a stored row.
+    Enrollment(EnrollmentTable table, int row) {
+        this.table = table;
+        this.row = row;
     }
 
     // Standard getters for all fields
 
     public int getStudentId() {
-        return studentId;
+        return table != null ? table.studentId(row) : studentId;
     }
 
     public String getCourseCode() {
-        return courseCode;
+        return table != null ? table.courseCode(row) : courseCode;
     }
 
     public Grade getGrade() {
-        return grade;
+        return table != null ? table.grade(row) : grade;
     }
 
     public LocalDate getEnrollmentDate() {
-        return enrollmentDate;
+        return table != null ? table.enrollmentDate(row) : enrollmentDate;
+    }
+
+    /**
+     * @return The dense catalog index of the course, or -1 if the course is unknown
+     *         or the enrollment has not been added to a student yet.
+     */
+    public int getCourseIndex() {
+        return table != null ? table.catalogIndex(row) : -1;
+    }
+
+    /**
+     * @return The course's credits, or 0 if the course is unknown.
+     */
+    public int getCredits() {
+        return table != null ? table.credits(row) : 0;
     }
 
-    // A setter for the grade, as this will be updated later
-    public void setGrade(Grade grade) {
-        this.grade = grade;
+    /**
+     * @return The course's semester, or null if the course is unknown.
+     */
+    public Semester getSemester() {
+        return table != null ? table.semester(row) : null;
+    }
+
+    // Called by Student.addEnrollment once the row is written.
+    void bind(EnrollmentTable table, int row) {
+        this.table = table;
+        this.row = row;
+        this.courseCode = null;
+        this.grade = null;
+        this.enrollmentDate = null;
+    }
+
+    boolean isStoredIn(EnrollmentTable table) {
+        return this.table == table && table != null;
+    }
+
+    int getRow() {
+        return row;
+    }
+
+    // A setter for the grade, as this will be updated later. Package-private so that
+    // grades are always changed through Student.applyGrade, which keeps the GPA totals.
+    void setGrade(Grade grade) {
+        if (table != null) {
+            table.setGrade(row, grade);
+        } else {
+            this.grade = grade;
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        return other instanceof Enrollment && table != null
+                && ((Enrollment) other).table == table && ((Enrollment) other).row == row;
+    }
+
+    @Override
+    public int hashCode() {
+        // Constant until added; all that equals needs, as it compares added ones only.
+        return System.identityHashCode(table) * 31 + row;
     }
 
     @Override
     public String toString() {
         // A simple string representation of the enrollment
+        Grade current = getGrade();
         return String.format("Enrollment[StudentId=%d, CourseCode=%s, Grade=%s]",
-                studentId, courseCode, grade != null ? grade : "Not Graded");
+                getStudentId(), getCourseCode(), current != null ? current : "Not Graded");
     }
 }
@@ -0,0 +1,42 @@
+package edu.ccrm.domain;
+
+/**
+ * Where an {@link EnrollmentTable} keeps its rows. Each row is a fixed-width record
+ * of student ID, course ID, enrollment date (epoch day) and a grade byte. The table
+ * decides what goes into a row; a storage only keeps the values.
+ *
+ * Rows are appended under the table's lock and published to other threads through
+ * volatile fields, so plain writes and reads are enough for everything except the
+ * grade, which changes after a row is published and therefore has to be written
+ * with release and read with acquire semantics.
+ */
+public interface EnrollmentStorage {
+
+    /**
+     * Makes room for rows 0 to rows - 1. Called under the table's lock.
+     */
+    void ensureCapacity(int rows);
+
+    void write(int row, int studentId, int courseId, int epochDay, byte grade);
+
+    int studentId(int row);
+
+    int courseId(int row);
+
+    int epochDay(int row);
+
+    /**
+     * Reads the grade byte with acquire semantics.
+     */
+    byte grade(int row);
+
+    /**
+     * Writes the grade byte with release semantics.
+     */
+    void setGrade(int row, byte grade);
+
+    /**
+     * @return A new, empty storage of the same kind, e.g. when the store is cleared.
+     */
+    EnrollmentStorage newEmpty();
+}
@@ -0,0 +1,263 @@
+package edu.ccrm.domain;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Every enrollment in the store, kept as fixed-width rows of primitives instead of
+ * one object per enrollment. A row holds the student ID, a course ID, the enrollment
+ * date as an epoch day and a grade byte, 13 bytes in all. {@link Enrollment} objects
+ * are only created as short-lived views of a row, and each {@link Student} keeps the
+ * row numbers of its own enrollments.
+ *
+ * Course IDs are dictionary encoded: each distinct course gets a dense ID once, with
+ * its code, credits and semester, so rows do not repeat them. The catalog index is
+ * read from the course itself, because the store may only assign it after the
+ * enrollment was added. A course code that is not in the catalog gets its own
+ * entry with no credits.
+ *
+ * The rows themselves live in an {@link EnrollmentStorage}: primitive arrays on the
+ * heap by default, or memory outside the heap ({@link OffHeapEnrollmentStorage}). Rows
+ * are only appended, under this table's lock. A row may be read by other threads
+ * once it has been published through the student's row list.
+ */
+public final class EnrollmentTable {
+
+    private static final Grade[] GRADES = Grade.values();
+    private static final Semester[] SEMESTERS = Semester.values();
+
+    // The grade byte holds the grade's ordinal + 1 (0 for none) in its low bits.
+    private static final int GRADE_BITS = 0x7F;
+    // Set on rows no student owns any more, so reattaching a stored table skips them.
+    private static final int REMOVED_FLAG = 0x80;
+
+    /**
+     * The course dictionary. Entries are never changed once written; growing copies
+     * the arrays into a new instance, which is then published.
+     */
+    private static final class Courses {
+        final String[] codes;
+        final int[] credits;
+        final byte[] semesters; // Semester ordinal, or -1 if unknown
+        final Course[] catalogCourses; // null if unknown
+
+        Courses(int capacity) {
+            codes = new String[capacity];
+            credits = new int[capacity];
+            semesters = new byte[capacity];
+            catalogCourses = new Course[capacity];
+        }
+
+        Courses grow(int capacity) {
+            Courses grown = new Courses(capacity);
+            System.arraycopy(codes, 0, grown.codes, 0, codes.length);
+            System.arraycopy(credits, 0, grown.credits, 0, codes.length);
+            System.arraycopy(semesters, 0, grown.semesters, 0, codes.length);
+            System.arraycopy(catalogCourses, 0, grown.catalogCourses, 0, codes.length);
+            return grown;
+        }
+    }
+
+    private final EnrollmentStorage storage;
+    private volatile Courses courses = new Courses(64);
+    // Guarded by this. Keys are Course objects for catalog courses and code strings
+    // for unknown ones, so a course replaced under the same code gets a new entry.
+    private final Map<Object, Integer> courseIdsByKey = new HashMap<>();
+    private volatile int courseCount;
+    private volatile int size;
+
+    /**
+     * Creates an empty table on the heap.
+     */
+    public EnrollmentTable() {
+        this(new HeapEnrollmentStorage());
+    }
+
+    /**
+     * Creates an empty table in the given storage.
+     */
+    public EnrollmentTable(EnrollmentStorage storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Reopens a table whose rows are already in the storage, e.g. a file mapped
+     * again after a restart. Course IDs are resolved against the current catalog,
+     * so credits and semesters are those of the courses as they are now.
+     *
+     * @param rows        The number of stored rows.
+     * @param courseCodes The course code of each course ID, as returned by
+     *                    {@link #courseCodes()} when the rows were stored.
+     * @param catalog     Finds a course by code; returns null for unknown codes.
+     */
+    public EnrollmentTable(EnrollmentStorage storage, int rows, String[] courseCodes,
+                           Function<String, Course> catalog) {
+        this.storage = storage;
+        synchronized (this) {
+            for (String code : courseCodes) {
+                addCourse(code, catalog.apply(code));
+            }
+            storage.ensureCapacity(rows);
+            size = rows;
+        }
+    }
+
+    /**
+     * @return An empty table with the same kind of storage, e.g. when the store is cleared.
+     */
+    public EnrollmentTable emptyCopy() {
+        return new EnrollmentTable(storage.newEmpty());
+    }
+
+    /**
+     * Appends a row for the enrollment.
+     *
+     * @param course The enrolled course, or null if it is not in the catalog.
+     * @return The new row number.
+     */
+    synchronized int append(int studentId, String courseCode, Course course, Grade grade, LocalDate enrollmentDate) {
+        int courseId = dictionaryId(courseCode, course);
+        int row = size;
+        storage.ensureCapacity(row + 1);
+        storage.write(row, studentId, courseId, (int) enrollmentDate.toEpochDay(), encode(grade));
+        size = row + 1;
+        return row;
+    }
+
+    private int dictionaryId(String courseCode, Course course) {
+        Integer existing = courseIdsByKey.get(course != null ? course : courseCode);
+        return existing != null ? existing : addCourse(courseCode, course);
+    }
+
+    private int addCourse(String courseCode, Course course) {
+        Courses dictionary = courses;
+        int id = courseCount;
+        if (id == dictionary.codes.length) {
+            dictionary = dictionary.grow(id * 2);
+        }
+        dictionary.codes[id] = course != null ? course.getCourseCode() : courseCode;
+        dictionary.credits[id] = course != null ? course.getCredits() : 0;
+        dictionary.semesters[id] = (byte) (course != null && course.getSemester() != null
+                ? course.getSemester().ordinal() : -1);
+        dictionary.catalogCourses[id] = course;
+        courses = dictionary;
+        courseCount = id + 1;
+        courseIdsByKey.put(course != null ? course : courseCode, id);
+        return id;
+    }
+
+    // Called by Student.applyGrade, with the student's lock held.
+    void setGrade(int row, Grade grade) {
+        storage.setGrade(row, encode(grade));
+    }
+
+    private static byte encode(Grade grade) {
+        return (byte) (grade != null ? grade.ordinal() + 1 : 0);
+    }
+
+    /**
+     * Flags a row that no student owns any more, e.g. after the student was removed
+     * or replaced, so that reattaching stored rows leaves it out. Views of the row
+     * still read the same values.
+     */
+    public void markRemoved(int row) {
+        storage.setGrade(row, (byte) (storage.grade(row) | REMOVED_FLAG));
+    }
+
+    public boolean isRemoved(int row) {
+        return (storage.grade(row) & REMOVED_FLAG) != 0;
+    }
+
+    // --- Reading rows ---
+
+    /**
+     * @return The number of rows, i.e. of enrollments ever added.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of distinct courses the rows refer to.
+     */
+    public int courseCount() {
+        return courseCount;
+    }
+
+    /**
+     * @return The course code of each course ID, in ID order, e.g. to store with the rows.
+     */
+    public String[] courseCodes() {
+        Courses dictionary = courses;
+        return Arrays.copyOf(dictionary.codes, Math.min(courseCount, dictionary.codes.length));
+    }
+
+    public int studentId(int row) {
+        return storage.studentId(row);
+    }
+
+    /**
+     * @return The row's dense course ID (see {@link #courseCode(int)}).
+     */
+    public int courseId(int row) {
+        return storage.courseId(row);
+    }
+
+    public String courseCode(int row) {
+        return courses.codes[courseId(row)];
+    }
+
+    /**
+     * @return The grade's ordinal, or -1 if the enrollment is not graded.
+     */
+    public int gradeOrdinal(int row) {
+        return (storage.grade(row) & GRADE_BITS) - 1;
+    }
+
+    public Grade grade(int row) {
+        int ordinal = gradeOrdinal(row);
+        return ordinal >= 0 ? GRADES[ordinal] : null;
+    }
+
+    public int epochDay(int row) {
+        return storage.epochDay(row);
+    }
+
+    public LocalDate enrollmentDate(int row) {
+        return LocalDate.ofEpochDay(epochDay(row));
+    }
+
+    /**
+     * @return The course's credits when the enrollment was added, or 0 if the course
+     *         was not in the catalog.
+     */
+    public int credits(int row) {
+        return courses.credits[courseId(row)];
+    }
+
+    /**
+     * @return The course's semester, or null if the course was not in the catalog.
+     */
+    public Semester semester(int row) {
+        int ordinal = semesterOrdinal(row);
+        return ordinal >= 0 ? SEMESTERS[ordinal] : null;
+    }
+
+    /**
+     * @return The ordinal of the course's semester, or -1 if it is unknown.
+     */
+    public int semesterOrdinal(int row) {
+        return courses.semesters[courseId(row)];
+    }
+
+    /**
+     * @return The course's dense catalog index, or -1 if it was not in the catalog.
+     */
+    public int catalogIndex(int row) {
+        Course course = courses.catalogCourses[courseId(row)];
+        return course != null ? course.getCatalogIndex() : -1;
+    }
+}
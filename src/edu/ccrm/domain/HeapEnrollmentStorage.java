@@ -0,0 +1,84 @@
+package edu.ccrm.domain;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * The default storage: rows in pages of primitive arrays on the heap, one array per
+ * column, so growing never copies existing rows.
+ */
+final class HeapEnrollmentStorage implements EnrollmentStorage {
+
+    private static final int PAGE_BITS = 14;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private static final VarHandle GRADE_CELL = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private static final class Page {
+        final int[] studentIds = new int[PAGE_SIZE];
+        final int[] courseIds = new int[PAGE_SIZE];
+        final int[] epochDays = new int[PAGE_SIZE];
+        final byte[] grades = new byte[PAGE_SIZE];
+    }
+
+    private volatile Page[] pages = new Page[0];
+
+    @Override
+    public void ensureCapacity(int rows) {
+        int needed = (rows + PAGE_MASK) >>> PAGE_BITS;
+        Page[] current = pages;
+        if (needed > current.length) {
+            Page[] grown = Arrays.copyOf(current, needed);
+            for (int i = current.length; i < needed; i++) {
+                grown[i] = new Page();
+            }
+            pages = grown;
+        }
+    }
+
+    @Override
+    public void write(int row, int studentId, int courseId, int epochDay, byte grade) {
+        Page page = page(row);
+        int slot = row & PAGE_MASK;
+        page.studentIds[slot] = studentId;
+        page.courseIds[slot] = courseId;
+        page.epochDays[slot] = epochDay;
+        page.grades[slot] = grade;
+    }
+
+    @Override
+    public int studentId(int row) {
+        return page(row).studentIds[row & PAGE_MASK];
+    }
+
+    @Override
+    public int courseId(int row) {
+        return page(row).courseIds[row & PAGE_MASK];
+    }
+
+    @Override
+    public int epochDay(int row) {
+        return page(row).epochDays[row & PAGE_MASK];
+    }
+
+    @Override
+    public byte grade(int row) {
+        return (byte) GRADE_CELL.getAcquire(page(row).grades, row & PAGE_MASK);
+    }
+
+    @Override
+    public void setGrade(int row, byte grade) {
+        GRADE_CELL.setRelease(page(row).grades, row & PAGE_MASK, grade);
+    }
+
+    @Override
+    public EnrollmentStorage newEmpty() {
+        return new HeapEnrollmentStorage();
+    }
+
+    private Page page(int row) {
+        return pages[row >>> PAGE_BITS];
+    }
+}
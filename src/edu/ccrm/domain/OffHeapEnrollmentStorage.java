@@ -0,0 +1,141 @@
+package edu.ccrm.domain;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Keeps the rows outside the Java heap, in pages of fixed-width 13-byte records:
+ * student ID at offset 0, course ID at 4, epoch day at 8 and the grade byte at 12,
+ * little-endian. The garbage collector never scans or copies them, so a large
+ * store adds almost nothing to the live heap or to pause times.
+ *
+ * Pages are either direct buffers ({@link #direct()}) or regions of a memory-mapped
+ * file ({@link #mapped(IntFunction)}), in which case the rows survive a restart
+ * (see edu.ccrm.io.EnrollmentTableFile).
+ */
+public final class OffHeapEnrollmentStorage implements EnrollmentStorage {
+
+    public static final int ROW_BYTES = 13;
+    public static final int ROWS_PER_PAGE = 1 << 14;
+    public static final int PAGE_BYTES = ROWS_PER_PAGE * ROW_BYTES;
+
+    private static final int PAGE_BITS = 14;
+    private static final int PAGE_MASK = ROWS_PER_PAGE - 1;
+
+    private static final int STUDENT_ID = 0;
+    private static final int COURSE_ID = 4;
+    private static final int EPOCH_DAY = 8;
+    private static final int GRADE = 12;
+
+    private final IntFunction<ByteBuffer> pageSource;
+    private volatile ByteBuffer[] pages = new ByteBuffer[0];
+
+    private OffHeapEnrollmentStorage(IntFunction<ByteBuffer> pageSource) {
+        this.pageSource = pageSource;
+    }
+
+    /**
+     * @return A storage whose pages are allocated with {@link ByteBuffer#allocateDirect(int)}.
+     */
+    public static OffHeapEnrollmentStorage direct() {
+        return new OffHeapEnrollmentStorage(page -> ByteBuffer.allocateDirect(PAGE_BYTES));
+    }
+
+    /**
+     * @param pageSource Returns page i, a buffer of {@link #PAGE_BYTES} bytes, e.g. a
+     *                   region of a mapped file. Pages already holding rows are
+     *                   read as they are.
+     * @return A storage over the supplied pages.
+     */
+    public static OffHeapEnrollmentStorage mapped(IntFunction<ByteBuffer> pageSource) {
+        return new OffHeapEnrollmentStorage(pageSource);
+    }
+
+    @Override
+    public void ensureCapacity(int rows) {
+        int needed = (rows + PAGE_MASK) >>> PAGE_BITS;
+        ByteBuffer[] current = pages;
+        if (needed > current.length) {
+            ByteBuffer[] grown = Arrays.copyOf(current, needed);
+            for (int i = current.length; i < needed; i++) {
+                ByteBuffer page = pageSource.apply(i);
+                if (page.capacity() < PAGE_BYTES) {
+                    throw new IllegalStateException("Page " + i + " holds " + page.capacity()
+                            + " bytes, expected " + PAGE_BYTES);
+                }
+                grown[i] = page.order(ByteOrder.LITTLE_ENDIAN);
+            }
+            pages = grown;
+        }
+    }
+
+    @Override
+    public void write(int row, int studentId, int courseId, int epochDay, byte grade) {
+        ByteBuffer page = page(row);
+        int offset = offset(row);
+        page.putInt(offset + STUDENT_ID, studentId);
+        page.putInt(offset + COURSE_ID, courseId);
+        page.putInt(offset + EPOCH_DAY, epochDay);
+        page.put(offset + GRADE, grade);
+    }
+
+    @Override
+    public int studentId(int row) {
+        return page(row).getInt(offset(row) + STUDENT_ID);
+    }
+
+    @Override
+    public int courseId(int row) {
+        return page(row).getInt(offset(row) + COURSE_ID);
+    }
+
+    @Override
+    public int epochDay(int row) {
+        return page(row).getInt(offset(row) + EPOCH_DAY);
+    }
+
+    @Override
+    public byte grade(int row) {
+        byte grade = page(row).get(offset(row) + GRADE);
+        VarHandle.acquireFence();
+        return grade;
+    }
+
+    @Override
+    public void setGrade(int row, byte grade) {
+        VarHandle.releaseFence();
+        page(row).put(offset(row) + GRADE, grade);
+    }
+
+    /**
+     * @return A new storage of direct pages; a mapped file is never shared.
+     */
+    @Override
+    public EnrollmentStorage newEmpty() {
+        return direct();
+    }
+
+    /**
+     * Writes the pages of a mapped storage back to their file. Does nothing for
+     * direct pages.
+     */
+    public void force() {
+        for (ByteBuffer page : pages) {
+            if (page instanceof MappedByteBuffer) {
+                ((MappedByteBuffer) page).force();
+            }
+        }
+    }
+
+    private ByteBuffer page(int row) {
+        return pages[row >>> PAGE_BITS];
+    }
+
+    private static int offset(int row) {
+        return (row & PAGE_MASK) * ROW_BYTES;
+    }
+}
@@ -1,8 +1,14 @@
 package edu.ccrm.domain;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Represents a Student in the system.
@@ -22,9 +28,33 @@ public class Student extends Person {
 
     // Private fields demonstrate Encapsulation
     private final String registrationNumber;
-    private Status status;
+    private volatile Status status;
     private final LocalDate enrollmentDate;
-    private final List<Enrollment> enrollments;
+    // The rows of this student's enrollments in the DataStore's EnrollmentTable, in
+    // the order they were added: the first enrollmentCount slots of enrollmentRows.
+    // The array grows by doubling; a slot is written before the count that covers
+    // it is published, and a grown array is published before the count, so a
+    // reader that reads the count first can read that many slots of whichever
+    // array it sees. The table is set on the first enrollment, before the count
+    // that makes it reachable is published.
+    private volatile int[] enrollmentRows = NO_ROWS;
+    private volatile int enrollmentCount;
+    private EnrollmentTable enrollmentTable;
+    // Running credit total per semester, indexed by Semester.ordinal().
+    private final AtomicIntegerArray creditsBySemester;
+    // Running credit-weighted GPA inputs, one slot per semester (Semester.ordinal())
+    // plus a cumulative slot at the end. Each slot is packed so readers always see a
+    // matching pair: the high 32 bits hold the sum of grade points x 100 x credits,
+    // the low 32 bits the graded credits.
+    private final AtomicLongArray gradeTotals;
+    private final int cumulativeSlot;
+    // Bumped after every change to what a transcript shows (status, enrollments,
+    // grades), so cached renderings can tell whether they are still current.
+    private volatile int version;
+
+    private static final int[] NO_ROWS = new int[0];
+    private static final AtomicIntegerFieldUpdater<Student> VERSION =
+            AtomicIntegerFieldUpdater.newUpdater(Student.class, "version");
 
     /**
      * Constructor for creating a new Student.
@@ -35,7 +65,9 @@ public class Student extends Person {
         this.registrationNumber = registrationNumber;
         this.status = Status.ACTIVE; // Default to ACTIVE on creation
         this.enrollmentDate = enrollmentDate;
-        this.enrollments = new ArrayList<>();
+        this.creditsBySemester = new AtomicIntegerArray(Semester.values().length);
+        this.cumulativeSlot = Semester.values().length;
+        this.gradeTotals = new AtomicLongArray(cumulativeSlot + 1);
     }
 
     // --- Standard Getters ---
@@ -50,14 +82,224 @@ public class Student extends Person {
 
     public void setStatus(Status status) {
         this.status = status;
+        VERSION.incrementAndGet(this);
     }
 
     public LocalDate getEnrollmentDate() {
         return enrollmentDate;
     }
 
+    /**
+     * @return A read-only list of this student's enrollments as they are now. Its
+     *         elements are views of the enrollment table, created on access. Use
+     *         {@link #addEnrollment(Enrollment, Course, EnrollmentTable)} to add one.
+     */
     public List<Enrollment> getEnrollments() {
-        return enrollments;
+        int count = enrollmentCount;
+        return count == 0 ? List.of() : new EnrollmentList(enrollmentTable, enrollmentRows, count);
+    }
+
+    /**
+     * @return The number of enrollments, without creating any views.
+     */
+    public int getEnrollmentCount() {
+        return enrollmentCount;
+    }
+
+    /**
+     * Returns the table row of one enrollment, for code that scans the table's
+     * columns directly. Rows are only ever appended, so an index below a count read
+     * earlier stays valid.
+     *
+     * @param index The enrollment's position, 0 to {@link #getEnrollmentCount()} - 1.
+     */
+    public int getEnrollmentRow(int index) {
+        return enrollmentRows[index];
+    }
+
+    /**
+     * @return The table holding this student's enrollments, or null if there are none.
+     */
+    public EnrollmentTable getEnrollmentTable() {
+        return enrollmentCount == 0 ? null : enrollmentTable;
+    }
+
+    /**
+     * Adds an enrollment to this student's record and counts the course's credits
+     * towards its semester. Callers are expected to hold the student's lock from
+     * the DataStore while validating and adding, so the two stay in step.
+     * Go through DataStore.attachEnrollment so the course roster is updated too.
+     *
+     * @param enrollment The new enrollment. It becomes a view of its table row.
+     * @param course     The course being enrolled in, or null when restoring an
+     *                   enrollment whose course is no longer in the catalog (its
+     *                   credits are then unknown and not counted). Credits of a
+     *                   course without a semester count towards no semester.
+     * @param table      Where the enrollment is stored. A student keeps all its
+     *                   enrollments in one table.
+     */
+    public void addEnrollment(Enrollment enrollment, Course course, EnrollmentTable table) {
+        useTable(table);
+        Grade grade = enrollment.getGrade();
+        int row = table.append(enrollment.getStudentId(), enrollment.getCourseCode(), course, grade,
+                enrollment.getEnrollmentDate());
+        enrollment.bind(table, row);
+        if (course != null && course.getSemester() != null) {
+            creditsBySemester.addAndGet(course.getSemester().ordinal(), course.getCredits());
+        }
+        appendRow(row);
+        if (grade != null) {
+            adjustGradeTotals(enrollment, grade, 1);
+        }
+        VERSION.incrementAndGet(this);
+    }
+
+    /**
+     * Adds an enrollment that is already a row of the table, e.g. when a stored
+     * table is reattached after a restart. Credits, semester and grade are read
+     * from the row. Go through DataStore.reattachEnrollments so rosters follow.
+     */
+    public void addStoredEnrollment(EnrollmentTable table, int row) {
+        useTable(table);
+        Semester semester = table.semester(row);
+        if (semester != null) {
+            creditsBySemester.addAndGet(semester.ordinal(), table.credits(row));
+        }
+        appendRow(row);
+        Grade grade = table.grade(row);
+        if (grade != null) {
+            adjustGradeTotals(new Enrollment(table, row), grade, 1);
+        }
+        VERSION.incrementAndGet(this);
+    }
+
+    private void useTable(EnrollmentTable table) {
+        if (enrollmentTable == null) {
+            enrollmentTable = table;
+        } else if (enrollmentTable != table) {
+            throw new IllegalStateException("Student " + getId() + " already has enrollments in another table");
+        }
+    }
+
+    private void appendRow(int row) {
+        int count = enrollmentCount;
+        int[] rows = enrollmentRows;
+        if (count == rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(4, rows.length * 2));
+            enrollmentRows = rows;
+        }
+        rows[count] = row;
+        enrollmentCount = count + 1;
+    }
+
+    /**
+     * Sets the grade of one of this student's enrollments and keeps the running GPA
+     * totals in step, including when an earlier grade is overwritten. Callers are
+     * expected to hold the student's lock from the DataStore.
+     *
+     * @param enrollment One of this student's enrollments.
+     * @param grade      The new grade.
+     */
+    public void applyGrade(Enrollment enrollment, Grade grade) {
+        if (!enrollment.isStoredIn(enrollmentTable) || enrollment.getStudentId() != getId()) {
+            throw new IllegalArgumentException("Not an enrollment of student " + getId() + ": " + enrollment);
+        }
+        Grade previous = enrollment.getGrade();
+        if (previous != null) {
+            adjustGradeTotals(enrollment, previous, -1);
+        }
+        enrollment.setGrade(grade);
+        if (grade != null) {
+            adjustGradeTotals(enrollment, grade, 1);
+        }
+        VERSION.incrementAndGet(this);
+    }
+
+    /**
+     * @return A number that changes whenever the status, enrollments or grades
+     *         change. It is bumped after the change is made, so anything read
+     *         after seeing a version is at least as new as that version.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The credits of all graded courses.
+     */
+    public int getGradedCredits() {
+        return (int) gradeTotals.get(cumulativeSlot);
+    }
+
+    /**
+     * @return The credit-weighted cumulative GPA, or 0.0 if nothing is graded.
+     *         This reads the running totals, so it is O(1).
+     */
+    public double getGpa() {
+        return gpaOf(gradeTotals.get(cumulativeSlot));
+    }
+
+    /**
+     * @return The credit-weighted GPA for one semester, or 0.0 if nothing is graded in it.
+     */
+    public double getGpa(Semester semester) {
+        return gpaOf(gradeTotals.get(semester.ordinal()));
+    }
+
+    /**
+     * @return The total credits this student is enrolled in for the semester, or 0
+     *         if the semester is null.
+     */
+    public int getCreditsForSemester(Semester semester) {
+        return semester != null ? creditsBySemester.get(semester.ordinal()) : 0;
+    }
+
+    private static double gpaOf(long totals) {
+        int credits = (int) totals;
+        if (credits == 0) {
+            return 0.0;
+        }
+        return ((int) (totals >> 32) / 100.0) / credits;
+    }
+
+    private void adjustGradeTotals(Enrollment enrollment, Grade grade, int direction) {
+        int credits = enrollment.getCredits();
+        if (credits == 0) {
+            return; // Course unknown; it carries no weight.
+        }
+        long points = Math.round(grade.getGradePoint() * 100) * credits * direction;
+        long delta = (points << 32) + (long) credits * direction;
+        Semester semester = enrollment.getSemester();
+        if (semester != null) {
+            gradeTotals.addAndGet(semester.ordinal(), delta);
+        }
+        gradeTotals.addAndGet(cumulativeSlot, delta);
+    }
+
+    /**
+     * A fixed-size list of views over some rows of the table.
+     */
+    private static final class EnrollmentList extends AbstractList<Enrollment> implements RandomAccess {
+        private final EnrollmentTable table;
+        private final int[] rows;
+        private final int size;
+
+        EnrollmentList(EnrollmentTable table, int[] rows, int size) {
+            this.table = table;
+            this.rows = rows;
+            this.size = size;
+        }
+
+        @Override
+        public Enrollment get(int index) {
+            Objects.checkIndex(index, size);
+            return new Enrollment(table, rows[index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
     }
 
     /**
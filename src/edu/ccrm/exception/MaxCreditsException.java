@@ -7,6 +7,8 @@ package edu.ccrm.exception;
  */
 public class MaxCreditsException extends Exception {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructor that takes a custom error message.
      * @param message The detailed error message.
@@ -1,95 +1,438 @@
 package edu.ccrm.io;
 
+import edu.ccrm.metrics.Counter;
+import edu.ccrm.metrics.LatencyHistogram;
+import edu.ccrm.metrics.Metrics;
+
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
  * Handles the creation of timestamped backups of exported data.
- * Demonstrates advanced NIO.2 features like walking file trees and recursion.
+ * Demonstrates advanced NIO.2 features like walking file trees and zero-copy transfers.
+ *
+ * Besides full copies, it can take incremental backups: files are split into
+ * blocks kept in a content-addressed {@link BlockStore}, and each backup is just
+ * a small manifest listing the blocks of every file. Only blocks that changed
+ * since earlier backups are written.
  */
 public class BackupService {
 
-    private final Path sourceDir = Paths.get("exports");
-    private final Path backupRootDir = Paths.get("backups");
+    private static final String MANIFEST_HEADER = "# CCRM incremental backup manifest v1";
+    private static final String MANIFEST_SUFFIX = ".manifest";
+
+    // Copies run on a small bounded pool; more threads than this just compete for the disk.
+    private static final int COPY_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private static final int ARCHIVE_BUFFER_SIZE = 1024 * 1024;
+
+    private static final LatencyHistogram FULL_LATENCY = Metrics.getInstance().histogram("backup.full");
+    private static final LatencyHistogram COMPRESSED_LATENCY = Metrics.getInstance().histogram("backup.compressed");
+    private static final LatencyHistogram INCREMENTAL_LATENCY = Metrics.getInstance().histogram("backup.incremental");
+    private static final Counter FAILURES = Metrics.getInstance().counter("backup.failures");
+
+    private final Path sourceDir;
+    private final Path backupRootDir;
+    private final Path manifestDir;
+    private final BlockStore blockStore;
+
+    /**
+     * Backs up the 'exports' directory into 'backups'.
+     */
+    public BackupService() {
+        this(Paths.get("exports"), Paths.get("backups"));
+    }
+
+    /**
+     * Backs up another directory, or into another location (e.g. for benchmarks).
+     */
+    public BackupService(Path sourceDir, Path backupRootDir) {
+        this.sourceDir = sourceDir;
+        this.backupRootDir = backupRootDir;
+        this.manifestDir = backupRootDir.resolve("manifests");
+        this.blockStore = new BlockStore(backupRootDir.resolve("blocks"));
+    }
 
     /**
      * Creates a backup of the 'exports' directory.
      * The backup is a new directory inside 'backups' with a timestamped name.
+     * Files are copied in parallel on a small bounded pool, using zero-copy
+     * {@link FileChannel#transferTo} transfers, and the backup size is added up
+     * while copying instead of walking the finished backup a second time.
+     *
+     * @return true if the backup was created.
      */
-    public void createBackup() {
+    public boolean createBackup() {
         if (!Files.exists(sourceDir)) {
-            System.err.println("Backup failed: Source directory 'exports' does not exist. Please export data first.");
-            return;
+            System.err.println("Backup failed: Source directory '" + sourceDir + "' does not exist. Please export data first.");
+            return false;
         }
 
         // 1. Create a timestamped name for our backup folder.
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
         Path backupTargetDir = backupRootDir.resolve("backup_" + timestamp);
 
+        long startNanos = System.nanoTime();
+        ExecutorService copyPool = Executors.newFixedThreadPool(COPY_THREADS);
         try {
             // 2. Create the main backups directory and the specific timestamped directory.
             Files.createDirectories(backupTargetDir);
 
-            // 3. Walk the source directory and copy each file to the target.
-            // This is a common and powerful pattern for directory copying.
-            try (var paths = Files.walk(sourceDir)) {
-                paths.forEach(sourcePath -> {
-                    try {
-                        if (Files.isRegularFile(sourcePath)) {
-                            Path destinationPath = backupTargetDir.resolve(sourceDir.relativize(sourcePath));
-                            Files.copy(sourcePath, destinationPath, StandardCopyOption.REPLACE_EXISTING);
-                        }
-                    } catch (IOException e) {
-                        System.err.println("Failed to copy file: " + sourcePath + " - " + e.getMessage());
+            // 3. Walk the source directory once, creating directories as we go and
+            // handing each file to the copy pool.
+            final LongAdder backupSize = new LongAdder();
+            final List<Future<?>> copies = new ArrayList<>();
+            Files.walkFileTree(sourceDir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    Files.createDirectories(backupTargetDir.resolve(sourceDir.relativize(dir)));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        Path destinationPath = backupTargetDir.resolve(sourceDir.relativize(file));
+                        copies.add(copyPool.submit(() -> {
+                            try {
+                                backupSize.add(copyFile(file, destinationPath));
+                            } catch (IOException e) {
+                                System.err.println("Failed to copy file: " + file + " - " + e.getMessage());
+                            }
+                        }));
                     }
-                });
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    // If we can't access a file, just print a warning and continue.
+                    System.err.println("Warning: Could not access file to back up: " + file);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            for (Future<?> copy : copies) {
+                copy.get();
             }
 
+            FULL_LATENCY.recordSince(startNanos);
+            long millis = (System.nanoTime() - startNanos) / 1_000_000;
             System.out.println("Backup created successfully at: " + backupTargetDir.toAbsolutePath());
+            // 4. The size was counted while copying.
+            System.out.printf("Total size of the new backup is: %.2f KB (copied in %d ms)%n",
+                    backupSize.sum() / 1024.0, millis);
+            return true;
 
-            // 4. Demonstrate the recursive size calculation as required.
-            long backupSize = calculateDirectorySize(backupTargetDir);
-            System.out.printf("Total size of the new backup is: %.2f KB%n", backupSize / 1024.0);
+        } catch (IOException | ExecutionException e) {
+            FAILURES.increment();
+            System.err.println("An error occurred while creating the backup: " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            FAILURES.increment();
+            Thread.currentThread().interrupt();
+            System.err.println("Backup was interrupted.");
+            return false;
+        } finally {
+            copyPool.shutdown();
+        }
+    }
 
+    /**
+     * Copies one file with FileChannel.transferTo, which lets the operating system
+     * move the bytes without passing them through Java buffers.
+     *
+     * @return The number of bytes copied.
+     */
+    private static long copyFile(Path source, Path destination) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(destination, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                long transferred = in.transferTo(position, size - position, out);
+                if (transferred <= 0) {
+                    break; // The file shrank while we were copying it.
+                }
+                position += transferred;
+            }
+            return position;
+        }
+    }
+
+    /**
+     * Creates a backup of the 'exports' directory as a single compressed zip file
+     * inside 'backups'. The archive is written as a stream while the directory is
+     * walked, so nothing is staged on disk first.
+     *
+     * @return true if the backup was created.
+     */
+    public boolean createCompressedBackup() {
+        if (!Files.exists(sourceDir)) {
+            System.err.println("Backup failed: Source directory '" + sourceDir + "' does not exist. Please export data first.");
+            return false;
+        }
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        Path archivePath = backupRootDir.resolve("backup_" + timestamp + ".zip");
+
+        long startNanos = System.nanoTime();
+        try {
+            Files.createDirectories(backupRootDir);
+            final LongAdder originalSize = new LongAdder();
+            try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(archivePath), ARCHIVE_BUFFER_SIZE))) {
+                Files.walkFileTree(sourceDir, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                        if (attrs.isRegularFile()) {
+                            String entryName = sourceDir.relativize(file).toString().replace('\\', '/');
+                            ZipEntry entry = new ZipEntry(entryName);
+                            entry.setLastModifiedTime(attrs.lastModifiedTime());
+                            zip.putNextEntry(entry);
+                            originalSize.add(Files.copy(file, zip));
+                            zip.closeEntry();
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                        System.err.println("Warning: Could not access file to back up: " + file);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            }
+
+            COMPRESSED_LATENCY.recordSince(startNanos);
+            long millis = (System.nanoTime() - startNanos) / 1_000_000;
+            long archiveSize = Files.size(archivePath);
+            System.out.println("Compressed backup created successfully at: " + archivePath.toAbsolutePath());
+            System.out.printf("Compressed %.2f KB of exports to %.2f KB in %d ms.%n",
+                    originalSize.sum() / 1024.0, archiveSize / 1024.0, millis);
+            return true;
         } catch (IOException e) {
-            System.err.println("An error occurred while creating the backup: " + e.getMessage());
+            FAILURES.increment();
+            System.err.println("An error occurred while creating the compressed backup: " + e.getMessage());
+            return false;
         }
     }
 
+    // --- Incremental, content-addressed backups ---
+
     /**
-     * Recursively calculates the total size of a directory.
-     * This method fulfills the requirement for a recursive utility.
+     * One file as recorded in a manifest.
+     */
+    private static class ManifestEntry {
+        final String relativePath;
+        final long size;
+        final long lastModified;
+        final List<String> blockHashes;
+
+        ManifestEntry(String relativePath, long size, long lastModified, List<String> blockHashes) {
+            this.relativePath = relativePath;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.blockHashes = blockHashes;
+        }
+
+        String toLine() {
+            return relativePath + "\t" + size + "\t" + lastModified + "\t" + String.join(",", blockHashes);
+        }
+
+        static ManifestEntry parse(String line) {
+            String[] parts = line.split("\t", -1);
+            List<String> hashes = parts[3].isEmpty() ? List.of() : Arrays.asList(parts[3].split(","));
+            return new ManifestEntry(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]), hashes);
+        }
+    }
+
+    /**
+     * Creates an incremental backup of the 'exports' directory. Files whose size and
+     * modification time match the previous backup reuse its block list without being
+     * read; other files are hashed block by block and only unseen blocks are stored.
      *
-     * @param directory The path to the directory.
-     * @return The total size in bytes.
+     * @return true if the backup was created.
+     */
+    public boolean createIncrementalBackup() {
+        if (!Files.exists(sourceDir)) {
+            System.err.println("Backup failed: Source directory '" + sourceDir + "' does not exist. Please export data first.");
+            return false;
+        }
+
+        long startNanos = System.nanoTime();
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss-SSS"));
+        Path temp = null;
+
+        try {
+            Files.createDirectories(manifestDir);
+            Path manifestPath = claimManifestPath(timestamp);
+            temp = tempPathOf(manifestPath);
+            Map<String, ManifestEntry> previous = readLatestManifest();
+
+            List<ManifestEntry> entries = new ArrayList<>();
+            long totalBytes = 0;
+            long bytesWritten = 0;
+            List<Path> files;
+            try (Stream<Path> paths = Files.walk(sourceDir)) {
+                files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                String relativePath = sourceDir.relativize(file).toString().replace('\\', '/');
+                long size = Files.size(file);
+                long lastModified = Files.getLastModifiedTime(file).toMillis();
+                totalBytes += size;
+
+                ManifestEntry old = previous.get(relativePath);
+                if (old != null && old.size == size && old.lastModified == lastModified) {
+                    entries.add(old);
+                    continue;
+                }
+                BlockStore.StoredFile stored = blockStore.store(file);
+                bytesWritten += stored.getBytesWritten();
+                entries.add(new ManifestEntry(relativePath, size, lastModified, stored.getBlockHashes()));
+            }
+
+            List<String> lines = new ArrayList<>();
+            lines.add(MANIFEST_HEADER);
+            entries.forEach(entry -> lines.add(entry.toLine()));
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, manifestPath, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+            bytesWritten += Files.size(manifestPath);
+
+            INCREMENTAL_LATENCY.recordSince(startNanos);
+            long millis = (System.nanoTime() - startNanos) / 1_000_000;
+            System.out.println("Incremental backup created: " + manifestPath.toAbsolutePath());
+            System.out.printf("Wrote %.2f KB for %.2f KB of exports (a full copy writes all of it) in %d ms.%n",
+                    bytesWritten / 1024.0, totalBytes / 1024.0, millis);
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            FAILURES.increment();
+            System.err.println("An error occurred while creating the incremental backup: " + e.getMessage());
+            deleteQuietly(temp);
+            return false;
+        }
+    }
+
+    /**
+     * Picks a manifest name no other backup has. Backups taken in the same
+     * millisecond get a sequence number, so the names still sort in the order the
+     * backups were taken. A name is claimed by creating its temporary file with
+     * CREATE_NEW; the file is only renamed to the manifest once it is written.
      */
-    private long calculateDirectorySize(Path directory) throws IOException {
-        // AtomicLong is used here because we are modifying it from within a lambda expression,
-        // which requires the variable to be "effectively final".
-        final AtomicLong size = new AtomicLong(0);
-
-        // Files.walkFileTree is a classic implementation of the Visitor design pattern.
-        // It "visits" every file and directory in the tree.
-        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                // For each file we visit, add its size to our total.
-                size.addAndGet(attrs.size());
-                return FileVisitResult.CONTINUE;
+    private Path claimManifestPath(String timestamp) throws IOException {
+        for (int sequence = 0; ; sequence++) {
+            String name = "backup_" + timestamp + (sequence == 0 ? "" : String.format("_%03d", sequence));
+            Path manifestPath = manifestDir.resolve(name + MANIFEST_SUFFIX);
+            Path temp = tempPathOf(manifestPath);
+            try {
+                Files.createFile(temp);
+            } catch (FileAlreadyExistsException e) {
+                continue;
+            }
+            if (!Files.exists(manifestPath)) {
+                return manifestPath;
             }
+            Files.delete(temp);
+        }
+    }
+
+    private static Path tempPathOf(Path manifestPath) {
+        return manifestPath.resolveSibling(manifestPath.getFileName() + ".tmp");
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Could not delete " + path + ": " + e.getMessage());
+        }
+    }
 
-            @Override
-            public FileVisitResult visitFileFailed(Path file, IOException exc) {
-                // If we can't access a file, just print a warning and continue.
-                System.err.println("Warning: Could not access file to calculate size: " + file);
-                return FileVisitResult.CONTINUE;
+    /**
+     * @return The names of all incremental backups, oldest first.
+     */
+    public List<String> listIncrementalBackups() {
+        if (!Files.isDirectory(manifestDir)) {
+            return List.of();
+        }
+        try (Stream<Path> paths = Files.list(manifestDir)) {
+            return paths.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(MANIFEST_SUFFIX))
+                    .map(name -> name.substring(0, name.length() - MANIFEST_SUFFIX.length()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            System.err.println("Could not list backups: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Rebuilds the exports as they were at the given incremental backup.
+     *
+     * @param backupName A name from {@link #listIncrementalBackups()}.
+     * @param targetDir  Where to write the restored files.
+     */
+    public void restoreIncrementalBackup(String backupName, Path targetDir) {
+        Path manifestPath = manifestDir.resolve(backupName + MANIFEST_SUFFIX);
+        if (!Files.exists(manifestPath)) {
+            System.err.println("Restore failed: No backup named " + backupName);
+            return;
+        }
+        try {
+            int files = 0;
+            for (ManifestEntry entry : readManifest(manifestPath).values()) {
+                blockStore.restore(entry.blockHashes, targetDir.resolve(entry.relativePath));
+                files++;
             }
-        });
+            System.out.println("Restored " + files + " files from " + backupName + " to " + targetDir.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("An error occurred while restoring the backup: " + e.getMessage());
+        }
+    }
+
+    private Map<String, ManifestEntry> readLatestManifest() throws IOException {
+        List<String> backups = listIncrementalBackups();
+        if (backups.isEmpty()) {
+            return Map.of();
+        }
+        return readManifest(manifestDir.resolve(backups.get(backups.size() - 1) + MANIFEST_SUFFIX));
+    }
 
-        return size.get();
+    private Map<String, ManifestEntry> readManifest(Path manifestPath) throws IOException {
+        Map<String, ManifestEntry> entries = new HashMap<>();
+        for (String line : Files.readAllLines(manifestPath, StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            ManifestEntry entry = ManifestEntry.parse(line);
+            entries.put(entry.relativePath, entry);
+        }
+        return entries;
     }
 }
@@ -0,0 +1,130 @@
+package edu.ccrm.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * A content-addressed store of fixed-size file blocks. Each block is saved once,
+ * under the SHA-256 hash of its bytes, so a block that appears in many backups
+ * (or many times in one file) takes disk space only once.
+ *
+ * Blocks live in {@code <root>/<first two hex digits>/<full hash>}.
+ */
+public class BlockStore {
+
+    public static final int BLOCK_SIZE = 1024 * 1024;
+
+    private final Path root;
+
+    public BlockStore(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * The result of splitting one file into blocks.
+     */
+    public static class StoredFile {
+        private final List<String> blockHashes;
+        private final long bytesWritten;
+
+        StoredFile(List<String> blockHashes, long bytesWritten) {
+            this.blockHashes = blockHashes;
+            this.bytesWritten = bytesWritten;
+        }
+
+        /** The hashes of the file's blocks, in order. */
+        public List<String> getBlockHashes() {
+            return blockHashes;
+        }
+
+        /** How many bytes of new blocks had to be written to the store. */
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+    }
+
+    /**
+     * Splits the file into blocks, hashes them and writes the ones the store does
+     * not have yet.
+     */
+    public StoredFile store(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        HexFormat hex = HexFormat.of();
+        List<String> hashes = new ArrayList<>();
+        long written = 0;
+        byte[] block = new byte[BLOCK_SIZE];
+
+        try (InputStream in = Files.newInputStream(file)) {
+            int length;
+            while ((length = in.readNBytes(block, 0, BLOCK_SIZE)) > 0) {
+                digest.update(block, 0, length);
+                String hash = hex.formatHex(digest.digest());
+                hashes.add(hash);
+                written += writeIfAbsent(hash, block, length);
+            }
+        }
+        return new StoredFile(hashes, written);
+    }
+
+    /**
+     * Rebuilds a file by writing its blocks one after another.
+     */
+    public void restore(List<String> blockHashes, Path target) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        try (OutputStream out = Files.newOutputStream(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (String hash : blockHashes) {
+                Path blockPath = pathOf(hash);
+                if (!Files.exists(blockPath)) {
+                    throw new IOException("Backup block " + hash + " is missing from " + root);
+                }
+                Files.copy(blockPath, out);
+            }
+        }
+    }
+
+    private long writeIfAbsent(String hash, byte[] block, int length) throws IOException {
+        Path blockPath = pathOf(hash);
+        if (Files.exists(blockPath)) {
+            return 0;
+        }
+        Files.createDirectories(blockPath.getParent());
+        // Write to a temporary name first so a crash never leaves a partial block
+        // under a valid hash.
+        Path temp = blockPath.resolveSibling(hash + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            out.write(block, 0, length);
+        }
+        try {
+            Files.move(temp, blockPath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            Files.deleteIfExists(temp);
+            return 0;
+        }
+        return length;
+    }
+
+    private Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+}
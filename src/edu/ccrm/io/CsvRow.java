@@ -0,0 +1,112 @@
+package edu.ccrm.io;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A reusable view of one CSV line inside a byte buffer. The tokenizer records
+ * where each comma-separated field starts and ends instead of creating a String
+ * per field, so a field is only decoded when a parser actually asks for it.
+ *
+ * Field rules follow {@code line.split(",")} followed by {@code trim()}: a trailing
+ * carriage return is dropped, surrounding whitespace is ignored and empty trailing
+ * fields are not counted.
+ */
+public class CsvRow {
+
+    private static final int MAX_FIELDS = 64;
+
+    private byte[] data;
+    private final int[] starts = new int[MAX_FIELDS];
+    private final int[] ends = new int[MAX_FIELDS];
+    private int fieldCount;
+
+    /**
+     * Points this row at the line {@code data[from, to)} and splits it into fields.
+     */
+    void reset(byte[] data, int from, int to) {
+        this.data = data;
+        if (to > from && data[to - 1] == '\r') {
+            to--;
+        }
+        int count = 0;
+        int fieldStart = from;
+        for (int i = from; i <= to && count < MAX_FIELDS; i++) {
+            if (i == to || data[i] == ',') {
+                starts[count] = fieldStart;
+                ends[count] = i;
+                count++;
+                fieldStart = i + 1;
+            }
+        }
+        // Like String.split, drop empty trailing fields.
+        while (count > 0 && starts[count - 1] == ends[count - 1]) {
+            count--;
+        }
+        this.fieldCount = count;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @return The field as a trimmed String.
+     */
+    public String text(int field) {
+        int start = trimmedStart(field);
+        int end = trimmedEnd(field, start);
+        return new String(data, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses the trimmed field as a decimal int straight from the bytes.
+     *
+     * @throws NumberFormatException if the field is not a valid int, like Integer.parseInt.
+     */
+    public int intValue(int field) {
+        int start = trimmedStart(field);
+        int end = trimmedEnd(field, start);
+        int i = start;
+        boolean negative = false;
+        if (i < end && (data[i] == '-' || data[i] == '+')) {
+            negative = data[i] == '-';
+            i++;
+        }
+        if (i == end || end - i > 10) {
+            return Integer.parseInt(text(field));
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = data[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.parseInt(text(field));
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return Integer.parseInt(text(field));
+        }
+        return (int) value;
+    }
+
+    private int trimmedStart(int field) {
+        if (field >= fieldCount) {
+            throw new ArrayIndexOutOfBoundsException("Field " + field + " of a " + fieldCount + "-field row");
+        }
+        int start = starts[field];
+        int end = ends[field];
+        while (start < end && (data[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimmedEnd(int field, int start) {
+        int end = ends[field];
+        while (end > start && (data[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+}
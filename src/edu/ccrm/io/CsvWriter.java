@@ -0,0 +1,124 @@
+package edu.ccrm.io;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Writes CSV rows straight into a large reusable buffer, one field at a time.
+ * Rows are never built up as Strings or lists first, so exporting any number of
+ * rows uses the same small, constant amount of memory. Numbers and dates are
+ * written digit by digit instead of going through String.valueOf/toString.
+ */
+public class CsvWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final FileChannel channel;
+    private final BufferedWriter writer;
+    private final char[] digits = new char[11];
+    private boolean firstField = true;
+
+    /**
+     * Opens the file for writing, creating it or truncating an existing one.
+     */
+    public CsvWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel),
+                StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Writes text as-is, outside of the row/field structure (e.g. a header).
+     */
+    public CsvWriter raw(String text) throws IOException {
+        writer.write(text);
+        return this;
+    }
+
+    public CsvWriter field(String value) throws IOException {
+        separate();
+        writer.write(value != null ? value : "null");
+        return this;
+    }
+
+    public CsvWriter field(int value) throws IOException {
+        separate();
+        writeInt(value, 1);
+        return this;
+    }
+
+    /**
+     * Writes the date in ISO format (yyyy-MM-dd), the same as LocalDate.toString()
+     * for four-digit years.
+     */
+    public CsvWriter field(LocalDate date) throws IOException {
+        if (date == null || date.getYear() < 1000 || date.getYear() > 9999) {
+            return field(date != null ? date.toString() : null);
+        }
+        separate();
+        writeInt(date.getYear(), 4);
+        writer.write('-');
+        writeInt(date.getMonthValue(), 2);
+        writer.write('-');
+        writeInt(date.getDayOfMonth(), 2);
+        return this;
+    }
+
+    public void endRow() throws IOException {
+        writer.write(LINE_SEPARATOR);
+        firstField = true;
+    }
+
+    /**
+     * Flushes the buffer and returns the number of bytes written to the file.
+     */
+    public long finish() throws IOException {
+        writer.flush();
+        return channel.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void separate() throws IOException {
+        if (!firstField) {
+            writer.write(',');
+        }
+        firstField = false;
+    }
+
+    /**
+     * Writes the int's decimal digits, left-padded with zeros to minWidth.
+     */
+    private void writeInt(int value, int minWidth) throws IOException {
+        if (value == Integer.MIN_VALUE) {
+            writer.write(Integer.toString(value));
+            return;
+        }
+        if (value < 0) {
+            writer.write('-');
+            value = -value;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (digits.length - pos < minWidth) {
+            digits[--pos] = '0';
+        }
+        writer.write(digits, pos, digits.length - pos);
+    }
+}
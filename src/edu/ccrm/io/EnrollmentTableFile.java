@@ -0,0 +1,254 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.EnrollmentTable;
+import edu.ccrm.domain.OffHeapEnrollmentStorage;
+import edu.ccrm.domain.Student;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keeps the enrollment table in a memory-mapped file, so its rows live outside the
+ * heap and survive a restart: at the next startup the file is mapped again and
+ * the rows are handed back to the students, instead of being rebuilt from the
+ * snapshot.
+ *
+ * File layout (header big-endian, rows little-endian):
+ * <pre>
+ *   header   int magic "CCRT", int version, int state (0 open, 1 closed cleanly),
+ *            int row count, long tag, long pool offset, padded to 4096 bytes
+ *   pages    rows in pages of OffHeapEnrollmentStorage.PAGE_BYTES
+ *   pool     int count, then the course code of each course ID as int length + UTF-8
+ * </pre>
+ * The header is marked open as soon as the file is opened and only marked closed
+ * again by {@link #close}, after every page is on disk. A file that was not closed
+ * cleanly, e.g. after a crash, is never reattached. The tag records which snapshot
+ * the rows belong to (see {@link SnapshotService#fingerprint(Path)}).
+ */
+public class EnrollmentTableFile implements AutoCloseable {
+
+    public static final Path DEFAULT_PATH = Paths.get("snapshots", "enrollments.tbl");
+
+    private static final int MAGIC = 0x43435254; // "CCRT"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4096;
+    private static final int STATE_OPEN = 0;
+    private static final int STATE_CLEAN = 1;
+
+    private final Path path;
+    private final FileChannel channel;
+    // What the header said when the file was opened.
+    private final boolean clean;
+    private final int storedRows;
+    private final long storedTag;
+    private final String[] storedCodes;
+
+    private OffHeapEnrollmentStorage storage;
+    private EnrollmentTable table;
+
+    private EnrollmentTableFile(Path path, FileChannel channel, boolean clean, int rows, long tag, String[] codes) {
+        this.path = path;
+        this.channel = channel;
+        this.clean = clean;
+        this.storedRows = rows;
+        this.storedTag = tag;
+        this.storedCodes = codes;
+    }
+
+    /**
+     * Opens (or creates) the file and marks it as in use.
+     */
+    public static EnrollmentTableFile open(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            EnrollmentTableFile file = readHeader(path, channel);
+            if (file.clean) {
+                writeHeader(channel, STATE_OPEN, file.storedRows, file.storedTag, 0);
+                channel.force(true);
+            }
+            return file;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static EnrollmentTableFile readHeader(Path path, FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(32);
+        if (channel.size() < HEADER_BYTES || channel.read(header, 0) < header.capacity()) {
+            return new EnrollmentTableFile(path, channel, false, 0, 0, null);
+        }
+        header.flip();
+        int magic = header.getInt();
+        int version = header.getInt();
+        int state = header.getInt();
+        int rows = header.getInt();
+        long tag = header.getLong();
+        long poolOffset = header.getLong();
+        if (magic != MAGIC || version != VERSION || state != STATE_CLEAN || rows < 0
+                || poolOffset != HEADER_BYTES + (long) pageCount(rows) * OffHeapEnrollmentStorage.PAGE_BYTES
+                || poolOffset > channel.size()) {
+            return new EnrollmentTableFile(path, channel, false, 0, 0, null);
+        }
+
+        ByteBuffer pool = ByteBuffer.allocate((int) (channel.size() - poolOffset));
+        while (pool.hasRemaining() && channel.read(pool, poolOffset + pool.position()) >= 0) {
+            // Read the whole pool.
+        }
+        pool.flip();
+        String[] codes = new String[pool.getInt()];
+        for (int i = 0; i < codes.length; i++) {
+            byte[] bytes = new byte[pool.getInt()];
+            pool.get(bytes);
+            codes[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new EnrollmentTableFile(path, channel, true, rows, tag, codes);
+    }
+
+    /**
+     * @return true if the file was closed cleanly with the same tag, so its rows
+     *         can be {@link #reattach reattached}.
+     */
+    public boolean canReattach(long tag) {
+        return clean && tag != 0 && storedTag == tag;
+    }
+
+    /**
+     * @return The number of rows stored when the file was last closed.
+     */
+    public int getStoredRows() {
+        return storedRows;
+    }
+
+    /**
+     * Maps the stored rows again as a table. Only valid if {@link #canReattach}.
+     *
+     * @param catalog Finds a course by code, to resolve the stored course IDs.
+     */
+    public EnrollmentTable reattach(Function<String, Course> catalog) {
+        if (!clean || table != null) {
+            throw new IllegalStateException("No stored rows to reattach in " + path);
+        }
+        storage = OffHeapEnrollmentStorage.mapped(this::mapPage);
+        table = new EnrollmentTable(storage, storedRows, storedCodes, catalog);
+        return table;
+    }
+
+    /**
+     * Discards whatever the file holds and returns a new, empty table backed by it.
+     */
+    public EnrollmentTable createTable() throws IOException {
+        if (table != null) {
+            throw new IllegalStateException("The table in " + path + " is already in use");
+        }
+        channel.truncate(0);
+        writeHeader(channel, STATE_OPEN, 0, 0, HEADER_BYTES);
+        channel.force(true);
+        storage = OffHeapEnrollmentStorage.mapped(this::mapPage);
+        table = new EnrollmentTable(storage);
+        return table;
+    }
+
+    private ByteBuffer mapPage(int page) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE,
+                    HEADER_BYTES + (long) page * OffHeapEnrollmentStorage.PAGE_BYTES, OffHeapEnrollmentStorage.PAGE_BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map page " + page + " of " + path, e);
+        }
+    }
+
+    /**
+     * Writes everything to disk and marks the file as closed cleanly. Rows that none
+     * of the students own any more are marked as removed first, so a later reattach
+     * skips them.
+     *
+     * @param students The students in the store; no changes may run concurrently.
+     * @param tag      Identifies the snapshot the rows belong to.
+     */
+    public void close(List<Student> students, long tag) throws IOException {
+        try {
+            if (table == null) {
+                return;
+            }
+            int rows = table.size();
+            BitSet owned = new BitSet(rows);
+            for (Student student : students) {
+                if (student.getEnrollmentTable() == table) {
+                    int count = student.getEnrollmentCount();
+                    for (int e = 0; e < count; e++) {
+                        owned.set(student.getEnrollmentRow(e));
+                    }
+                }
+            }
+            for (int row = owned.nextClearBit(0); row < rows; row = owned.nextClearBit(row + 1)) {
+                if (!table.isRemoved(row)) {
+                    table.markRemoved(row);
+                }
+            }
+            storage.force();
+
+            long poolOffset = HEADER_BYTES + (long) pageCount(rows) * OffHeapEnrollmentStorage.PAGE_BYTES;
+            String[] codes = table.courseCodes();
+            byte[][] encoded = new byte[codes.length][];
+            int poolBytes = 4;
+            for (int i = 0; i < codes.length; i++) {
+                encoded[i] = codes[i].getBytes(StandardCharsets.UTF_8);
+                poolBytes += 4 + encoded[i].length;
+            }
+            ByteBuffer pool = ByteBuffer.allocate(poolBytes);
+            pool.putInt(codes.length);
+            for (byte[] code : encoded) {
+                pool.putInt(code.length);
+                pool.put(code);
+            }
+            pool.flip();
+            channel.truncate(poolOffset);
+            while (pool.hasRemaining()) {
+                channel.write(pool, poolOffset + pool.position());
+            }
+            channel.force(true);
+            writeHeader(channel, STATE_CLEAN, rows, tag, poolOffset);
+            channel.force(true);
+            table = null;
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Closes the file without marking it clean, so it is not reattached.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static void writeHeader(FileChannel channel, int state, int rows, long tag, long poolOffset)
+            throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(state).putInt(rows).putLong(tag).putLong(poolOffset);
+        header.clear();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    private static int pageCount(int rows) {
+        return (rows + OffHeapEnrollmentStorage.ROWS_PER_PAGE - 1) / OffHeapEnrollmentStorage.ROWS_PER_PAGE;
+    }
+}
@@ -2,166 +2,271 @@ package edu.ccrm.io;
 
 import edu.ccrm.config.DataStore;
 import edu.ccrm.domain.*;
+import edu.ccrm.metrics.Counter;
+import edu.ccrm.metrics.LatencyHistogram;
+import edu.ccrm.metrics.Metrics;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
-import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Handles all file import and export operations using Java NIO.2 and Streams.
  */
 public class FileService {
 
+    private static final LatencyHistogram LOAD_LATENCY = Metrics.getInstance().histogram("file.load");
+    private static final LatencyHistogram EXPORT_LATENCY = Metrics.getInstance().histogram("file.export");
+    private static final Counter ROWS_LOADED = Metrics.getInstance().counter("file.rowsLoaded");
+    private static final Counter BYTES_EXPORTED = Metrics.getInstance().counter("file.bytesExported");
+
     private final DataStore dataStore = DataStore.getInstance();
 
     /**
      * Loads initial data from CSV files in the test-data directory.
-     * Uses try-with-resources to ensure files are closed properly.
      */
     public void loadInitialData() {
         System.out.println("Loading initial data from test-data directory...");
+        long startNanos = System.nanoTime();
         try {
-            // NOTE: We need sample instructor data to properly link courses.
-            // Ensure you have an instructors.csv file.
-            loadInstructors("test-data/instructors.csv");
-            loadStudents("test-data/students.csv");
-            loadCourses("test-data/courses.csv");
-            System.out.println("Initial data loaded successfully.");
+            int rows = loadData(Paths.get("test-data"));
+            long millis = (System.nanoTime() - startNanos) / 1_000_000;
+            System.out.println("Initial data loaded successfully (" + rows + " rows in " + millis + " ms).");
         } catch (IOException e) {
             System.err.println("Error loading initial data: " + e.getMessage());
             // In a real app, you might want to exit or handle this more gracefully.
         }
     }
 
-    private void loadInstructors(String filePath) throws IOException {
-        Path path = Paths.get(filePath);
-        if (!Files.exists(path)) return;
-
-        try (Stream<String> lines = Files.lines(path).skip(1)) { // Skip header line
-            List<Instructor> instructors = lines
-                    .map(line -> line.split(","))
-                    .filter(parts -> parts.length >= 3)
-                    .map(parts -> {
-                        int id = Integer.parseInt(parts[0].trim());
-                        String name = parts[1].trim();
-                        String email = parts[2].trim();
-                        String department = parts.length > 3 ? parts[3].trim() : "General";
-                        return new Instructor(id, name, email, department);
-                    })
-                    .collect(Collectors.toList());
-            dataStore.getInstructors().addAll(instructors);
+    /**
+     * Loads instructors.csv, students.csv and courses.csv from a directory; missing
+     * files are skipped. The three files do not depend on each other (a course only
+     * stores its instructor's ID), so they are parsed at the same time.
+     *
+     * @return The number of rows loaded.
+     */
+    public int loadData(Path directory) throws IOException {
+        long startNanos = System.nanoTime();
+        try {
+            // NOTE: We need sample instructor data to properly link courses.
+            // Ensure you have an instructors.csv file.
+            CompletableFuture<Integer> instructors = loadAsync(() -> loadInstructors(directory.resolve("instructors.csv")));
+            CompletableFuture<Integer> students = loadAsync(() -> loadStudents(directory.resolve("students.csv")));
+            CompletableFuture<Integer> courses = loadAsync(() -> loadCourses(directory.resolve("courses.csv")));
+            int rows = instructors.join() + students.join() + courses.join();
+            ROWS_LOADED.add(rows);
+            LOAD_LATENCY.recordSince(startNanos);
+            return rows;
+        } catch (CompletionException e) {
+            throw asIOException(e);
         }
     }
 
-    private void loadStudents(String filePath) throws IOException {
-        Path path = Paths.get(filePath);
-        if (!Files.exists(path)) return;
-
-        try (Stream<String> lines = Files.lines(path).skip(1)) { // Skip header line
-            List<Student> students = lines
-                    .map(line -> line.split(","))
-                    .filter(parts -> parts.length >= 3)
-                    .map(parts -> {
-                        int id = Integer.parseInt(parts[0].trim());
-                        String name = parts[1].trim();
-                        String email = parts[2].trim();
-                        String regNo = "REG" + id; // Generate a simple registration number
-                        // Create a default student who enrolled a year ago.
-                        return new Student(id, name, email, regNo, LocalDate.now().minusYears(1));
-                    })
-                    .collect(Collectors.toList());
-            dataStore.getStudents().addAll(students);
-        }
+    /**
+     * A loader for one CSV file that reports how many rows it added.
+     */
+    @FunctionalInterface
+    private interface CsvLoad {
+        int run() throws IOException;
     }
 
-    private void loadCourses(String filePath) throws IOException {
-        Path path = Paths.get(filePath);
-        if (!Files.exists(path)) return;
-
-        try (Stream<String> lines = Files.lines(path).skip(1)) {
-            List<Course> courses = lines
-                    .map(line -> line.split(","))
-                    .filter(parts -> parts.length >= 5)
-                    .map(parts -> new Course.CourseBuilder(parts[0].trim(), parts[1].trim())
-                            .credits(Integer.parseInt(parts[2].trim()))
-                            .instructorId(Integer.parseInt(parts[3].trim()))
-                            .semester(Semester.valueOf(parts[4].trim().toUpperCase()))
-                            .build())
-                    .collect(Collectors.toList());
-            dataStore.getCourses().addAll(courses);
-        }
+    private static CompletableFuture<Integer> loadAsync(CsvLoad load) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return load.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private int loadInstructors(Path path) throws IOException {
+        if (!Files.exists(path)) return 0;
+
+        List<Instructor> instructors = new ParallelCsvLoader<>(row -> {
+            if (row.fieldCount() < 3) return null;
+            int id = row.intValue(0);
+            String name = row.text(1);
+            String email = row.text(2);
+            String department = row.fieldCount() > 3 ? row.text(3) : "General";
+            return new Instructor(id, name, email, department);
+        }).load(path);
+        dataStore.addInstructors(instructors);
+        return instructors.size();
+    }
+
+    private int loadStudents(Path path) throws IOException {
+        if (!Files.exists(path)) return 0;
+
+        // Every loaded student gets the same default enrollment date of a year ago.
+        LocalDate enrolledOn = LocalDate.now().minusYears(1);
+        List<Student> students = new ParallelCsvLoader<>(row -> {
+            if (row.fieldCount() < 3) return null;
+            int id = row.intValue(0);
+            String name = row.text(1);
+            String email = row.text(2);
+            String regNo = "REG" + id; // Generate a simple registration number
+            return new Student(id, name, email, regNo, enrolledOn);
+        }).load(path);
+        dataStore.addStudents(students);
+        return students.size();
+    }
+
+    private int loadCourses(Path path) throws IOException {
+        if (!Files.exists(path)) return 0;
+
+        // Columns: code, title, credits, instructor ID, semester, then optionally the
+        // department and the capacity. A missing or empty capacity means no seat limit.
+        List<Course> courses = new ParallelCsvLoader<>(row -> {
+            if (row.fieldCount() < 5) return null;
+            Course.CourseBuilder builder = new Course.CourseBuilder(row.text(0), row.text(1))
+                    .credits(row.intValue(2))
+                    .instructorId(row.intValue(3))
+                    .semester(Semester.valueOf(row.text(4).toUpperCase()));
+            if (row.fieldCount() > 5 && !row.text(5).isEmpty()) {
+                builder.department(row.text(5));
+            }
+            if (row.fieldCount() > 6 && !row.text(6).isEmpty()) {
+                builder.capacity(row.intValue(6));
+            }
+            return builder.build();
+        }).load(path);
+        dataStore.addCourses(courses);
+        return courses.size();
     }
 
     /**
      * Exports all current data to CSV files in a dedicated 'exports' directory.
-     * Demonstrates writing to files and creating directories with NIO.2.
      */
     public void exportData() {
         System.out.println("Exporting current data...");
-        Path exportDir = Paths.get("exports");
         try {
-            // This line is crucial - it creates the directory if it doesn't exist.
-            Files.createDirectories(exportDir);
-
-            exportStudents(exportDir.resolve("students_export.csv"));
-            exportCourses(exportDir.resolve("courses_export.csv"));
-            exportEnrollments(exportDir.resolve("enrollments_export.csv"));
+            long startNanos = System.nanoTime();
+            long bytes = exportData(Paths.get("exports"));
+            double seconds = Math.max(System.nanoTime() - startNanos, 1) / 1_000_000_000.0;
 
             System.out.println("Data successfully exported to the 'exports' directory.");
+            System.out.printf("Wrote %d bytes in %.3f s (%.1f MB/s).%n", bytes, seconds, bytes / seconds / (1024 * 1024));
         } catch (IOException e) {
             System.err.println("Error exporting data: " + e.getMessage());
         }
     }
 
-    private void exportStudents(Path path) throws IOException {
+    /**
+     * Exports students, courses and enrollments to CSV files in a directory.
+     * The three files are written at the same time, each streamed row by row
+     * through its own buffer so memory use does not grow with the data.
+     *
+     * @return The number of bytes written.
+     */
+    public long exportData(Path exportDir) throws IOException {
+        long startNanos = System.nanoTime();
+        // This line is crucial - it creates the directory if it doesn't exist.
+        Files.createDirectories(exportDir);
+        try {
+            CompletableFuture<Long> students = exportAsync(() -> exportStudents(exportDir.resolve("students_export.csv")));
+            CompletableFuture<Long> courses = exportAsync(() -> exportCourses(exportDir.resolve("courses_export.csv")));
+            CompletableFuture<Long> enrollments = exportAsync(() -> exportEnrollments(exportDir.resolve("enrollments_export.csv")));
+            long bytes = students.join() + courses.join() + enrollments.join();
+            BYTES_EXPORTED.add(bytes);
+            EXPORT_LATENCY.recordSince(startNanos);
+            return bytes;
+        } catch (CompletionException e) {
+            throw asIOException(e);
+        }
+    }
+
+    // Unwraps the IOException thrown by a load or export task.
+    private static IOException asIOException(CompletionException e) {
+        return e.getCause() instanceof UncheckedIOException
+                ? ((UncheckedIOException) e.getCause()).getCause()
+                : new IOException(e.getCause());
+    }
+
+    /**
+     * An export of one CSV file that reports how many bytes it wrote.
+     */
+    @FunctionalInterface
+    private interface CsvExport {
+        long run() throws IOException;
+    }
+
+    private static CompletableFuture<Long> exportAsync(CsvExport export) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return export.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // The header strings end in a newline and are followed by a line separator,
+    // which leaves an empty line after the header. This matches the earlier
+    // Files.write based exports byte for byte.
+
+    private long exportStudents(Path path) throws IOException {
         String header = "ID,FullName,Email,RegistrationNumber,Status,EnrollmentDate\n";
-        List<String> lines = dataStore.getStudents().stream()
-                .map(s -> String.join(",",
-                        String.valueOf(s.getId()),
-                        s.getFullName(),
-                        s.getEmail(),
-                        s.getRegistrationNumber(),
-                        s.getStatus().toString(),
-                        s.getEnrollmentDate().toString()))
-                .collect(Collectors.toList());
-
-        // These options ensure a new file is created or an existing one is overwritten.
-        Files.write(path, Collections.singleton(header), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-        Files.write(path, lines, StandardOpenOption.APPEND);
+        try (CsvWriter csv = new CsvWriter(path)) {
+            csv.raw(header).endRow();
+            for (Student s : dataStore.getStudents()) {
+                csv.field(s.getId())
+                        .field(s.getFullName())
+                        .field(s.getEmail())
+                        .field(s.getRegistrationNumber())
+                        .field(s.getStatus().name())
+                        .field(s.getEnrollmentDate());
+                csv.endRow();
+            }
+            return csv.finish();
+        }
     }
 
-    private void exportCourses(Path path) throws IOException {
-        String header = "CourseCode,Title,Credits,InstructorID,Semester\n";
-        List<String> lines = dataStore.getCourses().stream()
-                .map(c -> String.join(",",
-                        c.getCourseCode(),
-                        c.getTitle(),
-                        String.valueOf(c.getCredits()),
-                        String.valueOf(c.getInstructorId()),
-                        c.getSemester().toString()))
-                .collect(Collectors.toList());
-        Files.write(path, Collections.singleton(header), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-        Files.write(path, lines, StandardOpenOption.APPEND);
+    private long exportCourses(Path path) throws IOException {
+        String header = "CourseCode,Title,Credits,InstructorID,Semester,Department,Capacity\n";
+        try (CsvWriter csv = new CsvWriter(path)) {
+            csv.raw(header).endRow();
+            for (Course c : dataStore.getCourses()) {
+                csv.field(c.getCourseCode())
+                        .field(c.getTitle())
+                        .field(c.getCredits())
+                        .field(c.getInstructorId())
+                        .field(c.getSemester().name())
+                        .field(c.getDepartment());
+                if (c.getCapacity() != Course.UNLIMITED_CAPACITY) {
+                    csv.field(c.getCapacity());
+                }
+                csv.endRow();
+            }
+            return csv.finish();
+        }
     }
 
-    private void exportEnrollments(Path path) throws IOException {
+    private long exportEnrollments(Path path) throws IOException {
         String header = "StudentID,CourseCode,Grade\n";
-        List<String> lines = dataStore.getStudents().stream()
-                // This is a great example of flatMap to turn a List<Student> into a Stream<Enrollment>
-                .flatMap(student -> student.getEnrollments().stream())
-                .map(e -> String.join(",",
-                        String.valueOf(e.getStudentId()),
-                        e.getCourseCode(),
-                        e.getGrade() != null ? e.getGrade().toString() : "N/A"))
-                .collect(Collectors.toList());
-        Files.write(path, Collections.singleton(header), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-        Files.write(path, lines, StandardOpenOption.APPEND);
+        try (CsvWriter csv = new CsvWriter(path)) {
+            csv.raw(header).endRow();
+            Grade[] grades = Grade.values();
+            for (Student student : dataStore.getStudents()) {
+                // Read the columns directly rather than through Enrollment views.
+                int count = student.getEnrollmentCount();
+                EnrollmentTable table = student.getEnrollmentTable();
+                for (int i = 0; i < count; i++) {
+                    int row = student.getEnrollmentRow(i);
+                    int grade = table.gradeOrdinal(row);
+                    csv.field(table.studentId(row))
+                            .field(table.courseCode(row))
+                            .field(grade >= 0 ? grades[grade].name() : "N/A");
+                    csv.endRow();
+                }
+            }
+            return csv.finish();
+        }
     }
-}
\ No newline at end of file
+}
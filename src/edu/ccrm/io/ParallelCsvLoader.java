@@ -0,0 +1,167 @@
+package edu.ccrm.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Loads large CSV files by memory-mapping them and parsing newline-aligned chunks
+ * in parallel. Each chunk is copied once into a per-thread buffer and tokenized
+ * with {@link CsvRow}, so there is no regex split and no String per unused field.
+ * The first line of the file is treated as a header and skipped.
+ *
+ * @param <T> The type of object each row becomes.
+ */
+public class ParallelCsvLoader<T> {
+
+    /**
+     * Turns one tokenized row into an object, or returns null to skip the row.
+     */
+    @FunctionalInterface
+    public interface RowParser<T> {
+        T parse(CsvRow row);
+    }
+
+    private static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    // Reused between chunks on the same worker thread.
+    private static final ThreadLocal<byte[]> CHUNK_BUFFER = ThreadLocal.withInitial(() -> new byte[0]);
+
+    private final RowParser<T> parser;
+    private final Executor executor;
+    private final int chunkSize;
+
+    public ParallelCsvLoader(RowParser<T> parser) {
+        this(parser, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param parser    Converts rows into objects.
+     * @param executor  Where chunks are parsed.
+     * @param chunkSize Target chunk size in bytes; chunks are extended to the next newline.
+     */
+    public ParallelCsvLoader(RowParser<T> parser, Executor executor, int chunkSize) {
+        this.parser = parser;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Parses the whole file.
+     *
+     * @param path The CSV file to read.
+     * @return The parsed rows in file order.
+     * @throws IOException if the file cannot be read.
+     */
+    public List<T> load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<long[]> chunks = splitIntoChunks(channel, size);
+
+            List<CompletableFuture<List<T>>> parsed = new ArrayList<>(chunks.size());
+            for (int i = 0; i < chunks.size(); i++) {
+                long[] bounds = chunks.get(i);
+                boolean skipHeader = i == 0;
+                parsed.add(CompletableFuture.supplyAsync(() -> parseChunk(channel, bounds[0], bounds[1], skipHeader), executor));
+            }
+
+            List<T> rows = new ArrayList<>();
+            for (CompletableFuture<List<T>> chunk : parsed) {
+                rows.addAll(chunk.join());
+            }
+            return rows;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Cuts the file into [start, end) ranges of roughly chunkSize bytes, each
+     * ending just after a newline so that no line is split between two chunks.
+     */
+    private List<long[]> splitIntoChunks(FileChannel channel, long size) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(start + chunkSize, size);
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                if (read <= 0) {
+                    end = size;
+                    break;
+                }
+                int newline = -1;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        newline = i;
+                        break;
+                    }
+                }
+                if (newline >= 0) {
+                    end += newline + 1;
+                    break;
+                }
+                end += read;
+            }
+            chunks.add(new long[]{start, Math.min(end, size)});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private List<T> parseChunk(FileChannel channel, long start, long end, boolean skipHeader) {
+        int length = (int) (end - start);
+        byte[] data = CHUNK_BUFFER.get();
+        if (data.length < length) {
+            data = new byte[length];
+            CHUNK_BUFFER.set(data);
+        }
+        try {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            mapped.get(data, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<T> rows = new ArrayList<>(length / 64 + 1);
+        CsvRow row = new CsvRow();
+        int lineStart = 0;
+        boolean headerPending = skipHeader;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || data[i] == '\n') {
+                if (i == length && lineStart == length) {
+                    break; // The chunk ended with a newline; there is no partial last line.
+                }
+                if (headerPending) {
+                    headerPending = false;
+                } else {
+                    row.reset(data, lineStart, i);
+                    T parsed = parser.parse(row);
+                    if (parsed != null) {
+                        rows.add(parsed);
+                    }
+                }
+                lineStart = i + 1;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,419 @@
+package edu.ccrm.io;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saves and restores the whole data store as a compact binary snapshot, which is
+ * much faster to load at startup than re-parsing the CSV files.
+ *
+ * File layout (all numbers big-endian):
+ * <pre>
+ *   header       int magic "CCRM", int version
+ *   dictionary   int count, then count course codes
+ *   instructors  int count, then per instructor: int id, str name, str email, str department
+ *   courses      int count, then per course: int code index, str title, int credits,
+ *                str department, byte semester (-1 if none), int instructor id,
+ *                int capacity
+ *   students     int count, then per student: int id, str name, str email, str reg no,
+ *                byte status, int enrollment epoch-day, int enrollment count, then per
+ *                enrollment: int code index, byte grade (-1 if not graded), int epoch-day
+ * </pre>
+ * A "str" is an int byte length (-1 for null) followed by UTF-8 bytes. Enums are
+ * stored as their ordinals and course codes as indexes into the dictionary.
+ */
+public class SnapshotService {
+
+    public static final Path DEFAULT_PATH = Paths.get("snapshots", "ccrm.snapshot");
+
+    private static final int MAGIC = 0x4343524D; // "CCRM"
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final long MAX_WINDOW = 256L * 1024 * 1024;
+
+    private final DataStore dataStore = DataStore.getInstance();
+
+    /**
+     * Writes a snapshot of the current data. The file is written next to the target
+     * and then moved into place, so a crash never leaves a half-written snapshot.
+     *
+     * @param path Where to write the snapshot.
+     * @return The size of the snapshot in bytes.
+     */
+    public long save(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = parent.resolve(path.getFileName() + ".tmp");
+
+        List<Instructor> instructors = dataStore.getInstructors();
+        List<Course> courses = dataStore.getCourses();
+        List<Student> students = dataStore.getStudents();
+
+        // Build the course code dictionary: catalog codes first, then any code that
+        // only appears in an enrollment.
+        Map<String, Integer> codeIndex = new HashMap<>();
+        List<String> codes = new ArrayList<>();
+        for (Course course : courses) {
+            codeIndex.computeIfAbsent(course.getCourseCode(), code -> { codes.add(code); return codes.size() - 1; });
+        }
+        for (Student student : students) {
+            int count = student.getEnrollmentCount();
+            EnrollmentTable table = student.getEnrollmentTable();
+            for (int e = 0; e < count; e++) {
+                codeIndex.computeIfAbsent(table.courseCode(student.getEnrollmentRow(e)),
+                        code -> { codes.add(code); return codes.size() - 1; });
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+
+            out.putInt(codes.size());
+            for (String code : codes) {
+                out.putString(code);
+            }
+
+            out.putInt(instructors.size());
+            for (Instructor instructor : instructors) {
+                out.putInt(instructor.getId());
+                out.putString(instructor.getFullName());
+                out.putString(instructor.getEmail());
+                out.putString(instructor.getDepartment());
+            }
+
+            out.putInt(courses.size());
+            for (Course course : courses) {
+                out.putInt(codeIndex.get(course.getCourseCode()));
+                out.putString(course.getTitle());
+                out.putInt(course.getCredits());
+                out.putString(course.getDepartment());
+                out.putByte(course.getSemester() != null ? course.getSemester().ordinal() : -1);
+                out.putInt(course.getInstructorId());
+                out.putInt(course.getCapacity());
+            }
+
+            out.putInt(students.size());
+            for (Student student : students) {
+                int enrollmentCount = student.getEnrollmentCount();
+                EnrollmentTable table = student.getEnrollmentTable();
+                out.putInt(student.getId());
+                out.putString(student.getFullName());
+                out.putString(student.getEmail());
+                out.putString(student.getRegistrationNumber());
+                out.putByte(student.getStatus().ordinal());
+                out.putInt((int) student.getEnrollmentDate().toEpochDay());
+                out.putInt(enrollmentCount);
+                for (int e = 0; e < enrollmentCount; e++) {
+                    int row = student.getEnrollmentRow(e);
+                    out.putInt(codeIndex.get(table.courseCode(row)));
+                    out.putByte(table.gradeOrdinal(row));
+                    out.putInt(table.epochDay(row));
+                }
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(path);
+    }
+
+    /**
+     * Loads a snapshot into the data store. Meant for an empty store at startup;
+     * entities that already exist with the same key are replaced.
+     *
+     * @param path The snapshot file.
+     * @return The number of students restored.
+     */
+    public int load(Path path) throws IOException {
+        return load(path, true);
+    }
+
+    /**
+     * Loads a snapshot, optionally leaving out the enrollments, e.g. because they
+     * are reattached from an {@link EnrollmentTableFile} instead.
+     *
+     * @param withEnrollments false to skip the enrollments; seats stay unoccupied.
+     * @return The number of students restored.
+     */
+    public int load(Path path, boolean withEnrollments) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Input in = new Input(channel);
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a CCRM snapshot: " + path);
+            }
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + path);
+            }
+
+            String[] codes = new String[in.getInt()];
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = in.getString();
+            }
+
+            int instructorCount = in.getInt();
+            List<Instructor> instructors = new ArrayList<>(instructorCount);
+            for (int i = 0; i < instructorCount; i++) {
+                instructors.add(new Instructor(in.getInt(), in.getString(), in.getString(), in.getString()));
+            }
+
+            Semester[] semesters = Semester.values();
+            int courseCount = in.getInt();
+            List<Course> courses = new ArrayList<>(courseCount);
+            Course[] coursesByCode = new Course[codes.length];
+            for (int i = 0; i < courseCount; i++) {
+                int codeIndex = in.getInt();
+                String title = in.getString();
+                int credits = in.getInt();
+                String department = in.getString();
+                byte semester = in.getByte();
+                Course course = new Course.CourseBuilder(codes[codeIndex], title)
+                        .credits(credits)
+                        .department(department)
+                        .semester(semester >= 0 ? semesters[semester] : null)
+                        .instructorId(in.getInt())
+                        .capacity(in.getInt())
+                        .build();
+                courses.add(course);
+                coursesByCode[codeIndex] = course;
+            }
+
+            // The catalog goes in first: adding a course assigns its catalog index,
+            // which the enrollments below are resolved against.
+            dataStore.addInstructors(instructors);
+            dataStore.addCourses(courses);
+
+            Student.Status[] statuses = Student.Status.values();
+            Grade[] grades = Grade.values();
+            int studentCount = in.getInt();
+            List<Student> students = new ArrayList<>(studentCount);
+            for (int i = 0; i < studentCount; i++) {
+                int id = in.getInt();
+                String name = in.getString();
+                String email = in.getString();
+                String regNo = in.getString();
+                Student.Status status = statuses[in.getByte()];
+                LocalDate enrolledOn = LocalDate.ofEpochDay(in.getInt());
+                Student student = new Student(id, name, email, regNo, enrolledOn);
+                student.setStatus(status);
+
+                int enrollmentCount = in.getInt();
+                for (int e = 0; e < enrollmentCount; e++) {
+                    int codeIndex = in.getInt();
+                    byte grade = in.getByte();
+                    if (!withEnrollments) {
+                        in.getInt();
+                        continue;
+                    }
+                    Enrollment enrollment = new Enrollment(id, codes[codeIndex], LocalDate.ofEpochDay(in.getInt()));
+                    Course course = coursesByCode[codeIndex];
+                    dataStore.attachEnrollment(student, enrollment, course);
+                    if (grade >= 0) {
+                        student.applyGrade(enrollment, grades[grade]);
+                    }
+                    if (course != null) {
+                        course.occupySeat();
+                    }
+                }
+                students.add(student);
+            }
+
+            dataStore.addStudents(students);
+            return students.size();
+        }
+    }
+
+    /**
+     * Loads the snapshot at {@link #DEFAULT_PATH} if there is one.
+     *
+     * @return true if a snapshot was found and loaded.
+     */
+    public boolean loadIfPresent() {
+        return loadIfPresent(true);
+    }
+
+    /**
+     * Loads the snapshot at {@link #DEFAULT_PATH} if there is one.
+     *
+     * @param withEnrollments false to skip the enrollments (see {@link #load(Path, boolean)}).
+     * @return true if a snapshot was found and loaded.
+     */
+    public boolean loadIfPresent(boolean withEnrollments) {
+        if (!Files.exists(DEFAULT_PATH)) {
+            return false;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            int students = load(DEFAULT_PATH, withEnrollments);
+            long millis = (System.nanoTime() - startNanos) / 1_000_000;
+            System.out.println("Loaded snapshot " + DEFAULT_PATH + " (" + students + " students in " + millis + " ms).");
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error loading snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Identifies a snapshot file by its size and modification time, so data derived
+     * from it can tell whether the file was replaced since.
+     *
+     * @return A non-zero fingerprint, or 0 if there is no such file.
+     */
+    public static long fingerprint(Path path) {
+        try {
+            long fingerprint = Files.size(path) * 31 + Files.getLastModifiedTime(path).toMillis();
+            return fingerprint != 0 ? fingerprint : 1;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Saves a snapshot to {@link #DEFAULT_PATH} and reports the result.
+     *
+     * @return true if the snapshot was saved.
+     */
+    public boolean saveSnapshot() {
+        try {
+            long bytes = save(DEFAULT_PATH);
+            System.out.println("Snapshot saved to " + DEFAULT_PATH.toAbsolutePath() + " (" + bytes + " bytes).");
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error saving snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Buffers writes to the channel in a reusable heap buffer.
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putByte(int value) throws IOException {
+            ensure(1);
+            buffer.put((byte) value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putString(String value) throws IOException {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                channel.write(ByteBuffer.wrap(bytes));
+                return;
+            }
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Reads the file through a sliding memory-mapped window, so snapshots larger
+     * than a single mapping (2 GB) can still be read.
+     */
+    private static final class Input {
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+        private byte[] scratch = new byte[256];
+
+        Input(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            map(0);
+        }
+
+        byte getByte() throws IOException {
+            ensure(1);
+            return window.get();
+        }
+
+        int getInt() throws IOException {
+            ensure(4);
+            return window.getInt();
+        }
+
+        String getString() throws IOException {
+            int length = getInt();
+            if (length < 0) {
+                return null;
+            }
+            if (length > MAX_WINDOW) {
+                throw new IOException("Corrupt snapshot: string of " + length + " bytes");
+            }
+            ensure(length);
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            window.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (window.remaining() >= bytes) {
+                return;
+            }
+            long position = windowStart + window.position();
+            if (position + bytes > size) {
+                throw new IOException("Snapshot is truncated at byte " + position);
+            }
+            map(position);
+        }
+
+        private void map(long position) throws IOException {
+            long length = Math.min(MAX_WINDOW, size - position);
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package edu.ccrm.io;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.TranscriptService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Writes transcripts for many students at once, e.g. for an end-of-term run.
+ *
+ * Students are split into batches that are rendered on all cores. Each thread reuses
+ * its own StringBuilder, encoder and byte buffer, and the bytes go straight to a
+ * FileChannel. The text is exactly what {@link TranscriptService#generateTranscript}
+ * returns, encoded as UTF-8.
+ */
+public class TranscriptExporter {
+
+    public static final Path DEFAULT_DIR = Paths.get("transcripts");
+    public static final String COMBINED_FILE_NAME = "all-transcripts.txt";
+
+    private static final int BATCH_SIZE = 256;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    // How far rendering may run ahead of writing in writeCombined.
+    private static final int MAX_BATCHES_IN_FLIGHT = 2 * ForkJoinPool.getCommonPoolParallelism() + 1;
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private final TranscriptService transcriptService = new TranscriptService();
+
+    private final ThreadLocal<RenderBuffer> renderBuffers = ThreadLocal.withInitial(RenderBuffer::new);
+
+    /**
+     * Writes every student's transcript, one after another, into a single file.
+     * Batches are rendered in parallel and written in student order. Only a few
+     * batches per core are rendered ahead of the one being written, so memory use
+     * stays the same however many students there are.
+     *
+     * @return The number of bytes written.
+     */
+    public long writeCombined(List<Student> students, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+
+        // Batches in student order that are rendering or rendered but not yet written.
+        Deque<CompletableFuture<ByteBuffer>> inFlight = new ArrayDeque<>(MAX_BATCHES_IN_FLIGHT);
+        int next = 0;
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (next < students.size() || !inFlight.isEmpty()) {
+                while (inFlight.size() < MAX_BATCHES_IN_FLIGHT && next < students.size()) {
+                    List<Student> batch = students.subList(next, Math.min(next + BATCH_SIZE, students.size()));
+                    inFlight.add(CompletableFuture.supplyAsync(() -> renderBatch(batch)));
+                    next += batch.size();
+                }
+                // Later batches keep rendering while the oldest one is written.
+                written += writeFully(channel, inFlight.poll().join());
+            }
+        } finally {
+            inFlight.forEach(batch -> batch.cancel(false));
+        }
+        return written;
+    }
+
+    /**
+     * Writes each student's transcript to its own file, named transcript-&lt;id&gt;.txt.
+     *
+     * @return The number of bytes written.
+     */
+    public long writePerStudent(List<Student> students, Path directory) throws IOException {
+        Files.createDirectories(directory);
+
+        List<CompletableFuture<Long>> batches = new ArrayList<>();
+        for (int from = 0; from < students.size(); from += BATCH_SIZE) {
+            List<Student> batch = students.subList(from, Math.min(from + BATCH_SIZE, students.size()));
+            batches.add(CompletableFuture.supplyAsync(() -> writeBatch(batch, directory)));
+        }
+        long written = 0;
+        for (CompletableFuture<Long> batch : batches) {
+            written += batch.join();
+        }
+        return written;
+    }
+
+    /**
+     * Generates transcripts for all students under {@link #DEFAULT_DIR} and reports
+     * the throughput.
+     *
+     * @param perStudent true for one file per student, false for a single combined file.
+     */
+    public void exportAll(boolean perStudent) {
+        List<Student> students = dataStore.getStudents();
+        long startNanos = System.nanoTime();
+        try {
+            Path target = perStudent ? DEFAULT_DIR : DEFAULT_DIR.resolve(COMBINED_FILE_NAME);
+            long bytes = perStudent ? writePerStudent(students, target) : writeCombined(students, target);
+
+            double seconds = Math.max(System.nanoTime() - startNanos, 1) / 1e9;
+            System.out.println("Wrote " + students.size() + " transcripts (" + bytes + " bytes) to "
+                    + target.toAbsolutePath() + " in " + Math.round(seconds * 1000) + " ms ("
+                    + Math.round(students.size() / seconds) + " transcripts/sec).");
+        } catch (IOException e) {
+            System.err.println("Error writing transcripts: " + e.getMessage());
+        } catch (CompletionException e) {
+            System.err.println("Error writing transcripts: " + e.getCause().getMessage());
+        }
+    }
+
+    private ByteBuffer renderBatch(List<Student> batch) {
+        RenderBuffer buffer = renderBuffers.get();
+        buffer.text.setLength(0);
+        for (Student student : batch) {
+            transcriptService.appendTranscript(student, buffer.text);
+        }
+        ByteBuffer bytes = buffer.encode();
+        // The thread's buffer is reused for the next batch, so hand back a copy.
+        return ByteBuffer.wrap(Arrays.copyOf(bytes.array(), bytes.limit()));
+    }
+
+    private long writeBatch(List<Student> batch, Path directory) {
+        RenderBuffer buffer = renderBuffers.get();
+        long written = 0;
+        for (Student student : batch) {
+            buffer.text.setLength(0);
+            transcriptService.appendTranscript(student, buffer.text);
+            Path file = directory.resolve("transcript-" + student.getId() + ".txt");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                written += writeFully(channel, buffer.encode());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return written;
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        long written = 0;
+        while (bytes.hasRemaining()) {
+            written += channel.write(bytes);
+        }
+        return written;
+    }
+
+    /**
+     * One thread's reusable text and byte buffers.
+     */
+    private static final class RenderBuffer {
+        final StringBuilder text = new StringBuilder(INITIAL_BUFFER_SIZE);
+        final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        ByteBuffer bytes = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+        /**
+         * Encodes the text into the byte buffer, growing it if needed, and returns
+         * the buffer ready for reading.
+         */
+        ByteBuffer encode() {
+            CharBuffer chars = CharBuffer.wrap(text);
+            bytes.clear();
+            encoder.reset();
+            while (true) {
+                CoderResult result = encoder.encode(chars, bytes, true);
+                if (result.isUnderflow()) {
+                    result = encoder.flush(bytes);
+                }
+                if (result.isUnderflow()) {
+                    break;
+                }
+                if (result.isOverflow()) {
+                    ByteBuffer larger = ByteBuffer.allocate(bytes.capacity() * 2);
+                    bytes.flip();
+                    larger.put(bytes);
+                    bytes = larger;
+                } else {
+                    // Unpaired surrogates: encode the way String.getBytes would.
+                    return ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            bytes.flip();
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,567 @@
+package edu.ccrm.io;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
+import edu.ccrm.domain.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.concurrent.locks.Lock;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only write-ahead log of student, course, enrollment and grade changes. It is
+ * attached to the DataStore as its {@link MutationJournal}, and replayed on startup
+ * on top of the last snapshot or CSV load so that no change is lost in a crash.
+ *
+ * In {@link SyncMode#GROUP} mode a background thread writes whatever records have
+ * piled up and makes them durable with a single fsync, so many concurrent changes
+ * share the cost of one disk flush. {@link SyncMode#PER_OPERATION} flushes after
+ * every record instead.
+ *
+ * Each record is framed as: int payload length, int CRC32 of the payload, payload.
+ * The payload starts with a type byte followed by the record's fields.
+ */
+public class WriteAheadLog implements MutationJournal, Closeable {
+
+    public static final Path DEFAULT_PATH = Paths.get("wal", "ccrm.wal");
+
+    /**
+     * When records are forced to disk.
+     */
+    public enum SyncMode {
+        /** One fsync per record. Simple, but every change waits for the disk. */
+        PER_OPERATION,
+        /** Records written since the last flush share one fsync. */
+        GROUP
+    }
+
+    private static final byte ADD_STUDENT = 1;
+    private static final byte ENROLL = 2;
+    private static final byte ASSIGN_GRADE = 3;
+    private static final byte ADD_COURSE = 4;
+
+    private static final int HEADER_SIZE = 8;
+    // Far above any real record; a larger length can only come from a corrupt frame.
+    private static final int MAX_PAYLOAD_SIZE = 1024 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 1024 * 1024;
+
+    private final Path path;
+    private final SyncMode mode;
+    private final FileChannel channel;
+    private final Object monitor = new Object();
+    private final CRC32 crc = new CRC32();
+    private final Thread flusher;
+
+    // Records appended but not yet written; swapped with 'writing' by the flusher.
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer writing = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private long appendedSequence;
+    private long durableSequence;
+    private boolean flushing;
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * Opens (or creates) the log for appending.
+     */
+    public WriteAheadLog(Path path, SyncMode mode) throws IOException {
+        this.path = path;
+        this.mode = mode;
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.READ);
+        channel.position(channel.size());
+
+        if (mode == SyncMode.GROUP) {
+            flusher = new Thread(this::flushLoop, "ccrm-wal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            flusher = null;
+        }
+    }
+
+    // --- MutationJournal ---
+
+    @Override
+    public long studentAdded(Student student) {
+        byte[] name = utf8(student.getFullName());
+        byte[] email = utf8(student.getEmail());
+        byte[] regNo = utf8(student.getRegistrationNumber());
+        synchronized (monitor) {
+            ByteBuffer buffer = begin(1 + 4 + 12 + lengthOf(name) + lengthOf(email) + lengthOf(regNo) + 4);
+            buffer.put(ADD_STUDENT);
+            buffer.putInt(student.getId());
+            putBytes(buffer, name);
+            putBytes(buffer, email);
+            putBytes(buffer, regNo);
+            buffer.putInt((int) student.getEnrollmentDate().toEpochDay());
+            return end();
+        }
+    }
+
+    @Override
+    public long courseAdded(Course course) {
+        byte[] code = utf8(course.getCourseCode());
+        byte[] title = utf8(course.getTitle());
+        byte[] department = utf8(course.getDepartment());
+        byte[] semester = utf8(course.getSemester() != null ? course.getSemester().name() : null);
+        synchronized (monitor) {
+            ByteBuffer buffer = begin(1 + 16 + lengthOf(code) + lengthOf(title) + lengthOf(department)
+                    + lengthOf(semester) + 12);
+            buffer.put(ADD_COURSE);
+            putBytes(buffer, code);
+            putBytes(buffer, title);
+            putBytes(buffer, department);
+            putBytes(buffer, semester);
+            buffer.putInt(course.getCredits());
+            buffer.putInt(course.getInstructorId());
+            buffer.putInt(course.getCapacity());
+            return end();
+        }
+    }
+
+    @Override
+    public long enrolled(Enrollment enrollment) {
+        byte[] code = utf8(enrollment.getCourseCode());
+        synchronized (monitor) {
+            ByteBuffer buffer = begin(1 + 4 + 4 + lengthOf(code) + 4);
+            buffer.put(ENROLL);
+            buffer.putInt(enrollment.getStudentId());
+            putBytes(buffer, code);
+            buffer.putInt((int) enrollment.getEnrollmentDate().toEpochDay());
+            return end();
+        }
+    }
+
+    @Override
+    public long gradeAssigned(int studentId, String courseCode, Grade grade) {
+        byte[] code = utf8(courseCode);
+        synchronized (monitor) {
+            ByteBuffer buffer = begin(1 + 4 + 4 + lengthOf(code) + 1);
+            buffer.put(ASSIGN_GRADE);
+            buffer.putInt(studentId);
+            putBytes(buffer, code);
+            buffer.put((byte) grade.ordinal());
+            return end();
+        }
+    }
+
+    @Override
+    public void awaitDurable(long sequence) {
+        synchronized (monitor) {
+            while (durableSequence < sequence && failure == null) {
+                try {
+                    monitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the write-ahead log", e);
+                }
+            }
+            if (durableSequence < sequence) {
+                throw new UncheckedIOException("Write-ahead log failed", failure);
+            }
+        }
+    }
+
+    // --- Lifecycle ---
+
+    /**
+     * Empties the log. Call this right after a snapshot has been saved, since the
+     * snapshot now contains every change the log held.
+     */
+    public void checkpoint() throws IOException {
+        synchronized (monitor) {
+            awaitIdle();
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Flushes any remaining records and closes the file. If a write has failed,
+     * the file is still closed and the failure is thrown afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        UncheckedIOException failed = null;
+        synchronized (monitor) {
+            if (closed) {
+                return;
+            }
+            try {
+                awaitIdle();
+            } catch (UncheckedIOException e) {
+                failed = e;
+            }
+            closed = true;
+            monitor.notifyAll();
+        }
+        if (flusher != null) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        channel.close();
+        if (failed != null) {
+            throw failed;
+        }
+    }
+
+    /**
+     * Waits until every appended record is on disk and the flusher is not writing.
+     * Must be called while holding the monitor.
+     */
+    private void awaitIdle() {
+        awaitDurable(appendedSequence);
+        while (flushing || pending.position() > 0) {
+            try {
+                monitor.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the write-ahead log", e);
+            }
+        }
+    }
+
+    // --- Replay ---
+
+    /**
+     * Re-applies every record in the log to the data store. Records that are
+     * already reflected in the store (e.g. because a snapshot was saved but the log
+     * was not yet emptied) are skipped, so replaying twice is harmless.
+     *
+     * The file is read frame by frame through a fixed-size buffer, so a log of any
+     * size can be replayed. Replay stops at the first frame with an impossible
+     * length or a wrong CRC, or one that is cut off by the end of the file; only
+     * then is the rest of the file discarded.
+     *
+     * @return The number of records applied.
+     */
+    public int replay(DataStore dataStore) throws IOException {
+        synchronized (monitor) {
+            long size = channel.size();
+            FrameReader frames = new FrameReader(channel);
+            int applied = 0;
+            long validEnd = 0;
+            CRC32 check = new CRC32();
+            while (frames.fill(HEADER_SIZE)) {
+                ByteBuffer data = frames.buffer;
+                int length = data.getInt(data.position());
+                int expectedCrc = data.getInt(data.position() + 4);
+                if (length <= 0 || length > MAX_PAYLOAD_SIZE || !frames.fill(HEADER_SIZE + length)) {
+                    break;
+                }
+                ByteBuffer payload = data.slice(data.position() + HEADER_SIZE, length);
+                check.reset();
+                check.update(payload.duplicate());
+                if ((int) check.getValue() != expectedCrc) {
+                    break;
+                }
+                if (apply(payload, dataStore)) {
+                    applied++;
+                }
+                data.position(data.position() + HEADER_SIZE + length);
+                validEnd += HEADER_SIZE + length;
+            }
+
+            if (validEnd < size) {
+                System.err.println("Write-ahead log " + path + ": discarding " + (size - validEnd)
+                        + " bytes from the first torn or corrupt record on.");
+                channel.truncate(validEnd);
+            }
+            channel.position(validEnd);
+            return applied;
+        }
+    }
+
+    /**
+     * Reads the log sequentially with positional reads into a reusable buffer.
+     * The bytes between the buffer's position and limit are the next unread part
+     * of the file.
+     */
+    private static final class FrameReader {
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE).flip();
+        private long filePosition;
+
+        FrameReader(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Makes sure at least the given number of unread bytes are buffered.
+         *
+         * @return false if the file ends first.
+         */
+        boolean fill(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return true;
+            }
+            if (buffer.capacity() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, bytes));
+                larger.put(buffer);
+                buffer = larger;
+            } else {
+                buffer.compact();
+            }
+            while (buffer.position() < bytes) {
+                int read = channel.read(buffer, filePosition);
+                if (read < 0) {
+                    break;
+                }
+                filePosition += read;
+            }
+            buffer.flip();
+            return buffer.remaining() >= bytes;
+        }
+    }
+
+    private boolean apply(ByteBuffer payload, DataStore dataStore) {
+        byte type = payload.get();
+        if (type == ADD_COURSE) {
+            return applyCourse(payload, dataStore);
+        }
+        int studentId = payload.getInt();
+        switch (type) {
+            case ADD_STUDENT -> {
+                String name = getString(payload);
+                String email = getString(payload);
+                String regNo = getString(payload);
+                LocalDate enrolledOn = LocalDate.ofEpochDay(payload.getInt());
+                if (dataStore.findStudentById(studentId) != null) {
+                    return false;
+                }
+                dataStore.addStudent(new Student(studentId, name, email, regNo, enrolledOn));
+                return true;
+            }
+            case ENROLL -> {
+                String courseCode = getString(payload);
+                LocalDate enrolledOn = LocalDate.ofEpochDay(payload.getInt());
+                Student student = dataStore.findStudentById(studentId);
+                if (student == null || findEnrollment(student, courseCode) != null) {
+                    return false;
+                }
+                Course course = dataStore.findCourseByCode(courseCode);
+                Lock lock = dataStore.lockForStudent(studentId);
+                lock.lock();
+                try {
+                    dataStore.attachEnrollment(student, new Enrollment(studentId, courseCode, enrolledOn), course);
+                } finally {
+                    lock.unlock();
+                }
+                if (course != null) {
+                    course.occupySeat();
+                }
+                return true;
+            }
+            case ASSIGN_GRADE -> {
+                String courseCode = getString(payload);
+                Grade grade = Grade.values()[payload.get()];
+                Student student = dataStore.findStudentById(studentId);
+                Enrollment enrollment = student != null ? findEnrollment(student, courseCode) : null;
+                if (enrollment == null) {
+                    return false;
+                }
+                Lock lock = dataStore.lockForStudent(studentId);
+                lock.lock();
+                try {
+                    student.applyGrade(enrollment, grade);
+                } finally {
+                    lock.unlock();
+                }
+                return true;
+            }
+            default -> throw new IllegalStateException("Unknown write-ahead log record type " + type);
+        }
+    }
+
+    private static boolean applyCourse(ByteBuffer payload, DataStore dataStore) {
+        String code = getString(payload);
+        String title = getString(payload);
+        String department = getString(payload);
+        String semester = getString(payload);
+        int credits = payload.getInt();
+        int instructorId = payload.getInt();
+        int capacity = payload.getInt();
+        if (dataStore.findCourseByCode(code) != null) {
+            return false;
+        }
+        dataStore.addCourse(new Course.CourseBuilder(code, title)
+                .credits(credits)
+                .department(department)
+                .semester(semester != null ? Semester.valueOf(semester) : null)
+                .instructorId(instructorId)
+                .capacity(capacity)
+                .build());
+        return true;
+    }
+
+    private static Enrollment findEnrollment(Student student, String courseCode) {
+        for (Enrollment enrollment : student.getEnrollments()) {
+            if (enrollment.getCourseCode().equalsIgnoreCase(courseCode)) {
+                return enrollment;
+            }
+        }
+        return null;
+    }
+
+    // --- Appending ---
+
+    /**
+     * Starts a record: reserves the frame header and makes room for the payload.
+     * Once a write has failed, nothing more is accepted: records after a lost one
+     * could not be replayed in order, so callers are told at once.
+     * Must be called while holding the monitor.
+     */
+    private ByteBuffer begin(int payloadSize) {
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log failed", failure);
+        }
+        if (payloadSize > MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("Record of " + payloadSize + " bytes is too large for the write-ahead log");
+        }
+        if (pending.remaining() < HEADER_SIZE + payloadSize) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + HEADER_SIZE + payloadSize));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+        pending.mark();
+        pending.position(pending.position() + HEADER_SIZE);
+        return pending;
+    }
+
+    /**
+     * Fills in the frame header of the record started by {@link #begin(int)} and
+     * hands it to the disk. Must be called while holding the monitor.
+     */
+    private long end() {
+        int end = pending.position();
+        pending.reset();
+        int start = pending.position();
+        int length = end - start - HEADER_SIZE;
+
+        ByteBuffer payload = pending.duplicate();
+        payload.position(start + HEADER_SIZE).limit(end);
+        crc.reset();
+        crc.update(payload);
+        pending.putInt(start, length);
+        pending.putInt(start + 4, (int) crc.getValue());
+        pending.position(end);
+
+        long sequence = ++appendedSequence;
+        if (mode == SyncMode.PER_OPERATION) {
+            try {
+                writeAndForce(pending);
+                durableSequence = sequence;
+            } catch (IOException e) {
+                failure = e;
+            }
+            monitor.notifyAll();
+        } else {
+            monitor.notifyAll(); // Wake the flusher.
+        }
+        return sequence;
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long batchEnd;
+            synchronized (monitor) {
+                while (pending.position() == 0 && !closed) {
+                    try {
+                        monitor.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.position() == 0) {
+                    return; // Closed and fully flushed.
+                }
+                ByteBuffer full = pending;
+                pending = writing;
+                writing = full;
+                batchEnd = appendedSequence;
+                flushing = true;
+            }
+
+            IOException error = null;
+            try {
+                writeAndForce(writing);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            synchronized (monitor) {
+                flushing = false;
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durableSequence = batchEnd;
+                }
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    // The buffer is emptied even when writing fails, so it is never left flipped
+    // for the next record to be appended to.
+    private void writeAndForce(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            buffer.clear();
+        }
+        channel.force(false);
+    }
+
+    // --- Encoding helpers ---
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int lengthOf(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
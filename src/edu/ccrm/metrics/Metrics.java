@@ -0,0 +1,91 @@
+package edu.ccrm.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The registry of all counters and latency histograms, shared by the whole
+ * application (Singleton Pattern, like DataStore).
+ *
+ * Services look their metrics up once, into static fields, and then record
+ * without touching the registry:
+ *
+ * <pre>
+ * private static final LatencyHistogram ENROLL_LATENCY = Metrics.getInstance().histogram("enrollment.enroll");
+ * ...
+ * long start = System.nanoTime();
+ * ...
+ * ENROLL_LATENCY.recordSince(start);
+ * </pre>
+ *
+ * Recording is on by default. It can be switched off at runtime, or at startup
+ * with -Dccrm.metrics=false, after which recording returns immediately.
+ */
+public final class Metrics {
+
+    private static final Metrics instance = new Metrics();
+
+    // Read on every record call, so kept as a plain static field.
+    static volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty("ccrm.metrics"));
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static Metrics getInstance() {
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * @return The counter with this name, created on first use.
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * @return The latency histogram with this name, created on first use.
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * @return All counters, sorted by name.
+     */
+    public List<Counter> getCounters() {
+        List<Counter> all = new ArrayList<>(counters.values());
+        all.sort(Comparator.comparing(Counter::getName));
+        return all;
+    }
+
+    /**
+     * @return All histograms, sorted by name.
+     */
+    public List<LatencyHistogram> getHistograms() {
+        List<LatencyHistogram> all = new ArrayList<>(histograms.values());
+        all.sort(Comparator.comparing(LatencyHistogram::getName));
+        return all;
+    }
+
+    /**
+     * Sets every counter and histogram back to zero. Metrics still in use keep
+     * recording into the same objects.
+     */
+    public void reset() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+}
@@ -0,0 +1,117 @@
+package edu.ccrm.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formats the current metrics as a plain-text table, for the console or a file,
+ * and can rewrite a dump file at a fixed interval in the background.
+ */
+public class MetricsReporter {
+
+    public static final Path DEFAULT_DUMP_PATH = Paths.get("metrics", "metrics.txt");
+    public static final long DEFAULT_DUMP_INTERVAL_SECONDS = 60;
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Metrics metrics = Metrics.getInstance();
+    private ScheduledExecutorService scheduler;
+    private Path dumpFile;
+
+    /**
+     * @return Every histogram (count, mean, percentiles and max in microseconds)
+     *         and every counter, one per line.
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("CCRM metrics at ")
+                .append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
+                .append(metrics.isEnabled() ? "" : " (recording is off)")
+                .append('\n');
+
+        sb.append(String.format(Locale.ROOT, "%n%-28s %10s %10s %10s %10s %10s %10s %10s%n",
+                "Operation (us)", "count", "mean", "p50", "p90", "p99", "p99.9", "max"));
+        for (LatencyHistogram histogram : metrics.getHistograms()) {
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            sb.append(String.format(Locale.ROOT, "%-28s %10d %10.1f", snapshot.getName(), snapshot.getCount(),
+                    snapshot.getMeanNanos() / 1000.0));
+            for (double percentile : PERCENTILES) {
+                sb.append(String.format(Locale.ROOT, " %10.1f", snapshot.getValueAtPercentile(percentile) / 1000.0));
+            }
+            sb.append(String.format(Locale.ROOT, " %10.1f%n", snapshot.getMaxNanos() / 1000.0));
+        }
+
+        sb.append(String.format(Locale.ROOT, "%n%-28s %10s%n", "Counter", "count"));
+        for (Counter counter : metrics.getCounters()) {
+            sb.append(String.format(Locale.ROOT, "%-28s %10d%n", counter.getName(), counter.getCount()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the report to a file, replacing it in one step so readers never see
+     * a half-written dump.
+     */
+    public void writeTo(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = parent.resolve(file.getFileName() + ".tmp");
+        Files.write(temp, report().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Rewrites the dump file every interval on a background daemon thread, until
+     * {@link #stop()} is called.
+     */
+    public synchronized void startPeriodicDump(Path file, long interval, TimeUnit unit) {
+        if (scheduler != null) {
+            return;
+        }
+        dumpFile = file;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ccrm-metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                writeTo(file);
+            } catch (IOException e) {
+                System.err.println("Error writing metrics to " + file + ": " + e.getMessage());
+            }
+        }, interval, interval, unit);
+    }
+
+    /**
+     * Stops the periodic dump, if running, and writes the file one last time.
+     */
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        // Let a dump that is being written finish, rather than interrupt it.
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        try {
+            writeTo(dumpFile);
+        } catch (IOException e) {
+            System.err.println("Error writing metrics to " + dumpFile + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,30 +1,136 @@
 package edu.ccrm.service;
 
 import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
 import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.metrics.Counter;
+import edu.ccrm.metrics.LatencyHistogram;
+import edu.ccrm.metrics.Metrics;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class CourseService implements Searchable<Course, String> {
+    private static final Counter LOOKUPS = Metrics.getInstance().counter("course.lookups");
+    private static final LatencyHistogram FILTER_LATENCY = Metrics.getInstance().histogram("course.filter");
+    private static final LatencyHistogram ROSTER_LATENCY = Metrics.getInstance().histogram("course.roster");
+    // Serializes the duplicate check and the insert of addCourse across all instances.
+    private static final Object CREATE_LOCK = new Object();
+
     private final DataStore dataStore = DataStore.getInstance();
 
     @Override
     public Course findById(String courseCode) {
-        // This now returns a Course or null, NOT Optional<Course>
-        return dataStore.getCourses().stream()
-                .filter(course -> course.getCourseCode().equalsIgnoreCase(courseCode))
-                .findFirst()
-                .orElse(null);
+        // This now returns a Course or null, NOT Optional<Course>.
+        // The lookup is a case-insensitive hash lookup instead of a scan.
+        LOOKUPS.increment();
+        return dataStore.findCourseByCode(courseCode);
     }
 
     public List<Course> getAllCourses() {
         return dataStore.getCourses();
     }
 
+    /**
+     * Creates a course and adds it to the catalog. Like a new student, the course
+     * is logged to the journal before it becomes visible.
+     *
+     * @param capacity The seat limit, or {@link Course#UNLIMITED_CAPACITY}.
+     * @return The new course.
+     * @throws IllegalArgumentException if a course with the code already exists or
+     *                                  the capacity is negative.
+     */
+    public Course addCourse(String courseCode, String title, int credits, String department,
+                            Semester semester, int instructorId, int capacity) {
+        Course course = new Course.CourseBuilder(courseCode, title)
+                .credits(credits)
+                .department(department)
+                .semester(semester)
+                .instructorId(instructorId)
+                .capacity(capacity)
+                .build();
+        MutationJournal journal = dataStore.getJournal();
+        long sequence;
+        synchronized (CREATE_LOCK) {
+            if (dataStore.findCourseByCode(courseCode) != null) {
+                throw new IllegalArgumentException("Course with code " + courseCode + " already exists.");
+            }
+            sequence = journal.courseAdded(course);
+            dataStore.addCourse(course);
+        }
+        journal.awaitDurable(sequence);
+        return course;
+    }
+
+    // The queries below read DataStore's secondary indexes, so they cost as much
+    // as the result is long, not as much as the catalog is large.
+
     public List<Course> findCoursesByInstructor(int instructorId) {
-        return dataStore.getCourses().stream()
-                .filter(course -> course.getInstructorId() == instructorId)
-                .collect(Collectors.toList());
+        return dataStore.findCoursesByInstructor(instructorId);
+    }
+
+    public List<Course> findCoursesBySemester(Semester semester) {
+        return dataStore.findCoursesBySemester(semester);
+    }
+
+    public List<Course> findCoursesByDepartment(String department) {
+        return dataStore.findCoursesByDepartment(department);
+    }
+
+    /**
+     * Finds courses matching all of the given criteria. Pass null to leave a
+     * criterion out, e.g. findCourses(null, Semester.FALL, "Computer Science").
+     */
+    public List<Course> findCourses(Integer instructorId, Semester semester, String department) {
+        long startNanos = System.nanoTime();
+        List<Course> courses = dataStore.findCourses(instructorId, semester, department);
+        FILTER_LATENCY.recordSince(startNanos);
+        return courses;
+    }
+
+    /**
+     * Returns the students enrolled in a course, in enrollment order. Reads the
+     * course's roster, so only the enrolled students are looked at.
+     *
+     * @param courseCode The course code (case-insensitive).
+     * @return The enrolled students; empty if there are none.
+     */
+    public List<Student> getRoster(String courseCode) {
+        long startNanos = System.nanoTime();
+        int[] studentIds = dataStore.getRosterIds(courseCode);
+        List<Student> roster = new ArrayList<>(studentIds.length);
+        for (int studentId : studentIds) {
+            Student student = dataStore.findStudentById(studentId);
+            if (student != null) {
+                roster.add(student);
+            }
+        }
+        ROSTER_LATENCY.recordSince(startNanos);
+        return roster;
+    }
+
+    /**
+     * @return The IDs of the students enrolled in a course, in enrollment order.
+     */
+    public int[] getRosterIds(String courseCode) {
+        return dataStore.getRosterIds(courseCode);
+    }
+
+    /**
+     * @return How many students are enrolled in a course.
+     */
+    public int getHeadcount(String courseCode) {
+        return dataStore.getHeadcount(courseCode);
+    }
+
+    /**
+     * Moves a course to another instructor, keeping the instructor index up to date.
+     *
+     * @return false if the course does not exist.
+     */
+    public boolean assignInstructor(String courseCode, int instructorId) {
+        return dataStore.reassignInstructor(courseCode, instructorId);
     }
 }
 
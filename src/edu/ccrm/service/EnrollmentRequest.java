@@ -0,0 +1,29 @@
+package edu.ccrm.service;
+
+/**
+ * A single (student, course) pair submitted to {@link EnrollmentService#enrollAll}.
+ * Used by the registrar's bulk pre-registration runs.
+ */
+public class EnrollmentRequest {
+
+    private final int studentId;
+    private final String courseCode;
+
+    public EnrollmentRequest(int studentId, String courseCode) {
+        this.studentId = studentId;
+        this.courseCode = courseCode;
+    }
+
+    public int getStudentId() {
+        return studentId;
+    }
+
+    public String getCourseCode() {
+        return courseCode;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EnrollmentRequest[StudentId=%d, CourseCode=%s]", studentId, courseCode);
+    }
+}
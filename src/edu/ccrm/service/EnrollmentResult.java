@@ -0,0 +1,55 @@
+package edu.ccrm.service;
+
+/**
+ * The outcome of one {@link EnrollmentRequest} in a bulk enrollment run.
+ * Failures are reported here instead of being thrown, so one bad pair does not
+ * stop the rest of the batch.
+ */
+public class EnrollmentResult {
+
+    /**
+     * Why a request succeeded or failed.
+     */
+    public enum Status {
+        ENROLLED,
+        STUDENT_NOT_FOUND,
+        COURSE_NOT_FOUND,
+        ALREADY_ENROLLED,
+        COURSE_FULL,
+        MAX_CREDITS_EXCEEDED,
+        /** The enrollment was added, but writing it to the journal failed. */
+        NOT_LOGGED
+    }
+
+    private final EnrollmentRequest request;
+    private final Status status;
+    private final String message;
+
+    public EnrollmentResult(EnrollmentRequest request, Status status, String message) {
+        this.request = request;
+        this.status = status;
+        this.message = message;
+    }
+
+    public EnrollmentRequest getRequest() {
+        return request;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isSuccess() {
+        return status == Status.ENROLLED;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EnrollmentResult[StudentId=%d, CourseCode=%s, Status=%s, Message=%s]",
+                request.getStudentId(), request.getCourseCode(), status, message);
+    }
+}
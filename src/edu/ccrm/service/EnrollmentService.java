@@ -1,70 +1,343 @@
 package edu.ccrm.service;
 
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
 import edu.ccrm.domain.Course;
 import edu.ccrm.domain.Enrollment;
 import edu.ccrm.domain.Grade;
 import edu.ccrm.domain.Student;
 import edu.ccrm.exception.EnrollmentException;
 import edu.ccrm.exception.MaxCreditsException;
+import edu.ccrm.metrics.Counter;
+import edu.ccrm.metrics.LatencyHistogram;
+import edu.ccrm.metrics.Metrics;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
 
 public class EnrollmentService {
 
     private static final int MAX_CREDITS_PER_SEMESTER = 18;
 
+    // Number of students handled by one task when a bulk run is spread over an executor.
+    private static final int STUDENTS_PER_BATCH_TASK = 256;
+
+    private static final String MAX_CREDITS_MESSAGE = "Enrollment failed: Exceeds max credit limit of "
+            + MAX_CREDITS_PER_SEMESTER + " for the semester.";
+
+    private static final LatencyHistogram ENROLL_LATENCY = Metrics.getInstance().histogram("enrollment.enroll");
+    private static final LatencyHistogram GRADE_LATENCY = Metrics.getInstance().histogram("enrollment.assignGrade");
+    private static final LatencyHistogram BULK_LATENCY = Metrics.getInstance().histogram("enrollment.enrollAll");
+    private static final Counter ENROLLED = Metrics.getInstance().counter("enrollment.enrolled");
+    private static final Counter REJECTED = Metrics.getInstance().counter("enrollment.rejected");
+
+    private final DataStore dataStore = DataStore.getInstance();
     private final StudentService studentService = new StudentService();
     private final CourseService courseService = new CourseService();
 
     public void enrollStudent(int studentId, String courseCode) throws EnrollmentException, MaxCreditsException {
+        long startNanos = System.nanoTime();
+        try {
+            enroll(studentId, courseCode);
+            ENROLLED.increment();
+        } catch (EnrollmentException | MaxCreditsException e) {
+            REJECTED.increment();
+            throw e;
+        } finally {
+            ENROLL_LATENCY.recordSince(startNanos);
+        }
+    }
+
+    private void enroll(int studentId, String courseCode) throws EnrollmentException, MaxCreditsException {
         // Now this receives a real Student object, not a box!
         Student student = studentService.findById(studentId);
         if (student == null) {
-            throw new EnrollmentException("Student with ID " + studentId + " not found.");
+            throw new EnrollmentException(studentNotFoundMessage(studentId));
         }
 
         Course courseToEnroll = courseService.findById(courseCode);
         if (courseToEnroll == null) {
-            throw new EnrollmentException("Course with code " + courseCode + " not found.");
+            throw new EnrollmentException(courseNotFoundMessage(courseCode));
+        }
+
+        // Take a seat first; it is handed back below if the enrollment is rejected.
+        if (!courseToEnroll.tryReserveSeat()) {
+            throw new EnrollmentException(courseFullMessage(courseToEnroll));
         }
 
-        // This line will now work perfectly!
+        // The duplicate check, credit check, insert and credit update must happen as
+        // one step, otherwise two concurrent requests could both pass the checks.
+        // Once attached, the enrollment holds the seat even if logging it fails.
+        boolean enrolled = false;
+        long journalSequence;
+        Lock lock = dataStore.lockForStudent(studentId);
+        lock.lock();
+        try {
+            Enrollment enrollment = addEnrollment(student, courseToEnroll);
+            enrolled = true;
+            journalSequence = dataStore.getJournal().enrolled(enrollment);
+        } finally {
+            lock.unlock();
+            if (!enrolled) {
+                courseToEnroll.releaseSeat();
+            }
+        }
+        // Wait for the journal outside the lock, so other changes can share its flush.
+        dataStore.getJournal().awaitDurable(journalSequence);
+    }
+
+    /**
+     * Validates and adds the enrollment. Must be called with the student's lock held.
+     *
+     * @return The new enrollment.
+     */
+    private Enrollment addEnrollment(Student student, Course courseToEnroll) throws EnrollmentException, MaxCreditsException {
+        String courseCode = courseToEnroll.getCourseCode();
         boolean isAlreadyEnrolled = student.getEnrollments().stream()
                 .anyMatch(e -> e.getCourseCode().equalsIgnoreCase(courseCode));
         if (isAlreadyEnrolled) {
-            throw new EnrollmentException("Student is already enrolled in course " + courseCode);
+            throw new EnrollmentException(alreadyEnrolledMessage(courseCode));
+        }
+
+        if (exceedsCreditLimit(student, courseToEnroll)) {
+            throw new MaxCreditsException(MAX_CREDITS_MESSAGE);
         }
 
-        int currentCredits = 0;
-        for (Enrollment enrollment : student.getEnrollments()) {
-            Course enrolledCourse = courseService.findById(enrollment.getCourseCode());
-            if (enrolledCourse != null && enrolledCourse.getSemester() == courseToEnroll.getSemester()) {
-                currentCredits += enrolledCourse.getCredits();
+        Enrollment newEnrollment = new Enrollment(student.getId(), courseCode);
+        dataStore.attachEnrollment(student, newEnrollment, courseToEnroll);
+        return newEnrollment;
+    }
+
+    public void assignGrade(int studentId, String courseCode, Grade grade) throws EnrollmentException {
+        long startNanos = System.nanoTime();
+        try {
+            applyGrade(studentId, courseCode, grade);
+        } finally {
+            GRADE_LATENCY.recordSince(startNanos);
+        }
+    }
+
+    private void applyGrade(int studentId, String courseCode, Grade grade) throws EnrollmentException {
+        Student student = studentService.findById(studentId);
+        if (student == null) {
+            throw new EnrollmentException(studentNotFoundMessage(studentId));
+        }
+
+        MutationJournal journal = dataStore.getJournal();
+        long journalSequence;
+        Lock lock = dataStore.lockForStudent(studentId);
+        lock.lock();
+        try {
+            Optional<Enrollment> enrollmentOpt = student.getEnrollments().stream()
+                    .filter(e -> e.getCourseCode().equalsIgnoreCase(courseCode))
+                    .findFirst();
+
+            if (enrollmentOpt.isPresent()) {
+                student.applyGrade(enrollmentOpt.get(), grade);
+                journalSequence = journal.gradeAssigned(studentId, enrollmentOpt.get().getCourseCode(), grade);
+            } else {
+                throw new EnrollmentException("Cannot assign grade: Student is not enrolled in course " + courseCode);
             }
+        } finally {
+            lock.unlock();
         }
+        journal.awaitDurable(journalSequence);
+    }
+
+    /**
+     * Enrolls a whole batch of (student, course) pairs, for example the registrar's
+     * pre-registration file. Runs on the calling thread.
+     *
+     * @param requests The pairs to enroll, processed in order per student.
+     * @return One result per request, in the same order as the input.
+     * @see #enrollAll(Collection, Executor)
+     */
+    public List<EnrollmentResult> enrollAll(Collection<EnrollmentRequest> requests) {
+        return enrollAll(requests, Runnable::run);
+    }
+
+    /**
+     * Enrolls a whole batch of (student, course) pairs. Requests are grouped by
+     * student so each student is looked up and locked once, each distinct course
+     * code is resolved once, and credits are checked against the running
+     * per-semester totals in a single pass. Groups of students are handed to the
+     * executor, so a multi-threaded executor processes them in parallel.
+     * Failures are reported in the results rather than thrown.
+     *
+     * @param requests The pairs to enroll, processed in order per student.
+     * @param executor Where the student groups run.
+     * @return One result per request, in the same order as the input.
+     */
+    public List<EnrollmentResult> enrollAll(Collection<EnrollmentRequest> requests, Executor executor) {
+        long startNanos = System.nanoTime();
+        List<EnrollmentRequest> ordered = new ArrayList<>(requests);
+        EnrollmentResult[] results = new EnrollmentResult[ordered.size()];
 
-        if (currentCredits + courseToEnroll.getCredits() > MAX_CREDITS_PER_SEMESTER) {
-            throw new MaxCreditsException("Enrollment failed: Exceeds max credit limit of "
-                    + MAX_CREDITS_PER_SEMESTER + " for the semester.");
+        // 1. Resolve every distinct course code once.
+        Map<String, Course> coursesByCode = new HashMap<>();
+        for (EnrollmentRequest request : ordered) {
+            String code = request.getCourseCode();
+            if (!coursesByCode.containsKey(code)) {
+                coursesByCode.put(code, courseService.findById(code));
+            }
+        }
+
+        // 2. Group request positions by student, keeping first-seen order.
+        Map<Integer, List<Integer>> positionsByStudent = new LinkedHashMap<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            positionsByStudent.computeIfAbsent(ordered.get(i).getStudentId(), id -> new ArrayList<>()).add(i);
         }
 
-        Enrollment newEnrollment = new Enrollment(studentId, courseCode);
-        student.getEnrollments().add(newEnrollment);
+        // 3. Hand out the groups in fixed-size batches and wait for all of them.
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        List<List<Integer>> batch = new ArrayList<>(STUDENTS_PER_BATCH_TASK);
+        for (List<Integer> positions : positionsByStudent.values()) {
+            batch.add(positions);
+            if (batch.size() == STUDENTS_PER_BATCH_TASK) {
+                tasks.add(submitBatch(batch, ordered, coursesByCode, results, executor));
+                batch = new ArrayList<>(STUDENTS_PER_BATCH_TASK);
+            }
+        }
+        if (!batch.isEmpty()) {
+            tasks.add(submitBatch(batch, ordered, coursesByCode, results, executor));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+
+        int enrolled = 0;
+        for (EnrollmentResult result : results) {
+            if (result.isSuccess()) {
+                enrolled++;
+            }
+        }
+        ENROLLED.add(enrolled);
+        REJECTED.add(results.length - enrolled);
+        BULK_LATENCY.recordSince(startNanos);
+        return List.of(results);
     }
 
-    public void assignGrade(int studentId, String courseCode, Grade grade) throws EnrollmentException {
+    private CompletableFuture<Void> submitBatch(List<List<Integer>> groups, List<EnrollmentRequest> requests,
+                                                Map<String, Course> coursesByCode, EnrollmentResult[] results,
+                                                Executor executor) {
+        return CompletableFuture.runAsync(() -> {
+            for (List<Integer> positions : groups) {
+                enrollGroup(positions, requests, coursesByCode, results);
+            }
+        }, executor);
+    }
+
+    /**
+     * Processes every request of one student while holding that student's lock once.
+     */
+    private void enrollGroup(List<Integer> positions, List<EnrollmentRequest> requests,
+                             Map<String, Course> coursesByCode, EnrollmentResult[] results) {
+        int studentId = requests.get(positions.get(0)).getStudentId();
         Student student = studentService.findById(studentId);
         if (student == null) {
-            throw new EnrollmentException("Student with ID " + studentId + " not found.");
+            for (int position : positions) {
+                results[position] = new EnrollmentResult(requests.get(position),
+                        EnrollmentResult.Status.STUDENT_NOT_FOUND, studentNotFoundMessage(studentId));
+            }
+            return;
+        }
+
+        // A journal failure must not lose the results of enrollments that are already
+        // attached, so it is reported per request instead of thrown.
+        MutationJournal journal = dataStore.getJournal();
+        long lastSequence = 0;
+        List<Integer> logged = new ArrayList<>(positions.size());
+        Lock lock = dataStore.lockForStudent(studentId);
+        lock.lock();
+        try {
+            Set<String> enrolledCodes = new HashSet<>();
+            for (Enrollment enrollment : student.getEnrollments()) {
+                enrolledCodes.add(enrollment.getCourseCode().toUpperCase(Locale.ROOT));
+            }
+            for (int position : positions) {
+                EnrollmentRequest request = requests.get(position);
+                Course course = coursesByCode.get(request.getCourseCode());
+                results[position] = enrollOne(student, request, course, enrolledCodes);
+                if (results[position].isSuccess()) {
+                    List<Enrollment> enrollments = student.getEnrollments();
+                    try {
+                        lastSequence = journal.enrolled(enrollments.get(enrollments.size() - 1));
+                        logged.add(position);
+                    } catch (RuntimeException e) {
+                        results[position] = notLogged(request, e);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        // One wait covers every enrollment of this student.
+        try {
+            journal.awaitDurable(lastSequence);
+        } catch (RuntimeException e) {
+            for (int position : logged) {
+                results[position] = notLogged(requests.get(position), e);
+            }
         }
+    }
 
-        Optional<Enrollment> enrollmentOpt = student.getEnrollments().stream()
-                .filter(e -> e.getCourseCode().equalsIgnoreCase(courseCode))
-                .findFirst();
+    private static EnrollmentResult notLogged(EnrollmentRequest request, RuntimeException failure) {
+        return new EnrollmentResult(request, EnrollmentResult.Status.NOT_LOGGED,
+                "Enrolled, but the change could not be logged and may be lost in a crash: " + failure.getMessage());
+    }
 
-        if (enrollmentOpt.isPresent()) {
-            enrollmentOpt.get().setGrade(grade);
-        } else {
-            throw new EnrollmentException("Cannot assign grade: Student is not enrolled in course " + courseCode);
+    private EnrollmentResult enrollOne(Student student, EnrollmentRequest request, Course course, Set<String> enrolledCodes) {
+        if (course == null) {
+            return new EnrollmentResult(request, EnrollmentResult.Status.COURSE_NOT_FOUND,
+                    courseNotFoundMessage(request.getCourseCode()));
+        }
+        String courseKey = course.getCourseCode().toUpperCase(Locale.ROOT);
+        if (enrolledCodes.contains(courseKey)) {
+            return new EnrollmentResult(request, EnrollmentResult.Status.ALREADY_ENROLLED,
+                    alreadyEnrolledMessage(course.getCourseCode()));
+        }
+        if (exceedsCreditLimit(student, course)) {
+            return new EnrollmentResult(request, EnrollmentResult.Status.MAX_CREDITS_EXCEEDED, MAX_CREDITS_MESSAGE);
         }
+        if (!course.tryReserveSeat()) {
+            return new EnrollmentResult(request, EnrollmentResult.Status.COURSE_FULL, courseFullMessage(course));
+        }
+        dataStore.attachEnrollment(student, new Enrollment(student.getId(), course.getCourseCode()), course);
+        enrolledCodes.add(courseKey);
+        return new EnrollmentResult(request, EnrollmentResult.Status.ENROLLED, "Enrolled successfully.");
+    }
+
+    // --- Shared validation and messages ---
+
+    /**
+     * The running total is kept up to date by Student.addEnrollment, so this is O(1).
+     */
+    private static boolean exceedsCreditLimit(Student student, Course course) {
+        int currentCredits = student.getCreditsForSemester(course.getSemester());
+        return currentCredits + course.getCredits() > MAX_CREDITS_PER_SEMESTER;
+    }
+
+    private static String studentNotFoundMessage(int studentId) {
+        return "Student with ID " + studentId + " not found.";
+    }
+
+    private static String courseNotFoundMessage(String courseCode) {
+        return "Course with code " + courseCode + " not found.";
+    }
+
+    private static String alreadyEnrolledMessage(String courseCode) {
+        return "Student is already enrolled in course " + courseCode;
+    }
+
+    private static String courseFullMessage(Course course) {
+        return "Course " + course.getCourseCode() + " is full (" + course.getCapacity() + " seats).";
     }
 }
@@ -0,0 +1,205 @@
+package edu.ccrm.service;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.EnrollmentTable;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes credit-weighted GPAs from scratch, per semester and cumulative.
+ *
+ * Students keep running GPA totals for everyday lookups (see {@link Student#getGpa()}).
+ * This engine is the batch path: it recomputes every student's GPA in parallel on a
+ * fork/join pool. Credits and semesters are read from the {@link EnrollmentTable}'s
+ * course dictionary, the same values the running totals were built from, so the
+ * two always agree and the inner loop only touches primitive arrays.
+ */
+public class GpaEngine {
+
+    // Students per fork/join leaf task.
+    private static final int LEAF_SIZE = 512;
+
+    // Grade points x 100, indexed by Grade.ordinal(), so the loop stays in integers.
+    private static final int[] GRADE_POINTS_X100;
+    static {
+        Grade[] grades = Grade.values();
+        GRADE_POINTS_X100 = new int[grades.length];
+        for (Grade grade : grades) {
+            GRADE_POINTS_X100[grade.ordinal()] = (int) Math.round(grade.getGradePoint() * 100);
+        }
+    }
+
+    private final DataStore dataStore = DataStore.getInstance();
+
+    /**
+     * The GPAs of every student, in the same order as {@link DataStore#getStudents()}.
+     * A GPA is 0.0 when the student has no graded credits in that period.
+     */
+    public static class GpaReport {
+        private final int[] studentIds;
+        private final double[] cumulative;
+        // [semester ordinal][student position]
+        private final double[][] bySemester;
+
+        GpaReport(int[] studentIds, double[] cumulative, double[][] bySemester) {
+            this.studentIds = studentIds;
+            this.cumulative = cumulative;
+            this.bySemester = bySemester;
+        }
+
+        public int size() {
+            return studentIds.length;
+        }
+
+        public int getStudentId(int position) {
+            return studentIds[position];
+        }
+
+        public double getCumulativeGpa(int position) {
+            return cumulative[position];
+        }
+
+        public double getSemesterGpa(int position, Semester semester) {
+            return bySemester[semester.ordinal()][position];
+        }
+    }
+
+    /**
+     * Recomputes the GPA of every student on the common fork/join pool.
+     */
+    public GpaReport recomputeAll() {
+        return recomputeAll(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Recomputes the GPA of every student on the given pool.
+     */
+    public GpaReport recomputeAll(ForkJoinPool pool) {
+        List<Student> students = dataStore.getStudents();
+        int count = students.size();
+        int semesterCount = Semester.values().length;
+
+        int[] studentIds = new int[count];
+        double[] cumulative = new double[count];
+        double[][] bySemester = new double[semesterCount][count];
+        pool.invoke(new RecomputeTask(students.toArray(new Student[0]),
+                studentIds, cumulative, bySemester, 0, count));
+        return new GpaReport(studentIds, cumulative, bySemester);
+    }
+
+    /**
+     * Computes one student's credit-weighted cumulative GPA from their enrollments.
+     */
+    public double calculateGpa(Student student) {
+        long[] points = new long[Semester.values().length + 1];
+        int[] credits = new int[points.length];
+        accumulate(student, points, credits);
+        int cumulativeSlot = points.length - 1;
+        return gpaOf(points[cumulativeSlot], credits[cumulativeSlot]);
+    }
+
+    /**
+     * Computes one student's credit-weighted GPA for a single semester.
+     */
+    public double calculateGpa(Student student, Semester semester) {
+        long[] points = new long[Semester.values().length + 1];
+        int[] credits = new int[points.length];
+        accumulate(student, points, credits);
+        return gpaOf(points[semester.ordinal()], credits[semester.ordinal()]);
+    }
+
+    /**
+     * Adds the student's graded credits and weighted points into per-semester slots,
+     * with the cumulative totals in the last slot. Courses with no semester only
+     * count towards the cumulative totals.
+     */
+    private static void accumulate(Student student, long[] points, int[] credits) {
+        int cumulativeSlot = points.length - 1;
+        // Straight from the enrollment table's columns; no Enrollment views.
+        int count = student.getEnrollmentCount();
+        EnrollmentTable rows = student.getEnrollmentTable();
+        for (int i = 0; i < count; i++) {
+            int row = student.getEnrollmentRow(i);
+            int grade = rows.gradeOrdinal(row);
+            if (grade < 0) {
+                continue;
+            }
+            int courseCredits = rows.credits(row);
+            if (courseCredits == 0) {
+                continue;
+            }
+            long weighted = (long) GRADE_POINTS_X100[grade] * courseCredits;
+            int semester = rows.semesterOrdinal(row);
+            if (semester >= 0) {
+                points[semester] += weighted;
+                credits[semester] += courseCredits;
+            }
+            points[cumulativeSlot] += weighted;
+            credits[cumulativeSlot] += courseCredits;
+        }
+    }
+
+    private static double gpaOf(long points, int credits) {
+        return credits == 0 ? 0.0 : (points / 100.0) / credits;
+    }
+
+    /**
+     * Splits the student array in halves until a range is small enough to compute
+     * directly. Each leaf writes only its own positions of the output arrays.
+     */
+    private static final class RecomputeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Student[] students;
+        private final int[] studentIds;
+        private final double[] cumulative;
+        private final double[][] bySemester;
+        private final int from;
+        private final int to;
+
+        RecomputeTask(Student[] students, int[] studentIds,
+                      double[] cumulative, double[][] bySemester, int from, int to) {
+            this.students = students;
+            this.studentIds = studentIds;
+            this.cumulative = cumulative;
+            this.bySemester = bySemester;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                computeDirectly();
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RecomputeTask(students, studentIds, cumulative, bySemester, from, middle),
+                    new RecomputeTask(students, studentIds, cumulative, bySemester, middle, to));
+        }
+
+        private void computeDirectly() {
+            int slots = bySemester.length + 1;
+            long[] points = new long[slots];
+            int[] credits = new int[slots];
+            for (int i = from; i < to; i++) {
+                Student student = students[i];
+                Arrays.fill(points, 0);
+                Arrays.fill(credits, 0);
+                accumulate(student, points, credits);
+
+                studentIds[i] = student.getId();
+                cumulative[i] = gpaOf(points[slots - 1], credits[slots - 1]);
+                for (int s = 0; s < bySemester.length; s++) {
+                    bySemester[s][i] = gpaOf(points[s], credits[s]);
+                }
+            }
+        }
+    }
+}
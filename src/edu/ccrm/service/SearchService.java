@@ -0,0 +1,80 @@
+package edu.ccrm.service;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.DataStoreListener;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Student;
+
+import java.util.List;
+
+/**
+ * Type-ahead search over students (name, email, registration number) and courses
+ * (title). Every word of the query matches as a prefix, in any field, so
+ * "ann sm" finds "Anna Smith" and "reg20" finds registration number REG2023001.
+ *
+ * The indexes are built from the DataStore when the service is created and then
+ * follow it as students and courses are added or removed. Create one instance and
+ * share it; each instance keeps its own indexes.
+ */
+public class SearchService {
+
+    /** Result limit used when none is given. */
+    public static final int DEFAULT_LIMIT = 20;
+
+    private final TermIndex<Student> studentIndex = new TermIndex<>(student -> new String[] {
+            student.getFullName(), student.getEmail(), student.getRegistrationNumber() });
+    private final TermIndex<Course> courseIndex = new TermIndex<>(course -> new String[] { course.getTitle() });
+
+    public SearchService() {
+        DataStore dataStore = DataStore.getInstance();
+        // Listen first so nothing added during the initial build is missed. An entity
+        // indexed by both is found once, since searches skip repeats.
+        dataStore.addListener(new DataStoreListener() {
+            @Override
+            public void studentAdded(Student student) {
+                studentIndex.add(student);
+            }
+
+            @Override
+            public void studentRemoved(Student student) {
+                studentIndex.remove(student);
+            }
+
+            @Override
+            public void courseAdded(Course course) {
+                courseIndex.add(course);
+            }
+
+            @Override
+            public void courseRemoved(Course course) {
+                courseIndex.remove(course);
+            }
+        });
+        dataStore.getStudents().forEach(studentIndex::add);
+        dataStore.getCourses().forEach(courseIndex::add);
+    }
+
+    public List<Student> searchStudents(String query) {
+        return searchStudents(query, DEFAULT_LIMIT);
+    }
+
+    /**
+     * @param query Words to match as prefixes of the name, email or registration number.
+     * @param limit The maximum number of students to return.
+     */
+    public List<Student> searchStudents(String query, int limit) {
+        return studentIndex.search(query, limit);
+    }
+
+    public List<Course> searchCourses(String query) {
+        return searchCourses(query, DEFAULT_LIMIT);
+    }
+
+    /**
+     * @param query Words to match as prefixes of words in the course title.
+     * @param limit The maximum number of courses to return.
+     */
+    public List<Course> searchCourses(String query, int limit) {
+        return courseIndex.search(query, limit);
+    }
+}
@@ -1,7 +1,11 @@
 package edu.ccrm.service;
 
 import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
 import edu.ccrm.domain.Student;
+import edu.ccrm.metrics.Counter;
+import edu.ccrm.metrics.LatencyHistogram;
+import edu.ccrm.metrics.Metrics;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -10,15 +14,32 @@ import java.util.List;
  * This service class is responsible for creating, finding, and retrieving student data.
  */
 public class StudentService implements Searchable<Student, Integer> {
+    // Lookups take tens of nanoseconds, so they are only counted; timing them would
+    // cost as much as the lookup itself.
+    private static final Counter LOOKUPS = Metrics.getInstance().counter("student.lookups");
+    private static final LatencyHistogram ADD_LATENCY = Metrics.getInstance().histogram("student.add");
+
     private final DataStore dataStore = DataStore.getInstance();
 
     @Override
     public Student findById(Integer id) {
-        // Find a student by their ID. Returns null if not found.
-        return dataStore.getStudents().stream()
-                .filter(student -> student.getId() == id)
-                .findFirst()
-                .orElse(null);
+        // Find a student by their ID using the store's index. Returns null if not found.
+        if (id == null) {
+            return null;
+        }
+        return findById(id.intValue());
+    }
+
+    /**
+     * Primitive fast path for {@link #findById(Integer)}. Callers holding an int
+     * ID resolve to this overload, so no Integer is boxed for the lookup.
+     *
+     * @param id The ID to search for.
+     * @return The found student, or null if no student has that ID.
+     */
+    public Student findById(int id) {
+        LOOKUPS.increment();
+        return dataStore.findStudentById(id);
     }
 
     public List<Student> getAllStudents() {
@@ -35,14 +56,20 @@ public class StudentService implements Searchable<Student, Integer> {
      * @return The newly created Student object.
      */
     public Student addStudent(String fullName, String email, String registrationNumber) {
+        long startNanos = System.nanoTime();
         // 1. Get the next unique ID from the data store.
         int studentId = dataStore.getNextStudentId();
 
         // 2. Create a new Student object with the current date.
         Student newStudent = new Student(studentId, fullName, email, registrationNumber, LocalDate.now());
 
-        // 3. Add the new student to our central list of students.
-        dataStore.getStudents().add(newStudent);
+        // 3. Record the change in the journal first, so it is logged before anyone can
+        //    see (and enroll) the student, then add them to the data store.
+        MutationJournal journal = dataStore.getJournal();
+        long sequence = journal.studentAdded(newStudent);
+        dataStore.addStudent(newStudent);
+        journal.awaitDurable(sequence);
+        ADD_LATENCY.recordSince(startNanos);
 
         // 4. Return the new student so the caller can confirm success.
         return newStudent;
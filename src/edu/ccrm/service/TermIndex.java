@@ -0,0 +1,300 @@
+package edu.ccrm.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * An inverted index from normalized terms to the entities containing them.
+ *
+ * Terms are kept in a sorted, concurrent dictionary, so all terms starting with a
+ * prefix form one contiguous range. Each term points at a posting list of entity
+ * references (no IDs to look up afterwards). Text is normalized by lower-casing,
+ * removing accents and splitting on anything that is not a letter or digit, so
+ * "Jos\u00e9.Smith@uni.edu" gives the terms jose, smith, uni and edu.
+ *
+ * @param <T> The indexed entity type.
+ */
+final class TermIndex<T> {
+
+    // How many dictionary terms a query may look at to pick its driving term.
+    private static final int MAX_TERMS_COUNTED = 4096;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final ConcurrentSkipListMap<String, Postings> dictionary = new ConcurrentSkipListMap<>();
+    private final Function<T, String[]> fieldsOf;
+
+    /**
+     * @param fieldsOf Returns the entity's searchable text fields; used when indexing
+     *                 and to check candidates against the whole query.
+     */
+    TermIndex(Function<T, String[]> fieldsOf) {
+        this.fieldsOf = fieldsOf;
+    }
+
+    void add(T entity) {
+        // Distinct terms only, so an entity is listed once per term (e.g. a name that
+        // also appears in the email).
+        for (String term : termsOf(entity)) {
+            dictionary.computeIfAbsent(term, t -> new Postings()).add(entity);
+        }
+    }
+
+    void remove(T entity) {
+        for (String term : termsOf(entity)) {
+            Postings postings = dictionary.get(term);
+            if (postings != null) {
+                postings.remove(entity);
+            }
+        }
+    }
+
+    private Set<String> termsOf(T entity) {
+        Set<String> terms = new HashSet<>();
+        for (String field : fieldsOf.apply(entity)) {
+            terms.addAll(tokenize(field));
+        }
+        return terms;
+    }
+
+    /**
+     * @return The number of distinct terms.
+     */
+    int termCount() {
+        return dictionary.size();
+    }
+
+    /**
+     * Finds entities for which every query term is a prefix of one of their terms.
+     *
+     * The query term with the fewest postings drives the search: its prefix range in
+     * the dictionary is walked in term order and each candidate is checked against
+     * the other query terms. The walk stops as soon as the limit is reached, so
+     * type-ahead queries stay fast however many entities match.
+     *
+     * @param query Free text, normalized like the indexed text.
+     * @param limit The maximum number of results.
+     * @return Matching entities, in the order of their matching terms.
+     */
+    List<T> search(String query, int limit) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String driver = queryTerms.size() == 1 ? queryTerms.get(0) : chooseDriver(queryTerms);
+
+        List<T> results = new ArrayList<>(Math.min(limit, 64));
+        // An entity can appear under several terms of the range, e.g. "ann" and "anna".
+        Set<T> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Postings postings : prefixRange(driver).values()) {
+            Object[] entities = postings.entities;
+            int size = Math.min(postings.size, entities.length);
+            for (int i = 0; i < size; i++) {
+                @SuppressWarnings("unchecked")
+                T entity = (T) entities[i];
+                if (entity == null || !seen.add(entity)) {
+                    continue;
+                }
+                if (queryTerms.size() == 1 || matchesAll(fieldsOf.apply(entity), queryTerms)) {
+                    results.add(entity);
+                    if (results.size() == limit) {
+                        return results;
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Picks the query term whose prefix covers the fewest postings. The ranges are
+     * counted side by side, always advancing the one with the lowest count so far;
+     * once that one is fully counted it is known to be the smallest. Counting stops
+     * after MAX_TERMS_COUNTED dictionary terms and then goes with the lowest count.
+     */
+    private String chooseDriver(List<String> queryTerms) {
+        int n = queryTerms.size();
+        List<Iterator<Postings>> ranges = new ArrayList<>(n);
+        for (String term : queryTerms) {
+            ranges.add(prefixRange(term).values().iterator());
+        }
+        long[] counts = new long[n];
+        boolean[] counted = new boolean[n];
+        int steps = 0;
+        while (true) {
+            int lowest = 0;
+            for (int i = 1; i < n; i++) {
+                if (counts[i] < counts[lowest]) {
+                    lowest = i;
+                }
+            }
+            if (counted[lowest] || steps == MAX_TERMS_COUNTED) {
+                return queryTerms.get(lowest);
+            }
+            Iterator<Postings> range = ranges.get(lowest);
+            if (range.hasNext()) {
+                counts[lowest] += range.next().size;
+                steps++;
+            } else {
+                counted[lowest] = true;
+            }
+        }
+    }
+
+    private ConcurrentNavigableMap<String, Postings> prefixRange(String prefix) {
+        return dictionary.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static boolean matchesAll(String[] fields, List<String> queryTerms) {
+        for (String queryTerm : queryTerms) {
+            boolean found = false;
+            for (String field : fields) {
+                if (hasTermWithPrefix(field, queryTerm)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether any term of the text starts with the (normalized) prefix. ASCII text,
+     * the usual case, is scanned in place without building its term list.
+     */
+    private static boolean hasTermWithPrefix(String text, String prefix) {
+        if (text == null) {
+            return false;
+        }
+        if (!isAscii(text)) {
+            for (String term : tokenize(text)) {
+                if (term.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !isAsciiWordChar(text.charAt(i))) {
+                i++;
+            }
+            int matched = 0;
+            while (i + matched < length && matched < prefix.length()
+                    && toLowerAscii(text.charAt(i + matched)) == prefix.charAt(matched)) {
+                matched++;
+            }
+            if (matched == prefix.length()) {
+                return true;
+            }
+            while (i < length && isAsciiWordChar(text.charAt(i))) {
+                i++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Splits text into normalized terms: lower case, no accents, letters and digits only.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        boolean ascii = isAscii(text);
+        String normalized = text;
+        if (!ascii) {
+            normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        }
+        normalized = normalized.toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>(4);
+        int length = normalized.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !isWordChar(normalized.charAt(i), ascii)) {
+                i++;
+            }
+            int start = i;
+            while (i < length && isWordChar(normalized.charAt(i), ascii)) {
+                i++;
+            }
+            if (i > start) {
+                terms.add(normalized.substring(start, i));
+            }
+        }
+        return terms;
+    }
+
+    private static boolean isWordChar(char c, boolean ascii) {
+        return ascii ? isAsciiWordChar(c) : Character.isLetter(c) || Character.isDigit(c);
+    }
+
+    private static boolean isAsciiWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * An append-mostly list of entities. Appends write past the published size and
+     * then publish the new size, so readers walk the array without locking; they
+     * see every entity added before they read the size. Removal copies the array.
+     */
+    private static final class Postings {
+        volatile Object[] entities = new Object[4];
+        volatile int size;
+
+        synchronized void add(Object entity) {
+            Object[] current = entities;
+            int n = size;
+            if (n == current.length) {
+                current = Arrays.copyOf(current, n * 2);
+                entities = current;
+            }
+            current[n] = entity;
+            size = n + 1;
+        }
+
+        synchronized void remove(Object entity) {
+            Object[] current = entities;
+            int n = size;
+            for (int i = 0; i < n; i++) {
+                if (current[i] == entity) {
+                    Object[] copy = new Object[current.length];
+                    System.arraycopy(current, 0, copy, 0, i);
+                    System.arraycopy(current, i + 1, copy, i, n - i - 1);
+                    entities = copy;
+                    size = n - 1;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Student;
+import edu.ccrm.metrics.Counter;
+import edu.ccrm.metrics.Metrics;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bounded cache of rendered transcripts, one per student.
+ *
+ * Each entry remembers the student's {@link Student#getVersion() version} when it
+ * was rendered. A lookup compares that with the current version, so an entry
+ * is only dropped when the student's status, enrollments or grades actually
+ * changed. No service has to remember to invalidate anything. The default
+ * locale is checked too, because it decides how numbers are written.
+ *
+ * A hit is one map lookup, two compares and at most one write to mark the entry
+ * as recently used. Eviction uses the CLOCK algorithm, an approximation of
+ * least-recently-used: entries sit in a ring, and the hand clears marks until it
+ * finds an unmarked entry to replace. Only inserts take the lock.
+ *
+ * Keys are the Student objects themselves (Student keeps identity equality), so
+ * a student removed and re-added with the same ID never sees the old text.
+ */
+final class TranscriptCache {
+
+    private static final Counter HITS = Metrics.getInstance().counter("transcript.cache.hits");
+    private static final Counter MISSES = Metrics.getInstance().counter("transcript.cache.misses");
+    private static final Counter EVICTIONS = Metrics.getInstance().counter("transcript.cache.evictions");
+
+    private final int capacity;
+    private final ConcurrentHashMap<Student, Entry> entries;
+    // The CLOCK ring, guarded by this. Slots below 'used' hold entries.
+    private final Entry[] ring;
+    private int used;
+    private int hand;
+
+    /**
+     * @param capacity The maximum number of transcripts kept; 0 disables caching.
+     */
+    TranscriptCache(int capacity) {
+        this.capacity = Math.max(capacity, 0);
+        this.entries = new ConcurrentHashMap<>(Math.min(this.capacity, 1 << 16));
+        this.ring = new Entry[this.capacity];
+    }
+
+    /**
+     * @return The cached transcript if it is still current, otherwise null.
+     */
+    String get(Student student) {
+        Entry entry = entries.get(student);
+        if (entry != null && entry.version == student.getVersion()
+                && entry.locale.equals(Locale.getDefault(Locale.Category.FORMAT))) {
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            HITS.increment();
+            return entry.text;
+        }
+        MISSES.increment();
+        return null;
+    }
+
+    /**
+     * Caches a transcript rendered from the student at the given version. The
+     * version must be read before rendering; if the student changes meanwhile the
+     * entry is simply stale from the start and replaced on the next lookup.
+     */
+    void put(Student student, int version, String text) {
+        if (capacity == 0) {
+            return;
+        }
+        Entry entry = new Entry(student, version, Locale.getDefault(Locale.Category.FORMAT), text);
+        synchronized (this) {
+            Entry previous = entries.get(student);
+            if (previous != null) {
+                entry.slot = previous.slot;
+            } else if (used < capacity) {
+                entry.slot = used++;
+            } else {
+                entry.slot = evict();
+            }
+            ring[entry.slot] = entry;
+            entries.put(student, entry);
+        }
+    }
+
+    /**
+     * Advances the hand to the first entry not used since the hand last passed,
+     * removes it and returns its slot. Called with the lock held and a full ring.
+     */
+    private int evict() {
+        while (true) {
+            Entry candidate = ring[hand];
+            int slot = hand;
+            hand = (hand + 1) % capacity;
+            if (candidate.referenced) {
+                candidate.referenced = false;
+            } else {
+                entries.remove(candidate.student, candidate);
+                EVICTIONS.increment();
+                return slot;
+            }
+        }
+    }
+
+    private static final class Entry {
+        final Student student;
+        final int version;
+        final Locale locale;
+        final String text;
+        // Set by readers, cleared by the hand. Racy on purpose: a lost update only
+        // costs one entry a little accuracy in the eviction order.
+        volatile boolean referenced;
+        int slot;
+
+        Entry(Student student, int version, Locale locale, String text) {
+            this.student = student;
+            this.version = version;
+            this.locale = locale;
+            this.text = text;
+        }
+    }
+}
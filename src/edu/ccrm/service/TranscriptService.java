@@ -1,62 +1,223 @@
 package edu.ccrm.service;
 
-import edu.ccrm.domain.Enrollment;
+import edu.ccrm.config.DataStore;
+import edu.ccrm.domain.EnrollmentTable;
+import edu.ccrm.domain.Grade;
 import edu.ccrm.domain.Student;
+import edu.ccrm.metrics.LatencyHistogram;
+import edu.ccrm.metrics.Metrics;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
 import java.util.List;
-
+import java.util.Locale;
+import java.util.stream.Collectors;
 
 public class TranscriptService {
 
+    private static final LatencyHistogram TRANSCRIPT_LATENCY = Metrics.getInstance().histogram("transcript.generate");
+    private static final LatencyHistogram COHORT_LATENCY = Metrics.getInstance().histogram("transcript.gpaCohort");
+
+    // Shared by every TranscriptService, like the DataStore. Size it with
+    // -Dccrm.transcriptCache.size=N; 0 turns caching off.
+    private static final TranscriptCache CACHE =
+            new TranscriptCache(Integer.getInteger("ccrm.transcriptCache.size", 10_000));
+
+    private final DataStore dataStore = DataStore.getInstance();
+
+    // Transcripts are built by hand instead of with String.format, which is much
+    // slower when every student's transcript is produced at term end. The output is
+    // the same as the original format strings, which were:
+    //   profile: "STUDENT | ID: %d | Name: %s | Reg No: %s | Status: %s"
+    //   course:  "  - %-10s | Grade: %s\n"
+    //   GPA:     "Cumulative GPA: %.2f\n"
+    private static final int COURSE_CODE_WIDTH = 10;
+    private static final Grade[] GRADES = Grade.values();
+
+    // String.format writes numbers with the default locale's digits and decimal
+    // separator. Hand-written numbers are only used when those are the plain ASCII ones.
+    private static volatile LocaleCheck localeCheck;
+
     /**
      * Generates a formatted string representing a student's academic transcript.
+     * The result is cached until the student's status, enrollments or grades change,
+     * so repeated requests for the same student return the same string. Only
+     * renderings are timed in transcript.generate; cache hits are counted instead.
      *
      * @param student The student for whom to generate the transcript.
      * @return A formatted string containing the student's profile and course records.
      */
     public String generateTranscript(Student student) {
-        
-        StringBuilder sb = new StringBuilder();
+        String cached = CACHE.get(student);
+        if (cached != null) {
+            return cached;
+        }
+        long startNanos = System.nanoTime();
+        // Read before rendering: a change made meanwhile leaves the entry stale.
+        int version = student.getVersion();
+        StringBuilder sb = new StringBuilder(256);
+        appendTranscript(student, sb);
+        String transcript = sb.toString();
+        CACHE.put(student, version, transcript);
+        TRANSCRIPT_LATENCY.recordSince(startNanos);
+        return transcript;
+    }
+
+    /**
+     * Appends a student's transcript to the builder. Bulk generators call this with
+     * a reused builder, so no intermediate strings are created per line.
+     *
+     * @param student The student for whom to generate the transcript.
+     * @param sb      The builder to append to.
+     */
+    public void appendTranscript(Student student, StringBuilder sb) {
+        boolean plainNumbers = usesPlainNumbers();
 
         sb.append("\n========================================\n");
         sb.append("      ACADEMIC TRANSCRIPT\n");
         sb.append("========================================\n");
-        sb.append(student.getProfile()); 
+        if (plainNumbers) {
+            sb.append("STUDENT | ID: ").append(student.getId())
+                    .append(" | Name: ").append(student.getFullName())
+                    .append(" | Reg No: ").append(student.getRegistrationNumber())
+                    .append(" | Status: ").append(student.getStatus());
+        } else {
+            sb.append(student.getProfile());
+        }
         sb.append("\n----------------------------------------\n");
         sb.append("Enrolled Courses:\n");
 
-        List<Enrollment> enrollments = student.getEnrollments();
+        int enrollmentCount = student.getEnrollmentCount();
 
-        if (enrollments.isEmpty()) {
+        if (enrollmentCount == 0) {
             sb.append("  No courses enrolled.\n");
         } else {
-            for (Enrollment enrollment : enrollments) {
+            EnrollmentTable table = student.getEnrollmentTable();
+            for (int i = 0; i < enrollmentCount; i++) {
                 // Nicely format each course and its grade.
-                String gradeStr = (enrollment.getGrade() != null) ? enrollment.getGrade().name() : "Not Graded";
-                sb.append(String.format("  - %-10s | Grade: %s\n", enrollment.getCourseCode(), gradeStr));
+                int row = student.getEnrollmentRow(i);
+                int grade = table.gradeOrdinal(row);
+                String gradeStr = grade >= 0 ? GRADES[grade].name() : "Not Graded";
+                sb.append("  - ");
+                appendPadded(sb, String.valueOf(table.courseCode(row)), COURSE_CODE_WIDTH);
+                sb.append(" | Grade: ").append(gradeStr).append('\n');
             }
         }
 
         double gpa = calculateGpa(student);
         sb.append("----------------------------------------\n");
-        sb.append(String.format("Cumulative GPA: %.2f\n", gpa)); 
+        sb.append("Cumulative GPA: ");
+        if (plainNumbers) {
+            appendTwoDecimals(sb, gpa);
+        } else {
+            sb.append(String.format("%.2f", gpa));
+        }
+        sb.append('\n');
         sb.append("========================================\n");
+    }
 
-        return sb.toString();
+    /**
+     * Same as "%-Ns": the text, then spaces up to the width. Longer text is not cut.
+     */
+    private static void appendPadded(StringBuilder sb, String text, int width) {
+        sb.append(text);
+        for (int i = text.length(); i < width; i++) {
+            sb.append(' ');
+        }
     }
 
     /**
-     * Calculates the Grade Point Average (GPA) for a student based on their graded courses.
-     * This method demonstrates the use of the Java Stream API for aggregation.
+     * Same as "%.2f" for plain digits. Formatter rounds the shortest decimal form of the
+     * double (Double.toString) half-up, so values that are within rounding error of
+     * a half cent are handed to BigDecimal to get exactly the same answer.
+     */
+    static void appendTwoDecimals(StringBuilder sb, double value) {
+        if (!(value >= 0) || value >= 1e6 || Double.doubleToRawLongBits(value) < 0) {
+            // Negative (including -0.0), NaN, infinite or very large: rare, so use Formatter.
+            sb.append(String.format("%.2f", value));
+            return;
+        }
+        double scaled = value * 100;
+        double whole = Math.floor(scaled);
+        double fraction = scaled - whole;
+        long cents;
+        if (Math.abs(fraction - 0.5) < 1e-6) {
+            cents = new BigDecimal(Double.toString(value)).setScale(2, RoundingMode.HALF_UP)
+                    .movePointRight(2).longValueExact();
+        } else {
+            cents = (long) whole + (fraction > 0.5 ? 1 : 0);
+        }
+        sb.append(cents / 100).append('.');
+        int remainder = (int) (cents % 100);
+        if (remainder < 10) {
+            sb.append('0');
+        }
+        sb.append(remainder);
+    }
+
+    private static boolean usesPlainNumbers() {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        LocaleCheck check = localeCheck;
+        if (check == null || !check.locale.equals(locale)) {
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+            check = new LocaleCheck(locale, symbols.getZeroDigit() == '0' && symbols.getDecimalSeparator() == '.');
+            localeCheck = check;
+        }
+        return check.plainNumbers;
+    }
+
+    private static final class LocaleCheck {
+        final Locale locale;
+        final boolean plainNumbers;
+
+        LocaleCheck(Locale locale, boolean plainNumbers) {
+            this.locale = locale;
+            this.plainNumbers = plainNumbers;
+        }
+    }
+
+    /**
+     * Returns the credit-weighted Grade Point Average (GPA) for a student based on their
+     * graded courses. The student keeps running totals that are updated whenever a grade
+     * is assigned, so this is O(1) no matter how many enrollments the student has.
      *
      * @param student The student whose GPA is to be calculated.
      * @return The calculated GPA as a double.
      */
-    private double calculateGpa(Student student) {
-       
-        return student.getEnrollments().stream()
-                .filter(enrollment -> enrollment.getGrade() != null)
-                .mapToDouble(enrollment -> enrollment.getGrade().getGradePoint())
-                .average()
-                .orElse(0.0);
-    }
-}
\ No newline at end of file
+    public double calculateGpa(Student student) {
+        return student.getGpa();
+    }
+
+    /**
+     * Finds students whose GPA is below the threshold, e.g. for a probation report.
+     * Students without any graded credits have no GPA yet and are not included.
+     * Only the students' running totals are read; no enrollment is scanned.
+     *
+     * @param threshold The GPA to compare against.
+     * @return The matching students.
+     */
+    public List<Student> findStudentsWithGpaBelow(double threshold) {
+        long startNanos = System.nanoTime();
+        List<Student> students = dataStore.getStudents().stream()
+                .filter(student -> student.getGradedCredits() > 0 && student.getGpa() < threshold)
+                .collect(Collectors.toList());
+        COHORT_LATENCY.recordSince(startNanos);
+        return students;
+    }
+
+    /**
+     * Finds students whose GPA is at or above the threshold, e.g. for the dean's list.
+     * Only the students' running totals are read; no enrollment is scanned.
+     *
+     * @param threshold The GPA to compare against.
+     * @return The matching students.
+     */
+    public List<Student> findStudentsWithGpaAtLeast(double threshold) {
+        long startNanos = System.nanoTime();
+        List<Student> students = dataStore.getStudents().stream()
+                .filter(student -> student.getGradedCredits() > 0 && student.getGpa() >= threshold)
+                .collect(Collectors.toList());
+        COHORT_LATENCY.recordSince(startNanos);
+        return students;
+    }
+}
@@ -0,0 +1,137 @@
+package edu.ccrm.api;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.SearchService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApiServerTest {
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private ApiServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataStore.clear();
+        dataStore.setJournal(MutationJournal.NONE);
+        for (int i = 0; i < 1500; i++) {
+            dataStore.addCourse(new Course.CourseBuilder("CALC" + i, "Calculus " + i).credits(1)
+                    .semester(Semester.FALL).build());
+        }
+        dataStore.addCourse(new Course.CourseBuilder("LAB1", "Lab").credits(1).semester(Semester.FALL)
+                .capacity(10).build());
+        for (int id = 1; id <= 64; id++) {
+            dataStore.addStudent(new Student(id, "Student " + id, "s" + id + "@example.edu", "REG" + id,
+                    LocalDate.of(2024, 9, 1)));
+        }
+        server = new ApiServer(0, new SearchService());
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+        dataStore.clear();
+    }
+
+    @Test
+    void searchLimitsAreCappedAndNegativeOnesRejected() throws Exception {
+        assertEquals(SearchService.DEFAULT_LIMIT, count(get("/api/courses?q=calc").body(), "\"courseCode\""));
+        assertEquals(7, count(get("/api/courses?q=calc&limit=7").body(), "\"courseCode\""));
+        HttpResponse<String> capped = get("/api/courses?q=calc&limit=1000000");
+        assertEquals(200, capped.statusCode());
+        assertEquals(ApiHandler.MAX_LIMIT, count(capped.body(), "\"courseCode\""));
+
+        assertEquals(400, get("/api/courses?q=calc&limit=-1").statusCode());
+        assertEquals(400, get("/api/students?q=student&limit=-5").statusCode());
+        assertEquals(400, get("/api/courses?q=calc&limit=lots").statusCode());
+        assertEquals(404, get("/api/courses/NOPE").statusCode());
+    }
+
+    @Test
+    void coursesAreCreatedOnceWithTheirCapacity() throws Exception {
+        String form = "courseCode=NEW1&title=New+Course&credits=3&department=PHYSICS&semester=fall&instructorId=7";
+
+        HttpResponse<String> created = post("/api/courses", form + "&capacity=25");
+        assertEquals(201, created.statusCode());
+        assertTrue(created.body().contains("\"capacity\":25"), created.body());
+        assertEquals(25, dataStore.findCourseByCode("NEW1").getCapacity());
+        assertEquals(409, post("/api/courses", form).statusCode());
+        assertEquals(400, post("/api/courses", form.replace("NEW1", "NEW2") + "&capacity=-1").statusCode());
+        assertEquals(400, post("/api/courses", "courseCode=NEW3").statusCode());
+
+        assertEquals(201, post("/api/courses", form.replace("NEW1", "NEW4")).statusCode());
+        assertEquals(Course.UNLIMITED_CAPACITY, dataStore.findCourseByCode("NEW4").getCapacity());
+    }
+
+    @Test
+    void concurrentEnrollmentsFillACourseExactly() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int id = 1; id <= 64; id++) {
+            responses.add(client.sendAsync(postRequest("/api/enrollments", "studentId=" + id + "&courseCode=LAB1"),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        int enrolled = 0;
+        int rejected = 0;
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            int status = response.join().statusCode();
+            if (status == 201) {
+                enrolled++;
+            } else if (status == 409) {
+                rejected++;
+            }
+        }
+
+        assertEquals(10, enrolled);
+        assertEquals(54, rejected);
+        assertEquals(10, dataStore.findCourseByCode("LAB1").getSeatsTaken());
+        String roster = get("/api/courses/lab1/roster").body();
+        assertEquals(10, roster.substring(roster.indexOf('[') + 1, roster.indexOf(']')).split(",").length, roster);
+        assertEquals(404, post("/api/enrollments", "studentId=999&courseCode=LAB1").statusCode());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String form) throws Exception {
+        return client.send(postRequest(path, form), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest postRequest(String path, String form) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+
+    private static int count(String text, String needle) {
+        int count = 0;
+        for (int i = text.indexOf(needle); i >= 0; i = text.indexOf(needle, i + needle.length())) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,133 @@
+package edu.ccrm.cli;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.io.WriteAheadLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchRunnerTest {
+
+    private final DataStore dataStore = DataStore.getInstance();
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        dataStore.clear();
+        dataStore.setJournal(MutationJournal.NONE);
+        dataStore.addCourse(new Course.CourseBuilder("CS101", "Intro").credits(3).semester(Semester.FALL).build());
+        dataStore.addCourse(new Course.CourseBuilder("LAB1", "Lab").credits(1).semester(Semester.FALL).capacity(1).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.setJournal(MutationJournal.NONE);
+        dataStore.clear();
+    }
+
+    @Test
+    void commandsRunInOrderAndOnlyFailuresAreReported() throws Exception {
+        Path exports = directory.resolve("exports");
+        String script = String.join("\n",
+                "# nightly feed",
+                "add-student,Ann Lee,ann@example.edu,REG1",
+                "add-student,Bo Chen,bo@example.edu,REG2",
+                "add-student,Missing fields",
+                "",
+                "enroll,1,CS101",
+                "enroll,2,CS101",
+                "enroll,2,LAB1",
+                "enroll,1,cs101",
+                "enroll,x,CS101",
+                "enroll,3,CS101",
+                // The grade needs the queued enrollment of line 6 to have run.
+                "grade,1,CS101,a",
+                "grade,2,LAB1,Z",
+                "frobnicate,1",
+                "export," + exports);
+        StringWriter output = new StringWriter();
+
+        int failures;
+        try (PrintWriter out = new PrintWriter(output)) {
+            failures = new BatchRunner(out).run(new BufferedReader(new StringReader(script)));
+        }
+
+        assertEquals(6, failures);
+        String report = output.toString();
+        assertTrue(report.contains("line 4: add-student failed"), report);
+        assertTrue(report.contains("line 9: enroll failed"), report);
+        assertFalse(report.contains("line 8:"), report);
+        assertTrue(report.contains("line 10: enroll failed: invalid student ID 'x'"), report);
+        assertTrue(report.contains("line 11: enroll failed"), report);
+        assertTrue(report.contains("line 13: grade failed: invalid grade 'Z'"), report);
+        assertTrue(report.contains("line 14: unknown command 'frobnicate'"), report);
+        assertFalse(report.contains("line 6:") || report.contains("line 12:"), report);
+
+        Student ann = dataStore.findStudentById(1);
+        assertEquals("Ann Lee", ann.getFullName());
+        assertEquals(1, ann.getEnrollmentCount());
+        assertEquals(Grade.A, ann.getEnrollments().get(0).getGrade());
+        assertEquals(2, dataStore.findStudentById(2).getEnrollmentCount());
+        assertEquals(2, dataStore.getStudents().size());
+        assertEquals(2, dataStore.findCourseByCode("CS101").getSeatsTaken());
+        assertEquals(1, dataStore.findCourseByCode("LAB1").getSeatsTaken());
+        assertTrue(Files.readString(exports.resolve("students_export.csv")).contains("Bo Chen"));
+    }
+
+    @Test
+    void everyChangeIsLoggedAndTheLogIsRestoredAfterwards() throws Exception {
+        // More lines than one batch, so the runner waits for the log several times.
+        StringBuilder script = new StringBuilder();
+        int students = 5000;
+        for (int id = 1; id <= students; id++) {
+            script.append("add-student,Student ").append(id).append(",s").append(id).append("@example.edu,REG")
+                    .append(id).append('\n');
+        }
+        for (int id = 1; id <= students; id++) {
+            script.append("enroll,").append(id).append(",CS101\n");
+        }
+        for (int id = 1; id <= students; id += 2) {
+            script.append("grade,").append(id).append(",CS101,B\n");
+        }
+        Path log = directory.resolve("ccrm.wal");
+
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.SyncMode.GROUP)) {
+            dataStore.setJournal(wal);
+            try (PrintWriter out = new PrintWriter(new StringWriter())) {
+                assertEquals(0, new BatchRunner(out).run(new BufferedReader(new StringReader(script.toString()))));
+            }
+            assertEquals(wal, dataStore.getJournal());
+            dataStore.setJournal(MutationJournal.NONE);
+        }
+
+        dataStore.clear();
+        dataStore.addCourse(new Course.CourseBuilder("CS101", "Intro").credits(3).semester(Semester.FALL).build());
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.SyncMode.PER_OPERATION)) {
+            assertEquals(students + students + students / 2, wal.replay(dataStore));
+        }
+        assertEquals(students, dataStore.getStudents().size());
+        assertEquals(students, dataStore.findCourseByCode("CS101").getSeatsTaken());
+        assertEquals(Grade.B, dataStore.findStudentById(students - 1).getEnrollments().get(0).getGrade());
+        assertNull(dataStore.findStudentById(students).getEnrollments().get(0).getGrade());
+    }
+}
@@ -0,0 +1,85 @@
+package edu.ccrm.config;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Student;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataStoreTest {
+
+    private final DataStore dataStore = DataStore.getInstance();
+
+    @BeforeEach
+    void setUp() {
+        dataStore.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.clear();
+    }
+
+    @Test
+    void findsStudentsByIdAndCoursesByCodeIgnoringCase() {
+        for (int id = 1; id <= 1000; id++) {
+            dataStore.addStudent(student(id));
+        }
+        Course course = new Course.CourseBuilder("CS101", "Intro").build();
+        dataStore.addCourse(course);
+
+        assertEquals(1000, dataStore.getStudents().size());
+        assertEquals(537, dataStore.findStudentById(537).getId());
+        assertNull(dataStore.findStudentById(1001));
+        assertSame(course, dataStore.findCourseByCode("cs101"));
+        assertSame(course, dataStore.findCourseByCode("CS101"));
+        assertNull(dataStore.findCourseByCode("CS102"));
+        assertNull(dataStore.findCourseByCode(null));
+    }
+
+    @Test
+    void addingTheSameKeyAgainReplacesTheEntry() {
+        dataStore.addStudent(student(7));
+        Student replacement = new Student(7, "Other Name", "other@example.edu", "REG7", LocalDate.of(2024, 1, 1));
+        dataStore.addStudent(replacement);
+        Course first = new Course.CourseBuilder("MATH202", "Calculus II").build();
+        Course second = new Course.CourseBuilder("math202", "Calculus II, revised").build();
+        dataStore.addCourse(first);
+        dataStore.addCourse(second);
+
+        assertEquals(1, dataStore.getStudents().size());
+        assertSame(replacement, dataStore.findStudentById(7));
+        assertEquals(1, dataStore.getCourses().size());
+        assertSame(second, dataStore.findCourseByCode("MATH202"));
+        // A replaced course keeps its catalog index.
+        assertEquals(first.getCatalogIndex(), second.getCatalogIndex());
+    }
+
+    @Test
+    void removedEntriesAreNoLongerFound() {
+        dataStore.addStudent(student(1));
+        dataStore.addStudent(student(2));
+        dataStore.addCourse(new Course.CourseBuilder("CS101", "Intro").build());
+
+        assertTrue(dataStore.removeStudent(1));
+        assertFalse(dataStore.removeStudent(1));
+        assertTrue(dataStore.removeCourse("cs101"));
+
+        assertNull(dataStore.findStudentById(1));
+        assertEquals(2, dataStore.findStudentById(2).getId());
+        assertNull(dataStore.findCourseByCode("CS101"));
+        assertTrue(dataStore.getCourses().isEmpty());
+    }
+
+    private static Student student(int id) {
+        return new Student(id, "Student " + id, "s" + id + "@example.edu", "REG" + id, LocalDate.of(2024, 9, 1));
+    }
+}
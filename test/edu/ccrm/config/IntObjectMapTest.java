@@ -0,0 +1,50 @@
+package edu.ccrm.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IntObjectMapTest {
+
+    @Test
+    void behavesLikeAHashMapUnderRandomPutsAndRemoves() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+        // A small key range forces long probe chains and many removals inside them.
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(5000) - 100;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int key = -100; key < 4900; key++) {
+            assertEquals(expected.get(key), map.get(key), "key " + key);
+        }
+        assertEquals(new HashSet<>(expected.values()), new HashSet<>(map.values()));
+    }
+
+    @Test
+    void clearEmptiesTheMapAndRejectsNullValues() {
+        IntObjectMap<String> map = new IntObjectMap<>(4);
+        for (int key = 0; key < 100; key++) {
+            map.put(key * 64, "v" + key);
+        }
+        assertEquals(100, map.size());
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(64));
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, null));
+    }
+}
@@ -0,0 +1,170 @@
+package edu.ccrm.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnrollmentTableTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 9, 1);
+
+    @Test
+    void rowsReadBackAsTheyWereAddedInStudentOrder() {
+        EnrollmentTable table = new EnrollmentTable();
+        List<Course> courses = courses(50);
+        Student first = student(1);
+        Student second = student(2);
+        // Interleaved, so neither student's rows are contiguous in the table.
+        for (int i = 0; i < 1000; i++) {
+            Student student = i % 3 == 0 ? second : first;
+            Course course = courses.get(i % courses.size());
+            Enrollment enrollment = new Enrollment(student.getId(), course.getCourseCode(), START.plusDays(i));
+            if (i % 4 == 0) {
+                enrollment.setGrade(Grade.values()[i % Grade.values().length]);
+            }
+            student.addEnrollment(enrollment, course, table);
+        }
+        // A course that is no longer in the catalog keeps its code but no credits.
+        first.addEnrollment(new Enrollment(1, "GONE1", START), null, table);
+
+        assertEquals(1001, table.size());
+        assertEquals(51, table.courseCount());
+        assertEquals(667, first.getEnrollmentCount());
+        assertEquals(334, second.getEnrollmentCount());
+
+        List<Enrollment> enrollments = first.getEnrollments();
+        int index = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (i % 3 == 0) {
+                continue;
+            }
+            Enrollment enrollment = enrollments.get(index++);
+            Course course = courses.get(i % courses.size());
+            assertEquals(1, enrollment.getStudentId());
+            assertEquals(course.getCourseCode(), enrollment.getCourseCode());
+            assertEquals(START.plusDays(i), enrollment.getEnrollmentDate());
+            assertEquals(i % 4 == 0 ? Grade.values()[i % Grade.values().length] : null, enrollment.getGrade());
+            assertEquals(course.getCredits(), enrollment.getCredits());
+            assertEquals(course.getSemester(), enrollment.getSemester());
+        }
+        Enrollment gone = enrollments.get(index);
+        assertEquals("GONE1", gone.getCourseCode());
+        assertEquals(0, gone.getCredits());
+        assertNull(gone.getSemester());
+    }
+
+    @Test
+    void aListTakenEarlierKeepsItsSize() {
+        EnrollmentTable table = new EnrollmentTable();
+        List<Course> courses = courses(10);
+        Student student = student(1);
+        for (int i = 0; i < 3; i++) {
+            student.addEnrollment(new Enrollment(1, courses.get(i).getCourseCode(), START), courses.get(i), table);
+        }
+        List<Enrollment> before = student.getEnrollments();
+
+        for (int i = 3; i < 10; i++) {
+            student.addEnrollment(new Enrollment(1, courses.get(i).getCourseCode(), START), courses.get(i), table);
+        }
+
+        assertEquals(3, before.size());
+        assertEquals("C2", before.get(2).getCourseCode());
+        assertThrows(IndexOutOfBoundsException.class, () -> before.get(3));
+        assertEquals(10, student.getEnrollments().size());
+        assertThrows(IllegalStateException.class, () -> student.addEnrollment(
+                new Enrollment(1, "C0", START), courses.get(0), new EnrollmentTable()));
+    }
+
+    @Test
+    void readersSeeAConsistentPrefixWhileRowsAreAdded() throws Exception {
+        EnrollmentTable table = new EnrollmentTable();
+        List<Course> courses = courses(20_000);
+        Student student = student(1);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<AssertionError> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                while (!done.get()) {
+                    List<Enrollment> enrollments = student.getEnrollments();
+                    int size = enrollments.size();
+                    if (size > 0) {
+                        // Both ends of the list: the newest slot must already be written.
+                        assertEquals("C0", enrollments.get(0).getCourseCode());
+                        assertEquals("C" + (size - 1), enrollments.get(size - 1).getCourseCode());
+                    }
+                }
+            } catch (AssertionError e) {
+                failure.set(e);
+            }
+        });
+        reader.start();
+        for (Course course : courses) {
+            student.addEnrollment(new Enrollment(1, course.getCourseCode(), START), course, table);
+        }
+        done.set(true);
+        reader.join();
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        assertEquals(courses.size(), student.getEnrollmentCount());
+    }
+
+    @Test
+    void offHeapRowsReadLikeHeapRows() {
+        EnrollmentTable heap = new EnrollmentTable();
+        EnrollmentTable offHeap = new EnrollmentTable(OffHeapEnrollmentStorage.direct());
+        List<Course> courses = courses(7);
+        Grade[] grades = Grade.values();
+        // Past the first page, so rows land on both sides of a page boundary.
+        int rows = OffHeapEnrollmentStorage.ROWS_PER_PAGE + 100;
+        for (int i = 0; i < rows; i++) {
+            Course course = courses.get(i % courses.size());
+            Grade grade = i % 3 == 0 ? null : grades[i % grades.length];
+            LocalDate date = START.minusDays(i);
+            heap.append(i, course.getCourseCode(), course, grade, date);
+            offHeap.append(i, course.getCourseCode(), course, grade, date);
+        }
+        offHeap.setGrade(rows - 1, Grade.S);
+        heap.setGrade(rows - 1, Grade.S);
+        offHeap.markRemoved(5);
+        heap.markRemoved(5);
+
+        assertEquals(heap.size(), offHeap.size());
+        for (int row = 0; row < rows; row++) {
+            assertEquals(heap.studentId(row), offHeap.studentId(row));
+            assertEquals(heap.courseCode(row), offHeap.courseCode(row));
+            assertEquals(heap.grade(row), offHeap.grade(row), "row " + row);
+            assertEquals(heap.enrollmentDate(row), offHeap.enrollmentDate(row));
+            assertEquals(heap.credits(row), offHeap.credits(row));
+            assertEquals(heap.isRemoved(row), offHeap.isRemoved(row));
+        }
+        assertEquals(Grade.S, offHeap.grade(rows - 1));
+        assertTrue(offHeap.isRemoved(5));
+    }
+
+    private static List<Course> courses(int count) {
+        Semester[] semesters = Semester.values();
+        List<Course> courses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            courses.add(new Course.CourseBuilder("C" + i, "Course " + i)
+                    .credits(1 + i % 4)
+                    .semester(semesters[i % semesters.length])
+                    .build());
+        }
+        return courses;
+    }
+
+    private static Student student(int id) {
+        return new Student(id, "Student " + id, "s" + id + "@example.edu", "REG" + id, START);
+    }
+}
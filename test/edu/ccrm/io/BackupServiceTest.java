@@ -0,0 +1,149 @@
+package edu.ccrm.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackupServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void incrementalBackupsStoreOnlyNewBlocksAndRestoreEveryVersion() throws Exception {
+        Path exports = directory.resolve("exports");
+        Path backups = directory.resolve("backups");
+        Files.createDirectories(exports.resolve("nested"));
+        byte[] big = randomBytes(2 * BlockStore.BLOCK_SIZE + 1000, 1);
+        byte[] small = "ID,FullName\n1,Ann Lee\n".getBytes();
+        Files.write(exports.resolve("big.bin"), big);
+        Files.write(exports.resolve("nested/small.csv"), small);
+        BackupService backupService = new BackupService(exports, backups);
+
+        assertTrue(backupService.createIncrementalBackup());
+        // big.bin is three blocks, small.csv one.
+        assertEquals(4, countBlocks(backups));
+
+        byte[] changedBig = big.clone();
+        changedBig[changedBig.length - 1] ^= 1;
+        Files.write(exports.resolve("big.bin"), changedBig);
+        // The size is unchanged, so make sure the modification time is not either.
+        Files.setLastModifiedTime(exports.resolve("big.bin"), FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        // Same content as big.bin: every block is already stored.
+        Files.write(exports.resolve("copy.bin"), changedBig);
+        assertTrue(backupService.createIncrementalBackup());
+        // Only the last block of big.bin changed.
+        assertEquals(5, countBlocks(backups));
+
+        // Backups taken right after each other still get their own manifests.
+        assertTrue(backupService.createIncrementalBackup());
+        assertTrue(backupService.createIncrementalBackup());
+        assertEquals(5, countBlocks(backups));
+
+        List<String> names = backupService.listIncrementalBackups();
+        assertEquals(4, names.size());
+        assertEquals(4, Set.copyOf(names).size());
+
+        Path first = directory.resolve("first");
+        backupService.restoreIncrementalBackup(names.get(0), first);
+        assertArrayEquals(big, Files.readAllBytes(first.resolve("big.bin")));
+        assertArrayEquals(small, Files.readAllBytes(first.resolve("nested/small.csv")));
+        assertFalse(Files.exists(first.resolve("copy.bin")));
+
+        Path second = directory.resolve("second");
+        backupService.restoreIncrementalBackup(names.get(1), second);
+        assertArrayEquals(changedBig, Files.readAllBytes(second.resolve("big.bin")));
+        assertArrayEquals(changedBig, Files.readAllBytes(second.resolve("copy.bin")));
+        assertArrayEquals(small, Files.readAllBytes(second.resolve("nested/small.csv")));
+
+        Path last = directory.resolve("last");
+        backupService.restoreIncrementalBackup(names.get(3), last);
+        assertArrayEquals(changedBig, Files.readAllBytes(last.resolve("big.bin")));
+        assertArrayEquals(changedBig, Files.readAllBytes(last.resolve("copy.bin")));
+    }
+
+    @Test
+    void fullAndCompressedBackupsHoldEveryFileUnchanged() throws Exception {
+        Path exports = directory.resolve("exports");
+        Path backups = directory.resolve("backups");
+        Map<String, byte[]> files = new TreeMap<>();
+        files.put("students_export.csv", "ID,FullName\n1,Ann Lee\n".getBytes());
+        files.put("big.bin", randomBytes(3 * BlockStore.BLOCK_SIZE + 17, 2));
+        files.put("empty.txt", new byte[0]);
+        for (int i = 0; i < 20; i++) {
+            files.put("nested/deeper/file" + i + ".bin", randomBytes(1000 * i, i));
+        }
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            Path path = exports.resolve(file.getKey());
+            Files.createDirectories(path.getParent());
+            Files.write(path, file.getValue());
+        }
+        BackupService backupService = new BackupService(exports, backups);
+
+        assertTrue(backupService.createBackup());
+        assertTrue(backupService.createCompressedBackup());
+
+        Path copy;
+        Path archive;
+        try (Stream<Path> paths = Files.list(backups)) {
+            List<Path> created = paths.sorted().collect(Collectors.toList());
+            assertEquals(2, created.size());
+            copy = created.stream().filter(Files::isDirectory).findFirst().orElseThrow();
+            archive = created.stream().filter(path -> path.toString().endsWith(".zip")).findFirst().orElseThrow();
+        }
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            assertArrayEquals(file.getValue(), Files.readAllBytes(copy.resolve(file.getKey())), file.getKey());
+        }
+
+        Map<String, byte[]> zipped = new TreeMap<>();
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                zipped.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        assertEquals(files.keySet(), zipped.keySet());
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            assertArrayEquals(file.getValue(), zipped.get(file.getKey()), file.getKey());
+        }
+    }
+
+    @Test
+    void aMissingSourceDirectoryIsNotBackedUp() {
+        BackupService backupService = new BackupService(directory.resolve("missing"), directory.resolve("backups"));
+
+        assertFalse(backupService.createBackup());
+        assertFalse(backupService.createCompressedBackup());
+        assertFalse(backupService.createIncrementalBackup());
+        assertTrue(backupService.listIncrementalBackups().isEmpty());
+    }
+
+    private static long countBlocks(Path backups) throws Exception {
+        try (Stream<Path> paths = Files.walk(backups.resolve("blocks"))) {
+            return paths.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private static byte[] randomBytes(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
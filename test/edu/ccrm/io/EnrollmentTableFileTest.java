@@ -0,0 +1,194 @@
+package edu.ccrm.io;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.EnrollmentTable;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.OffHeapEnrollmentStorage;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.EnrollmentRequest;
+import edu.ccrm.service.EnrollmentResult;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.GpaEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnrollmentTableFileTest {
+
+    // More enrollments than one page holds, so the rows span several mapped pages.
+    private static final int STUDENTS = 6000;
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private final SnapshotService snapshotService = new SnapshotService();
+
+    @TempDir
+    Path directory;
+
+    private Path tableFile;
+    private Path snapshot;
+
+    @BeforeEach
+    void setUp() {
+        dataStore.clear();
+        dataStore.setJournal(MutationJournal.NONE);
+        tableFile = directory.resolve("enrollments.tbl");
+        snapshot = directory.resolve("ccrm.snapshot");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.clear();
+        // Later tests expect the default heap table again.
+        dataStore.useEnrollmentTable(new EnrollmentTable());
+    }
+
+    @Test
+    void rowsStoredByOneRunAreReattachedByTheNext() throws Exception {
+        long tag;
+        List<String> before;
+        try (EnrollmentTableFile file = EnrollmentTableFile.open(tableFile)) {
+            dataStore.useEnrollmentTable(file.createTable());
+            populate();
+            // The removed student's rows stay in the file but must not come back.
+            dataStore.removeStudent(7);
+            assertTrue(dataStore.getStudents().size() * 3 > OffHeapEnrollmentStorage.ROWS_PER_PAGE);
+            snapshotService.save(snapshot);
+            tag = SnapshotService.fingerprint(snapshot);
+            before = describe();
+            file.close(dataStore.getStudents(), tag);
+        }
+        dataStore.clear();
+
+        try (EnrollmentTableFile file = EnrollmentTableFile.open(tableFile)) {
+            assertFalse(file.canReattach(tag + 1));
+            assertTrue(file.canReattach(tag));
+            assertEquals(STUDENTS * 3, file.getStoredRows());
+            snapshotService.load(snapshot, false);
+            assertEquals((STUDENTS - 1) * 3, dataStore.reattachEnrollments(file.reattach(dataStore::findCourseByCode)));
+
+            assertEquals(before, describe());
+            assertEquals(STUDENTS - 1, dataStore.getHeadcount("CS101"));
+            assertEquals(STUDENTS - 1, dataStore.findCourseByCode("CS101").getSeatsTaken());
+            GpaEngine.GpaReport report = new GpaEngine().recomputeAll();
+            List<Student> students = dataStore.getStudents();
+            for (int position = 0; position < report.size(); position++) {
+                assertEquals(students.get(position).getGpa(), report.getCumulativeGpa(position), 1e-9);
+            }
+            file.close(dataStore.getStudents(), tag);
+        }
+    }
+
+    @Test
+    void aReattachThatFailsHalfwayLeavesAnEmptyStoreToLoadNormally() throws Exception {
+        long tag;
+        List<String> before;
+        try (EnrollmentTableFile file = EnrollmentTableFile.open(tableFile)) {
+            dataStore.useEnrollmentTable(file.createTable());
+            populate();
+            snapshotService.save(snapshot);
+            tag = SnapshotService.fingerprint(snapshot);
+            before = describe();
+            file.close(dataStore.getStudents(), tag);
+        }
+        dataStore.clear();
+        dataStore.useEnrollmentTable(new EnrollmentTable());
+        EnrollmentTable inMemory = dataStore.getEnrollmentTable();
+
+        try (EnrollmentTableFile file = EnrollmentTableFile.open(tableFile)) {
+            assertTrue(file.canReattach(tag));
+            snapshotService.load(snapshot, false);
+            // A student halfway through the rows already keeps enrollments in
+            // another table, so its rows cannot be reattached.
+            Student conflicting = dataStore.findStudentById(STUDENTS / 2);
+            conflicting.addEnrollment(new Enrollment(conflicting.getId(), "CS101"),
+                    dataStore.findCourseByCode("CS101"), new EnrollmentTable());
+            EnrollmentTable mapped = file.reattach(dataStore::findCourseByCode);
+
+            assertThrows(IllegalStateException.class, () -> dataStore.reattachEnrollments(mapped));
+
+            assertSame(inMemory, dataStore.getEnrollmentTable());
+            assertTrue(dataStore.getStudents().isEmpty());
+            assertTrue(dataStore.getCourses().isEmpty());
+            assertEquals(0, dataStore.getHeadcount("CS101"));
+        }
+
+        // The fallback: load everything, enrollments included, into memory.
+        snapshotService.load(snapshot);
+        assertEquals(before, describe());
+        assertSame(inMemory, dataStore.getEnrollmentTable());
+        assertEquals(STUDENTS, dataStore.findCourseByCode("CS101").getSeatsTaken());
+    }
+
+    @Test
+    void aFileThatWasNotClosedCleanlyIsNotReattached() throws Exception {
+        long tag;
+        try (EnrollmentTableFile file = EnrollmentTableFile.open(tableFile)) {
+            dataStore.useEnrollmentTable(file.createTable());
+            populate();
+            snapshotService.save(snapshot);
+            tag = SnapshotService.fingerprint(snapshot);
+            file.close(dataStore.getStudents(), tag);
+        }
+        // Opened and then dropped without a clean close, as in a crash.
+        try (EnrollmentTableFile file = EnrollmentTableFile.open(tableFile)) {
+            assertTrue(file.canReattach(tag));
+        }
+
+        try (EnrollmentTableFile file = EnrollmentTableFile.open(tableFile)) {
+            assertFalse(file.canReattach(tag));
+            assertEquals(0, file.getStoredRows());
+        }
+    }
+
+    private void populate() throws Exception {
+        dataStore.addCourse(new Course.CourseBuilder("CS101", "Intro").credits(3).semester(Semester.FALL).build());
+        dataStore.addCourse(new Course.CourseBuilder("MATH202", "Calculus II").credits(4).semester(Semester.FALL).build());
+        dataStore.addCourse(new Course.CourseBuilder("ART1", "Drawing").credits(2).semester(Semester.WINTER).build());
+        List<EnrollmentRequest> requests = new ArrayList<>();
+        for (int id = 1; id <= STUDENTS; id++) {
+            dataStore.addStudent(new Student(id, "Student " + id, "s" + id + "@example.edu", "REG" + id,
+                    LocalDate.of(2024, 9, 1)));
+            requests.add(new EnrollmentRequest(id, "CS101"));
+            requests.add(new EnrollmentRequest(id, "MATH202"));
+            requests.add(new EnrollmentRequest(id, "ART1"));
+        }
+        EnrollmentService enrollmentService = new EnrollmentService();
+        for (EnrollmentResult result : enrollmentService.enrollAll(requests)) {
+            assertTrue(result.isSuccess(), result.getMessage());
+        }
+        Grade[] grades = Grade.values();
+        for (int id = 1; id <= STUDENTS; id += 2) {
+            enrollmentService.assignGrade(id, "CS101", grades[id % grades.length]);
+            enrollmentService.assignGrade(id, "ART1", grades[(id / 2) % grades.length]);
+        }
+    }
+
+    private List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        for (Student student : dataStore.getStudents()) {
+            lines.add(student.getProfile() + " gpa=" + student.getGpa()
+                    + " fall=" + student.getCreditsForSemester(Semester.FALL)
+                    + " winter=" + student.getCreditsForSemester(Semester.WINTER));
+            for (Enrollment enrollment : student.getEnrollments()) {
+                lines.add("  " + enrollment + " on " + enrollment.getEnrollmentDate());
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,126 @@
+package edu.ccrm.io;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.EnrollmentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileServiceTest {
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private final FileService fileService = new FileService();
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        dataStore.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.clear();
+    }
+
+    @Test
+    void courseCapacityAndDepartmentSurviveAnExportAndReload() throws Exception {
+        dataStore.addCourse(new Course.CourseBuilder("LAB1", "Lab").credits(2).semester(Semester.WINTER)
+                .department("PHYSICS").instructorId(7).capacity(25).build());
+        dataStore.addCourse(new Course.CourseBuilder("CS101", "Intro").credits(3).semester(Semester.FALL)
+                .department("COMPUTER_SCIENCE").instructorId(8).build());
+
+        fileService.exportData(directory);
+        Files.move(directory.resolve("courses_export.csv"), directory.resolve("courses.csv"));
+        dataStore.clear();
+        fileService.loadData(directory);
+
+        Course limited = dataStore.findCourseByCode("LAB1");
+        assertEquals(25, limited.getCapacity());
+        assertEquals("PHYSICS", limited.getDepartment());
+        assertEquals(Semester.WINTER, limited.getSemester());
+        assertEquals(7, limited.getInstructorId());
+        Course unlimited = dataStore.findCourseByCode("CS101");
+        assertEquals(Course.UNLIMITED_CAPACITY, unlimited.getCapacity());
+        assertEquals("COMPUTER_SCIENCE", unlimited.getDepartment());
+    }
+
+    @Test
+    void exportWritesEveryRowAndReloadsToTheSameStudents() throws Exception {
+        dataStore.setJournal(MutationJournal.NONE);
+        dataStore.addCourse(new Course.CourseBuilder("CS101", "Intro").credits(3).semester(Semester.FALL)
+                .department("COMPUTER_SCIENCE").instructorId(8).build());
+        dataStore.addCourse(new Course.CourseBuilder("MATH202", "Calculus II").credits(4).semester(Semester.FALL)
+                .department("MATHEMATICS").instructorId(9).build());
+        for (int id = 1; id <= 3; id++) {
+            dataStore.addStudent(new Student(id, "Student " + id, "s" + id + "@example.edu", "REG" + id,
+                    LocalDate.of(2024, 9, id)));
+        }
+        EnrollmentService enrollmentService = new EnrollmentService();
+        enrollmentService.enrollStudent(1, "CS101");
+        enrollmentService.enrollStudent(1, "MATH202");
+        enrollmentService.enrollStudent(3, "CS101");
+        enrollmentService.assignGrade(1, "MATH202", Grade.A);
+
+        fileService.exportData(directory);
+
+        assertEquals(List.of("ID,FullName,Email,RegistrationNumber,Status,EnrollmentDate", "",
+                        "1,Student 1,s1@example.edu,REG1,ACTIVE,2024-09-01",
+                        "2,Student 2,s2@example.edu,REG2,ACTIVE,2024-09-02",
+                        "3,Student 3,s3@example.edu,REG3,ACTIVE,2024-09-03"),
+                lines(directory.resolve("students_export.csv")));
+        assertEquals(List.of("StudentID,CourseCode,Grade", "",
+                        "1,CS101,N/A", "1,MATH202,A", "3,CS101,N/A"),
+                lines(directory.resolve("enrollments_export.csv")));
+
+        Files.move(directory.resolve("students_export.csv"), directory.resolve("students.csv"));
+        dataStore.clear();
+        fileService.loadData(directory);
+        assertEquals(3, dataStore.getStudents().size());
+        for (int id = 1; id <= 3; id++) {
+            Student student = dataStore.findStudentById(id);
+            assertEquals("Student " + id, student.getFullName());
+            assertEquals("s" + id + "@example.edu", student.getEmail());
+        }
+    }
+
+    @Test
+    void theCapacityColumnIsOptional() throws Exception {
+        Files.writeString(directory.resolve("courses.csv"), "CourseCode,Title,Credits,InstructorID,Semester,Department,Capacity\n"
+                + "A1,Five columns,3,1,FALL\n"
+                + "A2,Six columns,3,1,FALL,MATHEMATICS\n"
+                + "A3,Blank capacity,3,1,FALL,MATHEMATICS,\n"
+                + "A4,Seven columns,3,1,FALL,MATHEMATICS,40\n");
+
+        assertEquals(4, fileService.loadData(directory));
+
+        assertEquals(Course.UNLIMITED_CAPACITY, dataStore.findCourseByCode("A1").getCapacity());
+        assertEquals("UNDECLARED", dataStore.findCourseByCode("A1").getDepartment());
+        assertEquals(Course.UNLIMITED_CAPACITY, dataStore.findCourseByCode("A2").getCapacity());
+        assertEquals("MATHEMATICS", dataStore.findCourseByCode("A2").getDepartment());
+        assertEquals(Course.UNLIMITED_CAPACITY, dataStore.findCourseByCode("A3").getCapacity());
+        assertEquals(40, dataStore.findCourseByCode("A4").getCapacity());
+    }
+
+    // The header ends in "\n" and every row, the header included, in the line separator.
+    private static List<String> lines(Path file) throws Exception {
+        String text = Files.readString(file).replace(System.lineSeparator(), "\n");
+        assertTrue(text.endsWith("\n"));
+        return List.of(text.substring(0, text.length() - 1).split("\n", -1));
+    }
+}
@@ -0,0 +1,76 @@
+package edu.ccrm.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelCsvLoaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void tinyChunksParseLikeSplitAndTrimInFileOrder() throws Exception {
+        Random random = new Random(7);
+        StringBuilder csv = new StringBuilder("ID,Name,Email\n");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String line = (i % 7 == 0 ? " " : "") + (i - 100) + ", Name " + i + (i % 3 == 0 ? " Zoë" : "")
+                    + " ,mail" + random.nextInt(1000) + "@example.edu" + (i % 5 == 0 ? ",," : "");
+            lines.add(line);
+            csv.append(line).append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        // The last line has no newline.
+        csv.setLength(csv.length() - 1);
+        if (csv.charAt(csv.length() - 1) == '\r') {
+            csv.setLength(csv.length() - 1);
+        }
+        Path file = directory.resolve("rows.csv");
+        Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+
+        List<String> expected = new ArrayList<>();
+        for (String line : lines) {
+            String[] fields = line.split(",");
+            StringBuilder row = new StringBuilder().append(Integer.parseInt(fields[0].trim()));
+            for (String field : fields) {
+                row.append('|').append(field.trim());
+            }
+            expected.add(row.toString());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // 64-byte chunks put several chunk boundaries on almost every line.
+            List<String> parsed = new ParallelCsvLoader<>(row -> {
+                StringBuilder text = new StringBuilder().append(row.intValue(0));
+                for (int f = 0; f < row.fieldCount(); f++) {
+                    text.append('|').append(row.text(f));
+                }
+                return text.toString();
+            }, executor, 64).load(file);
+            assertEquals(expected, parsed);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void rowsTheParserRejectsAreSkipped() throws Exception {
+        Path file = directory.resolve("short.csv");
+        Files.writeString(file, "header\n1,a\n\n2\n3,c\n");
+
+        List<Integer> ids = new ParallelCsvLoader<>(row -> row.fieldCount() < 2 ? null : row.intValue(0)).load(file);
+
+        assertEquals(List.of(1, 3), ids);
+    }
+}
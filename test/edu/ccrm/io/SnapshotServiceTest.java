@@ -0,0 +1,161 @@
+package edu.ccrm.io;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.EnrollmentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnapshotServiceTest {
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private final SnapshotService snapshotService = new SnapshotService();
+    private final EnrollmentService enrollmentService = new EnrollmentService();
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        dataStore.clear();
+        dataStore.setJournal(MutationJournal.NONE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.clear();
+    }
+
+    @Test
+    void aSavedSnapshotLoadsBackToTheSameStore() throws Exception {
+        dataStore.addInstructor(new Instructor(101, "Dr. Ada", "ada@example.edu", "COMPUTER_SCIENCE"));
+        dataStore.addCourse(new Course.CourseBuilder("CS101", "Intro").credits(3).department("COMPUTER_SCIENCE")
+                .semester(Semester.FALL).instructorId(101).capacity(40).build());
+        dataStore.addCourse(new Course.CourseBuilder("MATH202", "Calculus II").credits(4).department("MATHEMATICS")
+                .semester(Semester.WINTER).instructorId(101).build());
+        dataStore.addCourse(new Course.CourseBuilder("OLD1", "Retired").credits(2).build());
+        for (int id = 1; id <= 3; id++) {
+            dataStore.addStudent(new Student(id, "Student " + id, "s" + id + "@example.edu", "REG" + id,
+                    LocalDate.of(2024, 9, id)));
+        }
+        enrollmentService.enrollStudent(1, "CS101");
+        enrollmentService.enrollStudent(1, "MATH202");
+        enrollmentService.enrollStudent(2, "CS101");
+        enrollmentService.enrollStudent(2, "OLD1");
+        enrollmentService.assignGrade(1, "CS101", Grade.A);
+        enrollmentService.assignGrade(1, "MATH202", Grade.C);
+        enrollmentService.assignGrade(2, "OLD1", Grade.B);
+        dataStore.findStudentById(3).setStatus(Student.Status.GRADUATED);
+
+        List<String> before = describe();
+        Path snapshot = directory.resolve("ccrm.snapshot");
+        snapshotService.save(snapshot);
+        dataStore.clear();
+        assertEquals(3, snapshotService.load(snapshot));
+
+        assertEquals(before, describe());
+        assertEquals("Dr. Ada", dataStore.findInstructorById(101).getFullName());
+        assertEquals(2, dataStore.findCourseByCode("CS101").getSeatsTaken());
+        assertEquals(1, dataStore.findCourseByCode("MATH202").getSeatsTaken());
+        assertArrayEquals(new int[] {1, 2}, sorted(dataStore.getRosterIds("CS101")));
+        assertEquals(Student.Status.GRADUATED, dataStore.findStudentById(3).getStatus());
+    }
+
+    @Test
+    void enrollmentsCanBeLeftOut() throws Exception {
+        dataStore.addCourse(new Course.CourseBuilder("CS101", "Intro").capacity(5).build());
+        dataStore.addStudent(new Student(1, "Student 1", "s1@example.edu", "REG1", LocalDate.of(2024, 9, 1)));
+        enrollmentService.enrollStudent(1, "CS101");
+        Path snapshot = directory.resolve("ccrm.snapshot");
+        snapshotService.save(snapshot);
+        dataStore.clear();
+
+        snapshotService.load(snapshot, false);
+
+        assertEquals(0, dataStore.findStudentById(1).getEnrollmentCount());
+        assertEquals(0, dataStore.findCourseByCode("CS101").getSeatsTaken());
+    }
+
+    @Test
+    void aCourseWithoutASemesterCountsOnlyTowardsTheCumulativeGpa() throws Exception {
+        // The write-ahead log can replay a course that was logged without a semester.
+        dataStore.addCourse(new Course.CourseBuilder("IND1", "Independent Study").credits(4).semester(null).build());
+        dataStore.addCourse(new Course.CourseBuilder("CS101", "Intro").credits(2).semester(Semester.FALL).build());
+        dataStore.addStudent(new Student(1, "Student 1", "s1@example.edu", "REG1", LocalDate.of(2024, 9, 1)));
+        enrollmentService.enrollStudent(1, "IND1");
+        enrollmentService.enrollStudent(1, "CS101");
+        enrollmentService.assignGrade(1, "IND1", Grade.A);
+        enrollmentService.assignGrade(1, "CS101", Grade.C);
+
+        Student student = dataStore.findStudentById(1);
+        assertEquals(2, student.getCreditsForSemester(Semester.FALL));
+        assertEquals(0, student.getCreditsForSemester(null));
+        assertEquals(6, student.getGradedCredits());
+        assertEquals(Grade.C.getGradePoint(), student.getGpa(Semester.FALL), 1e-9);
+        double gpa = student.getGpa();
+
+        List<String> before = describe();
+        Path snapshot = directory.resolve("ccrm.snapshot");
+        snapshotService.save(snapshot);
+        dataStore.clear();
+        snapshotService.load(snapshot);
+
+        assertEquals(before, describe());
+        assertNull(dataStore.findCourseByCode("IND1").getSemester());
+        assertEquals(gpa, dataStore.findStudentById(1).getGpa(), 1e-9);
+    }
+
+    @Test
+    void aFileThatIsNotASnapshotIsRejected() throws Exception {
+        Path file = directory.resolve("ccrm.snapshot");
+        Files.writeString(file, "not a snapshot at all");
+
+        assertThrows(IOException.class, () -> snapshotService.load(file));
+    }
+
+    /**
+     * Everything a snapshot must keep, one line per entity, in store order.
+     */
+    private List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        for (Course course : dataStore.getCourses()) {
+            lines.add(course.toString() + " capacity=" + course.getCapacity());
+        }
+        for (Student student : dataStore.getStudents()) {
+            lines.add(student.getProfile() + " " + student.getEmail() + " " + student.getEnrollmentDate()
+                    + " gpa=" + student.getGpa() + " fall=" + student.getCreditsForSemester(Semester.FALL)
+                    + " winter=" + student.getCreditsForSemester(Semester.WINTER));
+            for (Enrollment enrollment : student.getEnrollments()) {
+                lines.add("  " + enrollment + " on " + enrollment.getEnrollmentDate());
+            }
+        }
+        return lines;
+    }
+
+    private static int[] sorted(int[] ids) {
+        int[] copy = ids.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
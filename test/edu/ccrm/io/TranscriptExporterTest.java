@@ -0,0 +1,94 @@
+package edu.ccrm.io;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.TranscriptService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TranscriptExporterTest {
+
+    // Enough students for many batches, so the render window has to move.
+    private static final int STUDENTS = 6000;
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private final TranscriptService transcriptService = new TranscriptService();
+    private final TranscriptExporter exporter = new TranscriptExporter();
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataStore.clear();
+        dataStore.setJournal(MutationJournal.NONE);
+        dataStore.addCourse(new Course.CourseBuilder("CS101", "Intro").credits(3).semester(Semester.FALL).build());
+        dataStore.addCourse(new Course.CourseBuilder("MUS1", "Música").credits(2).semester(Semester.WINTER).build());
+        EnrollmentService enrollmentService = new EnrollmentService();
+        for (int id = 1; id <= STUDENTS; id++) {
+            // Names with non-ASCII letters check that the UTF-8 encoding matches String.getBytes.
+            String name = (id % 3 == 0 ? "Zoë " : "Student ") + id;
+            dataStore.addStudent(new Student(id, name, "s" + id + "@example.edu", "REG" + id,
+                    LocalDate.of(2024, 9, 1)));
+            if (id % 2 == 0) {
+                enrollmentService.enrollStudent(id, "CS101");
+                enrollmentService.assignGrade(id, "CS101", Grade.values()[id % Grade.values().length]);
+            }
+            if (id % 5 == 0) {
+                enrollmentService.enrollStudent(id, "MUS1");
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.clear();
+    }
+
+    @Test
+    void theCombinedFileIsEveryTranscriptInStudentOrder() throws Exception {
+        List<Student> students = dataStore.getStudents();
+        StringBuilder expected = new StringBuilder();
+        for (Student student : students) {
+            expected.append(transcriptService.generateTranscript(student));
+        }
+        byte[] expectedBytes = expected.toString().getBytes(StandardCharsets.UTF_8);
+        Path file = directory.resolve("out").resolve(TranscriptExporter.COMBINED_FILE_NAME);
+
+        long written = exporter.writeCombined(students, file);
+
+        assertEquals(expectedBytes.length, written);
+        assertArrayEquals(expectedBytes, Files.readAllBytes(file));
+    }
+
+    @Test
+    void eachStudentGetsTheirOwnTranscriptFile() throws Exception {
+        List<Student> students = dataStore.getStudents().subList(0, 600);
+
+        long written = exporter.writePerStudent(students, directory);
+
+        long expectedTotal = 0;
+        for (Student student : students) {
+            byte[] expected = transcriptService.generateTranscript(student).getBytes(StandardCharsets.UTF_8);
+            expectedTotal += expected.length;
+            assertArrayEquals(expected, Files.readAllBytes(directory.resolve("transcript-" + student.getId() + ".txt")));
+        }
+        assertEquals(expectedTotal, written);
+    }
+}
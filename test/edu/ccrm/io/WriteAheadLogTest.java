@@ -0,0 +1,211 @@
+package edu.ccrm.io;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class WriteAheadLogTest {
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private final StudentService studentService = new StudentService();
+    private final CourseService courseService = new CourseService();
+    private final EnrollmentService enrollmentService = new EnrollmentService();
+
+    @TempDir
+    Path directory;
+
+    private Path log;
+
+    @BeforeEach
+    void setUp() {
+        dataStore.clear();
+        dataStore.setJournal(MutationJournal.NONE);
+        log = directory.resolve("ccrm.wal");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.setJournal(MutationJournal.NONE);
+        dataStore.clear();
+    }
+
+    @Test
+    void replayRebuildsEveryLoggedChange() throws Exception {
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.SyncMode.GROUP)) {
+            dataStore.setJournal(wal);
+            makeChanges();
+            dataStore.setJournal(MutationJournal.NONE);
+        }
+        List<String> before = describe();
+        dataStore.clear();
+
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.SyncMode.PER_OPERATION)) {
+            // 2 students, 2 courses, 3 enrollments, 3 grades.
+            assertEquals(10, wal.replay(dataStore));
+            assertEquals(before, describe());
+            assertEquals(1, dataStore.findCourseByCode("LAB1").getSeatsTaken());
+            assertEquals(2, dataStore.findCourseByCode("CS101").getSeatsTaken());
+            // A second replay skips the students, courses and enrollments it finds;
+            // the grades are set again, in order, to the same final values.
+            assertEquals(3, wal.replay(dataStore));
+        }
+        assertEquals(before, describe());
+    }
+
+    @Test
+    void aTornRecordAtTheEndIsCutOffAndTheLogStaysUsable() throws Exception {
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.SyncMode.PER_OPERATION)) {
+            dataStore.setJournal(wal);
+            makeChanges();
+            dataStore.setJournal(MutationJournal.NONE);
+        }
+        long validSize = Files.size(log);
+        // The header promises 20 payload bytes, but the file ends after 3.
+        Files.write(log, new byte[] {0, 0, 0, 20, 1, 2, 3, 4, 5, 6, 7}, StandardOpenOption.APPEND);
+        List<String> before = describe();
+        dataStore.clear();
+
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.SyncMode.PER_OPERATION)) {
+            assertEquals(10, wal.replay(dataStore));
+            assertEquals(validSize, Files.size(log));
+            dataStore.setJournal(wal);
+            studentService.addStudent("Late Student", "late@example.edu", "REG3");
+            dataStore.setJournal(MutationJournal.NONE);
+        }
+        assertEquals(before.size() + 1, describe().size());
+
+        dataStore.clear();
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.SyncMode.PER_OPERATION)) {
+            assertEquals(11, wal.replay(dataStore));
+        }
+        assertEquals("Late Student", dataStore.findStudentById(3).getFullName());
+    }
+
+    @Test
+    void replayStopsAtARecordWithABadChecksum() throws Exception {
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.SyncMode.PER_OPERATION)) {
+            dataStore.setJournal(wal);
+            studentService.addStudent("First", "first@example.edu", "REG1");
+            dataStore.setJournal(MutationJournal.NONE);
+        }
+        long firstRecordEnd = Files.size(log);
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.SyncMode.PER_OPERATION)) {
+            dataStore.setJournal(wal);
+            studentService.addStudent("Second", "second@example.edu", "REG2");
+            studentService.addStudent("Third", "third@example.edu", "REG3");
+            dataStore.setJournal(MutationJournal.NONE);
+        }
+        byte[] bytes = Files.readAllBytes(log);
+        // Flip a payload byte of the second record; its CRC no longer matches.
+        bytes[(int) firstRecordEnd + 12] ^= 0x55;
+        Files.write(log, bytes);
+        dataStore.clear();
+
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.SyncMode.PER_OPERATION)) {
+            assertEquals(1, wal.replay(dataStore));
+        }
+        assertEquals("First", dataStore.findStudentById(1).getFullName());
+        assertNull(dataStore.findStudentById(2));
+        assertNull(dataStore.findStudentById(3));
+        assertEquals(firstRecordEnd, Files.size(log));
+    }
+
+    @Test
+    void aLogLargerThanTheReadBufferReplaysCompletely() throws Exception {
+        int students = 40_000;
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.SyncMode.GROUP)) {
+            long last = 0;
+            for (int id = 1; id <= students; id++) {
+                last = wal.studentAdded(new Student(id, "Student " + id, "s" + id + "@example.edu", "REG" + id,
+                        LocalDate.of(2024, 9, 1)));
+            }
+            wal.awaitDurable(last);
+        }
+        long size = Files.size(log);
+
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.SyncMode.PER_OPERATION)) {
+            assertEquals(students, wal.replay(dataStore));
+        }
+        assertEquals(students, dataStore.getStudents().size());
+        assertEquals("Student " + students, dataStore.findStudentById(students).getFullName());
+        assertEquals(size, Files.size(log));
+    }
+
+    @Test
+    void recordsLargerThanTheFrameLimitAreRefused() throws Exception {
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.SyncMode.PER_OPERATION)) {
+            Student huge = new Student(1, "x".repeat(2 * 1024 * 1024), "huge@example.edu", "REG1",
+                    LocalDate.of(2024, 9, 1));
+            assertThrows(IllegalArgumentException.class, () -> wal.studentAdded(huge));
+        }
+        assertEquals(0, Files.size(log));
+    }
+
+    @Test
+    void afterAFailedWriteEveryRecordIsRefused() throws Exception {
+        // Every write to /dev/full fails as if the disk were full.
+        Path full = Path.of("/dev/full");
+        assumeTrue(Files.isWritable(full));
+        for (WriteAheadLog.SyncMode mode : WriteAheadLog.SyncMode.values()) {
+            WriteAheadLog wal = new WriteAheadLog(full, mode);
+            Student student = new Student(1, "Ann Lee", "ann@example.edu", "REG1", LocalDate.of(2024, 9, 1));
+            long sequence = wal.studentAdded(student);
+            assertThrows(UncheckedIOException.class, () -> wal.awaitDurable(sequence), mode.name());
+            assertThrows(UncheckedIOException.class, () -> wal.studentAdded(student), mode.name());
+            assertThrows(UncheckedIOException.class, wal::close, mode.name());
+            // Closed all the same.
+            wal.close();
+        }
+    }
+
+    private void makeChanges() throws Exception {
+        studentService.addStudent("Ann Lee", "ann@example.edu", "REG1");
+        studentService.addStudent("Bo Chen", "bo@example.edu", "REG2");
+        courseService.addCourse("CS101", "Intro", 3, "COMPUTER_SCIENCE", Semester.FALL, 101, Course.UNLIMITED_CAPACITY);
+        courseService.addCourse("LAB1", "Lab", 1, "PHYSICS", Semester.WINTER, 102, 1);
+        enrollmentService.enrollStudent(1, "CS101");
+        enrollmentService.enrollStudent(2, "CS101");
+        enrollmentService.enrollStudent(2, "LAB1");
+        enrollmentService.assignGrade(1, "CS101", Grade.B);
+        enrollmentService.assignGrade(1, "CS101", Grade.A);
+        enrollmentService.assignGrade(2, "LAB1", Grade.C);
+    }
+
+    private List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        for (Course course : dataStore.getCourses()) {
+            lines.add(course.toString() + " capacity=" + course.getCapacity());
+        }
+        for (Student student : dataStore.getStudents()) {
+            lines.add(student.getProfile() + " " + student.getEmail() + " gpa=" + student.getGpa());
+            for (Enrollment enrollment : student.getEnrollments()) {
+                lines.add("  " + enrollment + " on " + enrollment.getEnrollmentDate());
+            }
+        }
+        return lines;
+    }
+}
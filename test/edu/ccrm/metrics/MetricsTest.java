@@ -0,0 +1,109 @@
+package edu.ccrm.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsTest {
+
+    private final Metrics metrics = Metrics.getInstance();
+
+    @AfterEach
+    void tearDown() {
+        metrics.setEnabled(true);
+    }
+
+    @Test
+    void everyValueFallsInABucketWithinOneSixteenth() {
+        Random random = new Random(20);
+        int previous = -1;
+        for (long value = 0; value < 100_000; value++) {
+            int bucket = LatencyHistogram.bucketIndex(value);
+            assertTrue(bucket >= previous, "buckets must not go down at " + value);
+            previous = bucket;
+            assertBucketHolds(value);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertBucketHolds(random.nextLong() >>> (22 + random.nextInt(41)));
+        }
+        assertBucketHolds((1L << 43) - 1);
+    }
+
+    @Test
+    void percentilesFromManyThreadsMatchTheSortedValues() throws Exception {
+        LatencyHistogram histogram = metrics.histogram("test.percentiles");
+        int threads = 8;
+        int perThread = 50_000;
+        long[][] values = new long[threads][perThread];
+        Random random = new Random(21);
+        for (long[] row : values) {
+            for (int i = 0; i < perThread; i++) {
+                // Mostly around a microsecond with a long tail, like real latencies.
+                row[i] = random.nextInt(10) == 0 ? 1_000 + random.nextInt(50_000_000) : 500 + random.nextInt(1_500);
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (long[] row : values) {
+                writers.add(executor.submit(() -> {
+                    for (long value : row) {
+                        histogram.record(value);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long[] sorted = Arrays.stream(values).flatMapToLong(Arrays::stream).sorted().toArray();
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(sorted.length, snapshot.getCount());
+        assertEquals(sorted[sorted.length - 1], snapshot.getMaxNanos());
+        assertEquals(Arrays.stream(sorted).average().orElseThrow(), snapshot.getMeanNanos(), 1e-6);
+        for (double percentile : new double[] {1, 50, 90, 99, 99.9, 100}) {
+            long exact = sorted[(int) Math.ceil(percentile / 100.0 * sorted.length) - 1];
+            long reported = snapshot.getValueAtPercentile(percentile);
+            assertTrue(reported >= exact && reported <= exact + exact / 16, percentile + ": " + reported + " vs " + exact);
+        }
+    }
+
+    @Test
+    void disabledMetricsRecordNothing() {
+        LatencyHistogram histogram = metrics.histogram("test.disabled");
+        Counter counter = metrics.counter("test.disabled");
+        assertSame(histogram, metrics.histogram("test.disabled"));
+        assertSame(counter, metrics.counter("test.disabled"));
+
+        metrics.setEnabled(false);
+        histogram.record(1_000);
+        counter.increment();
+        metrics.setEnabled(true);
+        histogram.record(2_000);
+        counter.add(3);
+
+        assertEquals(1, histogram.snapshot().getCount());
+        assertEquals(2_000, histogram.snapshot().getMaxNanos());
+        assertEquals(3, counter.getCount());
+        assertEquals(0, metrics.histogram("test.empty").snapshot().getValueAtPercentile(99));
+    }
+
+    private static void assertBucketHolds(long value) {
+        long upper = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value));
+        assertTrue(upper >= value && upper - value <= value / 16, value + " landed under " + upper);
+    }
+}
@@ -0,0 +1,171 @@
+package edu.ccrm.service;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.exception.EnrollmentException;
+import edu.ccrm.exception.MaxCreditsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads enrolling and grading the same students in the same courses at
+ * once. Every thread tries every (student, course) pair, so each pair is raced by
+ * all of them; exactly one may win, and what the store holds afterwards must add
+ * up no matter how the threads interleaved.
+ */
+class ConcurrentEnrollmentTest {
+
+    private static final int THREADS = 64;
+    private static final int STUDENTS = 200;
+    private static final int COURSES = 20;
+    private static final int CREDITS = 3;
+    private static final int LIMITED_CAPACITY = 30;
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private final EnrollmentService enrollmentService = new EnrollmentService();
+
+    @BeforeEach
+    void setUp() {
+        dataStore.clear();
+        dataStore.setJournal(MutationJournal.NONE);
+        for (int id = 1; id <= STUDENTS; id++) {
+            dataStore.addStudent(new Student(id, "Student " + id, "s" + id + "@example.edu", "REG" + id,
+                    LocalDate.of(2024, 9, 1)));
+        }
+        // Five 3-credit courses per semester stay under the 18-credit limit, so only
+        // duplicates and full courses can reject an enrollment. Even courses are limited.
+        for (int i = 0; i < COURSES; i++) {
+            dataStore.addCourse(new Course.CourseBuilder(courseCode(i), "Course " + i)
+                    .credits(CREDITS)
+                    .semester(Semester.values()[i % Semester.values().length])
+                    .capacity(i % 2 == 0 ? LIMITED_CAPACITY : Course.UNLIMITED_CAPACITY)
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.clear();
+    }
+
+    @Test
+    @Timeout(120)
+    void concurrentEnrollAndGradeKeepsEveryCountExact() throws Exception {
+        Set<String> enrolledPairs = ConcurrentHashMap.newKeySet();
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger doubleWins = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Random random = new Random(t);
+                List<int[]> pairs = new ArrayList<>(STUDENTS * COURSES);
+                for (int id = 1; id <= STUDENTS; id++) {
+                    for (int c = 0; c < COURSES; c++) {
+                        pairs.add(new int[] {id, c});
+                    }
+                }
+                Collections.shuffle(pairs, random);
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int[] pair : pairs) {
+                        String code = courseCode(pair[1]);
+                        try {
+                            enrollmentService.enrollStudent(pair[0], code);
+                            successes.incrementAndGet();
+                            if (!enrolledPairs.add(pair[0] + "/" + code)) {
+                                doubleWins.incrementAndGet();
+                            }
+                        } catch (EnrollmentException | MaxCreditsException e) {
+                            // Already enrolled by another thread, or the course is full.
+                        }
+                        try {
+                            enrollmentService.assignGrade(pair[0], code,
+                                    Grade.values()[random.nextInt(Grade.values().length)]);
+                        } catch (EnrollmentException e) {
+                            // Not enrolled (yet, or at all).
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+
+        int expected = (COURSES / 2) * STUDENTS + (COURSES / 2) * LIMITED_CAPACITY;
+        assertEquals(0, doubleWins.get(), "a pair was enrolled more than once");
+        assertEquals(expected, successes.get());
+        assertEquals(expected, enrolledPairs.size());
+        assertEquals(expected, dataStore.getEnrollments().size());
+
+        GpaEngine gpaEngine = new GpaEngine();
+        int perStudentTotal = 0;
+        for (Student student : dataStore.getStudents()) {
+            Set<String> codes = new HashSet<>();
+            int[] credits = new int[Semester.values().length];
+            for (Enrollment enrollment : student.getEnrollments()) {
+                assertTrue(codes.add(enrollment.getCourseCode()),
+                        "student " + student.getId() + " holds " + enrollment.getCourseCode() + " twice");
+                assertTrue(enrolledPairs.contains(student.getId() + "/" + enrollment.getCourseCode()));
+                credits[enrollment.getSemester().ordinal()] += enrollment.getCredits();
+            }
+            assertEquals(codes.size(), student.getEnrollmentCount());
+            for (Semester semester : Semester.values()) {
+                assertEquals(credits[semester.ordinal()], student.getCreditsForSemester(semester));
+            }
+            assertEquals(gpaEngine.calculateGpa(student), student.getGpa(), 1e-9);
+            perStudentTotal += student.getEnrollmentCount();
+        }
+        assertEquals(expected, perStudentTotal);
+
+        for (int i = 0; i < COURSES; i++) {
+            Course course = dataStore.findCourseByCode(courseCode(i));
+            int[] roster = dataStore.getRosterIds(course.getCourseCode());
+            Set<Integer> distinct = new HashSet<>();
+            for (int id : roster) {
+                assertTrue(distinct.add(id), "student " + id + " is on the roster of " + course.getCourseCode() + " twice");
+            }
+            int expectedSeats = course.getCapacity() == Course.UNLIMITED_CAPACITY ? STUDENTS : LIMITED_CAPACITY;
+            assertEquals(expectedSeats, course.getSeatsTaken(), course.getCourseCode());
+            assertEquals(expectedSeats, roster.length, course.getCourseCode());
+            assertEquals(expectedSeats, dataStore.getHeadcount(course.getCourseCode()), course.getCourseCode());
+        }
+    }
+
+    private static String courseCode(int index) {
+        return "C" + (100 + index);
+    }
+}
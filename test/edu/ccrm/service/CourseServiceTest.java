@@ -0,0 +1,161 @@
+package edu.ccrm.service;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CourseServiceTest {
+
+    private static final String[] DEPARTMENTS = {"COMPUTER_SCIENCE", "MATHEMATICS", "PHYSICS"};
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private final CourseService courseService = new CourseService();
+
+    @BeforeEach
+    void setUp() {
+        dataStore.clear();
+        dataStore.setJournal(MutationJournal.NONE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.clear();
+    }
+
+    @Test
+    void indexedLookupsMatchAFullScanAfterReassignmentsAndRemovals() {
+        Random random = new Random(16);
+        Semester[] semesters = Semester.values();
+        for (int i = 0; i < 300; i++) {
+            dataStore.addCourse(new Course.CourseBuilder("C" + i, "Course " + i)
+                    .department(DEPARTMENTS[random.nextInt(DEPARTMENTS.length)])
+                    .semester(semesters[random.nextInt(semesters.length)])
+                    .instructorId(1 + random.nextInt(10))
+                    .build());
+        }
+        assertMatchesFullScan();
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(courseService.assignInstructor("C" + random.nextInt(300), 1 + random.nextInt(12)));
+        }
+        for (int i = 0; i < 300; i += 7) {
+            assertTrue(dataStore.removeCourse("c" + i));
+        }
+        assertFalse(dataStore.removeCourse("C0"));
+        assertFalse(courseService.assignInstructor("C0", 3));
+        assertMatchesFullScan();
+
+        // Department lookups ignore case, like course codes.
+        assertEquals(courseService.findCoursesByDepartment("PHYSICS"),
+                courseService.findCoursesByDepartment("physics"));
+        assertEquals(List.of(), courseService.findCoursesByInstructor(99));
+    }
+
+    @Test
+    void rostersListStudentsInEnrollmentOrder() throws Exception {
+        dataStore.addCourse(new Course.CourseBuilder("CS101", "Intro").credits(3).semester(Semester.FALL).build());
+        dataStore.addCourse(new Course.CourseBuilder("MATH202", "Calculus II").credits(4).semester(Semester.FALL).build());
+        EnrollmentService enrollmentService = new EnrollmentService();
+        List<Integer> expected = new ArrayList<>();
+        // More students than a roster's first array holds, enrolled out of ID order.
+        for (int i = 0; i < 50; i++) {
+            int id = 1 + (i * 17) % 50;
+            dataStore.addStudent(new Student(id, "Student " + id, "s" + id + "@example.edu", "REG" + id,
+                    LocalDate.of(2024, 9, 1)));
+            enrollmentService.enrollStudent(id, "CS101");
+            expected.add(id);
+            if (id % 10 == 0) {
+                enrollmentService.enrollStudent(id, "MATH202");
+            }
+        }
+        assertEquals(expected, ids(courseService.getRosterIds("cs101")));
+        assertEquals(50, courseService.getHeadcount("CS101"));
+
+        for (int id = 5; id <= 50; id += 5) {
+            assertTrue(dataStore.removeStudent(id));
+            expected.remove(Integer.valueOf(id));
+        }
+        assertEquals(expected, ids(courseService.getRosterIds("CS101")));
+        List<Integer> rosterIds = new ArrayList<>();
+        for (Student student : courseService.getRoster("CS101")) {
+            rosterIds.add(student.getId());
+        }
+        assertEquals(expected, rosterIds);
+        assertEquals(0, courseService.getHeadcount("MATH202"));
+        assertEquals(0, courseService.getRosterIds("NOPE").length);
+        assertTrue(courseService.getRoster(null).isEmpty());
+    }
+
+    /**
+     * Compares every indexed lookup, alone and combined, with a filter over all courses.
+     */
+    private void assertMatchesFullScan() {
+        List<Course> all = dataStore.getCourses();
+        List<Integer> instructors = new ArrayList<>();
+        instructors.add(null);
+        for (int id = 1; id <= 12; id++) {
+            instructors.add(id);
+        }
+        List<Semester> semesters = new ArrayList<>();
+        semesters.add(null);
+        semesters.addAll(List.of(Semester.values()));
+        List<String> departments = new ArrayList<>();
+        departments.add(null);
+        departments.addAll(List.of(DEPARTMENTS));
+
+        for (Integer instructorId : instructors) {
+            for (Semester semester : semesters) {
+                for (String department : departments) {
+                    List<Course> expected = new ArrayList<>();
+                    for (Course course : all) {
+                        if ((instructorId == null || course.getInstructorId() == instructorId)
+                                && (semester == null || course.getSemester() == semester)
+                                && (department == null || department.equals(course.getDepartment()))) {
+                            expected.add(course);
+                        }
+                    }
+                    expected.sort(Comparator.comparing(Course::getCourseCode));
+                    String criteria = instructorId + "/" + semester + "/" + department;
+                    assertEquals(expected, sortedByCode(courseService.findCourses(instructorId, semester, department)),
+                            criteria);
+                    if (semester == null && department == null && instructorId != null) {
+                        assertEquals(expected, courseService.findCoursesByInstructor(instructorId), criteria);
+                    } else if (instructorId == null && department == null && semester != null) {
+                        assertEquals(expected, courseService.findCoursesBySemester(semester), criteria);
+                    } else if (instructorId == null && semester == null && department != null) {
+                        assertEquals(expected, courseService.findCoursesByDepartment(department), criteria);
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<Integer> ids(int[] ids) {
+        List<Integer> list = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+
+    private static List<Course> sortedByCode(List<Course> courses) {
+        List<Course> sorted = new ArrayList<>(courses);
+        sorted.sort(Comparator.comparing(Course::getCourseCode));
+        return sorted;
+    }
+}
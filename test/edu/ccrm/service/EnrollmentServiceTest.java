@@ -0,0 +1,301 @@
+package edu.ccrm.service;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.exception.EnrollmentException;
+import edu.ccrm.exception.MaxCreditsException;
+import edu.ccrm.metrics.LatencyHistogram;
+import edu.ccrm.metrics.Metrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnrollmentServiceTest {
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private final EnrollmentService enrollmentService = new EnrollmentService();
+
+    @BeforeEach
+    void setUp() {
+        dataStore.clear();
+        dataStore.setJournal(MutationJournal.NONE);
+        dataStore.addStudent(student(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.clear();
+    }
+
+    @Test
+    void creditLimitIsPerSemesterAndRejectedCoursesKeepTheirSeats() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            addCourse("FALL" + i, 4, Semester.FALL, Course.UNLIMITED_CAPACITY);
+        }
+        addCourse("WINTER0", 4, Semester.WINTER, Course.UNLIMITED_CAPACITY);
+
+        for (int i = 0; i < 4; i++) {
+            enrollmentService.enrollStudent(1, "FALL" + i);
+        }
+        // 16 + 4 credits would pass the 18-credit limit.
+        assertThrows(MaxCreditsException.class, () -> enrollmentService.enrollStudent(1, "FALL4"));
+        assertThrows(EnrollmentException.class, () -> enrollmentService.enrollStudent(1, "fall0"));
+        enrollmentService.enrollStudent(1, "WINTER0");
+
+        Student student = dataStore.findStudentById(1);
+        assertEquals(16, student.getCreditsForSemester(Semester.FALL));
+        assertEquals(4, student.getCreditsForSemester(Semester.WINTER));
+        assertEquals(5, student.getEnrollmentCount());
+        assertEquals(0, dataStore.findCourseByCode("FALL4").getSeatsTaken());
+        assertEquals(1, dataStore.findCourseByCode("FALL0").getSeatsTaken());
+    }
+
+    @Test
+    void concurrentEnrollmentsNeverPassTheCreditLimit() throws Exception {
+        // Twenty 3-credit courses raced for one student: exactly six fit in 18 credits.
+        for (int i = 0; i < 20; i++) {
+            addCourse("C" + i, 3, Semester.FALL, Course.UNLIMITED_CAPACITY);
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                String code = "C" + i;
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        enrollmentService.enrollStudent(1, code);
+                        return true;
+                    } catch (MaxCreditsException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int enrolled = 0;
+            for (Future<Boolean> attempt : attempts) {
+                enrolled += attempt.get() ? 1 : 0;
+            }
+            assertEquals(6, enrolled);
+        } finally {
+            executor.shutdown();
+        }
+        Student student = dataStore.findStudentById(1);
+        assertEquals(18, student.getCreditsForSemester(Semester.FALL));
+        assertEquals(6, student.getEnrollmentCount());
+        int seats = 0;
+        for (Course course : dataStore.getCourses()) {
+            seats += course.getSeatsTaken();
+        }
+        assertEquals(6, seats);
+    }
+
+    @Test
+    void aFullCourseRejectsEnrollmentsAndFailedAttemptsGiveTheirSeatBack() throws Exception {
+        dataStore.addStudent(student(2));
+        dataStore.addStudent(student(3));
+        addCourse("LAB1", 3, Semester.FALL, 2);
+
+        enrollmentService.enrollStudent(1, "LAB1");
+        assertThrows(EnrollmentException.class, () -> enrollmentService.enrollStudent(1, "LAB1"));
+        enrollmentService.enrollStudent(2, "LAB1");
+        assertThrows(EnrollmentException.class, () -> enrollmentService.enrollStudent(3, "LAB1"));
+
+        Course course = dataStore.findCourseByCode("LAB1");
+        assertEquals(2, course.getSeatsTaken());
+        assertEquals(2, dataStore.getHeadcount("LAB1"));
+        List<EnrollmentResult> results = enrollmentService.enrollAll(List.of(new EnrollmentRequest(3, "LAB1")));
+        assertEquals(EnrollmentResult.Status.COURSE_FULL, results.get(0).getStatus());
+        assertEquals(2, course.getSeatsTaken());
+    }
+
+    @Test
+    void removingAStudentFreesItsSeatForSomeoneElse() throws Exception {
+        dataStore.addStudent(student(2));
+        dataStore.addStudent(student(3));
+        addCourse("LAB1", 3, Semester.FALL, 2);
+        enrollmentService.enrollStudent(1, "LAB1");
+        enrollmentService.enrollStudent(2, "LAB1");
+        assertThrows(EnrollmentException.class, () -> enrollmentService.enrollStudent(3, "LAB1"));
+
+        int row = dataStore.findStudentById(1).getEnrollmentRow(0);
+        assertTrue(dataStore.removeStudent(1));
+        assertTrue(dataStore.getEnrollmentTable().isRemoved(row));
+        assertEquals(1, dataStore.findCourseByCode("LAB1").getSeatsTaken());
+
+        enrollmentService.enrollStudent(3, "LAB1");
+        assertEquals(2, dataStore.findCourseByCode("LAB1").getSeatsTaken());
+        assertArrayEquals(new int[] {2, 3}, dataStore.getRosterIds("LAB1"));
+    }
+
+    @Test
+    void aReplacedCourseKeepsTheSeatsOfItsRoster() throws Exception {
+        dataStore.addStudent(student(2));
+        dataStore.addStudent(student(3));
+        addCourse("LAB1", 3, Semester.FALL, 2);
+        enrollmentService.enrollStudent(1, "LAB1");
+        enrollmentService.enrollStudent(2, "LAB1");
+
+        addCourse("LAB1", 4, Semester.FALL, 2);
+        assertEquals(2, dataStore.findCourseByCode("LAB1").getSeatsTaken());
+        assertThrows(EnrollmentException.class, () -> enrollmentService.enrollStudent(3, "LAB1"));
+
+        dataStore.removeStudent(2);
+        assertEquals(1, dataStore.findCourseByCode("LAB1").getSeatsTaken());
+        enrollmentService.enrollStudent(3, "LAB1");
+        assertEquals(2, dataStore.getHeadcount("LAB1"));
+    }
+
+    @Test
+    void anEnrollmentThatCannotBeLoggedKeepsItsSeat() {
+        dataStore.addStudent(student(2));
+        addCourse("CS101", 3, Semester.FALL, 10);
+        addCourse("CS102", 3, Semester.FALL, 10);
+        dataStore.setJournal(new FailingJournal());
+
+        assertThrows(IllegalStateException.class, () -> enrollmentService.enrollStudent(1, "CS101"));
+        List<EnrollmentResult> results = enrollmentService.enrollAll(List.of(
+                new EnrollmentRequest(2, "CS101"), new EnrollmentRequest(2, "CS102")));
+
+        assertEquals(2, results.size());
+        for (EnrollmentResult result : results) {
+            assertEquals(EnrollmentResult.Status.NOT_LOGGED, result.getStatus());
+        }
+        assertEquals(1, dataStore.findStudentById(1).getEnrollmentCount());
+        assertEquals(2, dataStore.findStudentById(2).getEnrollmentCount());
+        assertEquals(2, dataStore.findCourseByCode("CS101").getSeatsTaken());
+        assertEquals(1, dataStore.findCourseByCode("CS102").getSeatsTaken());
+    }
+
+    @Test
+    void rejectedGradesAreTimedToo() throws Exception {
+        addCourse("CS101", 3, Semester.FALL, Course.UNLIMITED_CAPACITY);
+        LatencyHistogram latency = Metrics.getInstance().histogram("enrollment.assignGrade");
+        long before = latency.snapshot().getCount();
+
+        assertThrows(EnrollmentException.class, () -> enrollmentService.assignGrade(99, "CS101", Grade.A));
+        assertThrows(EnrollmentException.class, () -> enrollmentService.assignGrade(1, "CS101", Grade.A));
+        enrollmentService.enrollStudent(1, "CS101");
+        enrollmentService.assignGrade(1, "CS101", Grade.A);
+
+        assertEquals(before + 3, latency.snapshot().getCount());
+    }
+
+    @Test
+    void coursesAreCreatedWithTheirCapacityOnce() {
+        CourseService courseService = new CourseService();
+        Course course = courseService.addCourse("NEW1", "New Course", 3, "PHYSICS", Semester.FALL, 101, 25);
+
+        assertEquals(25, course.getCapacity());
+        assertSame(course, dataStore.findCourseByCode("new1"));
+        assertThrows(IllegalArgumentException.class,
+                () -> courseService.addCourse("new1", "Again", 3, "PHYSICS", Semester.FALL, 101, 25));
+        assertThrows(IllegalArgumentException.class,
+                () -> courseService.addCourse("NEW2", "Negative", 3, "PHYSICS", Semester.FALL, 101, -1));
+        assertEquals(1, dataStore.getCourses().size());
+    }
+
+    @Test
+    void enrollAllReportsOneResultPerRequestInInputOrder() {
+        dataStore.addStudent(student(2));
+        addCourse("CS101", 3, Semester.FALL, Course.UNLIMITED_CAPACITY);
+        addCourse("BIG1", 10, Semester.FALL, Course.UNLIMITED_CAPACITY);
+        addCourse("BIG2", 10, Semester.FALL, Course.UNLIMITED_CAPACITY);
+
+        List<EnrollmentRequest> requests = List.of(
+                new EnrollmentRequest(1, "CS101"),
+                new EnrollmentRequest(2, "BIG1"),
+                new EnrollmentRequest(99, "CS101"),
+                new EnrollmentRequest(1, "cs101"),
+                new EnrollmentRequest(2, "NOPE"),
+                new EnrollmentRequest(2, "BIG2"),
+                new EnrollmentRequest(2, "CS101"));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<EnrollmentResult> results;
+        try {
+            results = enrollmentService.enrollAll(requests, executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        List<EnrollmentResult.Status> expected = List.of(
+                EnrollmentResult.Status.ENROLLED,
+                EnrollmentResult.Status.ENROLLED,
+                EnrollmentResult.Status.STUDENT_NOT_FOUND,
+                EnrollmentResult.Status.ALREADY_ENROLLED,
+                EnrollmentResult.Status.COURSE_NOT_FOUND,
+                EnrollmentResult.Status.MAX_CREDITS_EXCEEDED,
+                EnrollmentResult.Status.ENROLLED);
+        assertEquals(requests.size(), results.size());
+        for (int i = 0; i < requests.size(); i++) {
+            assertSame(requests.get(i), results.get(i).getRequest());
+            assertEquals(expected.get(i), results.get(i).getStatus(), "request " + i);
+        }
+        assertEquals(1, dataStore.findStudentById(1).getEnrollmentCount());
+        assertEquals(13, dataStore.findStudentById(2).getCreditsForSemester(Semester.FALL));
+        assertEquals(2, dataStore.findCourseByCode("CS101").getSeatsTaken());
+        assertEquals(0, dataStore.findCourseByCode("BIG2").getSeatsTaken());
+    }
+
+    private void addCourse(String code, int credits, Semester semester, int capacity) {
+        dataStore.addCourse(new Course.CourseBuilder(code, "Course " + code)
+                .credits(credits)
+                .semester(semester)
+                .capacity(capacity)
+                .build());
+    }
+
+    /**
+     * A journal whose disk is gone: every record fails.
+     */
+    private static final class FailingJournal implements MutationJournal {
+        @Override
+        public long studentAdded(Student student) {
+            throw new IllegalStateException("journal unavailable");
+        }
+
+        @Override
+        public long courseAdded(Course course) {
+            throw new IllegalStateException("journal unavailable");
+        }
+
+        @Override
+        public long enrolled(Enrollment enrollment) {
+            throw new IllegalStateException("journal unavailable");
+        }
+
+        @Override
+        public long gradeAssigned(int studentId, String courseCode, Grade grade) {
+            throw new IllegalStateException("journal unavailable");
+        }
+
+        @Override
+        public void awaitDurable(long sequence) {
+            // Nothing was written.
+        }
+    }
+
+    private static Student student(int id) {
+        return new Student(id, "Student " + id, "s" + id + "@example.edu", "REG" + id, LocalDate.of(2024, 9, 1));
+    }
+}
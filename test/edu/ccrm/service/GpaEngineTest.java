@@ -0,0 +1,157 @@
+package edu.ccrm.service;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.io.SnapshotService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GpaEngineTest {
+
+    private static final int STUDENTS = 3000;
+    private static final int COURSES = 40;
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private final EnrollmentService enrollmentService = new EnrollmentService();
+    private final GpaEngine gpaEngine = new GpaEngine();
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataStore.clear();
+        dataStore.setJournal(MutationJournal.NONE);
+        Semester[] semesters = Semester.values();
+        for (int i = 0; i < COURSES; i++) {
+            dataStore.addCourse(new Course.CourseBuilder("C" + i, "Course " + i)
+                    .credits(1 + i % 4)
+                    .semester(semesters[i % semesters.length])
+                    .build());
+        }
+        for (int id = 1; id <= STUDENTS; id++) {
+            dataStore.addStudent(new Student(id, "Student " + id, "s" + id + "@example.edu", "REG" + id,
+                    LocalDate.of(2024, 9, 1)));
+        }
+
+        Random random = new Random(14);
+        List<EnrollmentRequest> requests = new ArrayList<>();
+        for (int id = 1; id <= STUDENTS; id++) {
+            for (int k = 0; k < 8; k++) {
+                requests.add(new EnrollmentRequest(id, "C" + random.nextInt(COURSES)));
+            }
+        }
+        Grade[] grades = Grade.values();
+        for (EnrollmentResult result : enrollmentService.enrollAll(requests)) {
+            if (result.getStatus() == EnrollmentResult.Status.ENROLLED && random.nextInt(4) != 0) {
+                EnrollmentRequest request = result.getRequest();
+                // Some grades are overwritten, as after a regrade.
+                for (int times = 1 + random.nextInt(2); times > 0; times--) {
+                    enrollmentService.assignGrade(request.getStudentId(), request.getCourseCode(),
+                            grades[random.nextInt(grades.length)]);
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.clear();
+    }
+
+    @Test
+    void recomputedGpasMatchTheRunningTotals() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertMatchesRunningTotals(gpaEngine.recomputeAll(pool));
+        } finally {
+            pool.shutdown();
+        }
+        for (Student student : dataStore.getStudents()) {
+            assertEquals(student.getGpa(), gpaEngine.calculateGpa(student), 1e-9);
+            for (Semester semester : Semester.values()) {
+                assertEquals(student.getGpa(semester), gpaEngine.calculateGpa(student, semester), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void gpasUseTheCreditsCapturedAtEnrollmentAfterCoursesChange() {
+        List<Double> before = new ArrayList<>();
+        for (Student student : dataStore.getStudents()) {
+            before.add(student.getGpa());
+        }
+        // Replace half the catalog with other credits and semesters, and drop a course.
+        for (int i = 0; i < COURSES; i += 2) {
+            dataStore.addCourse(new Course.CourseBuilder("C" + i, "Course " + i + ", revised")
+                    .credits(5 + i % 3)
+                    .semester(Semester.SUMMER)
+                    .build());
+        }
+        dataStore.removeCourse("C1");
+
+        assertMatchesRunningTotals(gpaEngine.recomputeAll());
+        List<Double> after = new ArrayList<>();
+        for (Student student : dataStore.getStudents()) {
+            after.add(gpaEngine.calculateGpa(student));
+        }
+        assertEquals(before.size(), after.size());
+        for (int i = 0; i < before.size(); i++) {
+            assertEquals(before.get(i), after.get(i), 1e-9);
+        }
+    }
+
+    @Test
+    void gpasSurviveASnapshotRoundTrip() throws Exception {
+        List<Double> before = new ArrayList<>();
+        for (Student student : dataStore.getStudents()) {
+            before.add(student.getGpa());
+        }
+        SnapshotService snapshotService = new SnapshotService();
+        Path snapshot = directory.resolve("ccrm.snapshot");
+        snapshotService.save(snapshot);
+        dataStore.clear();
+        snapshotService.load(snapshot);
+
+        GpaEngine.GpaReport report = gpaEngine.recomputeAll();
+        assertMatchesRunningTotals(report);
+        List<Double> after = new ArrayList<>();
+        for (Student student : dataStore.getStudents()) {
+            after.add(student.getGpa());
+        }
+        assertEquals(before, after);
+    }
+
+    private void assertMatchesRunningTotals(GpaEngine.GpaReport report) {
+        List<Student> students = dataStore.getStudents();
+        assertEquals(students.size(), report.size());
+        int graded = 0;
+        for (int position = 0; position < report.size(); position++) {
+            Student student = students.get(position);
+            assertEquals(student.getId(), report.getStudentId(position));
+            assertEquals(student.getGpa(), report.getCumulativeGpa(position), 1e-9, "student " + student.getId());
+            for (Semester semester : Semester.values()) {
+                assertEquals(student.getGpa(semester), report.getSemesterGpa(position, semester), 1e-9);
+            }
+            graded += student.getGradedCredits() > 0 ? 1 : 0;
+        }
+        // A report of zeros would also match students without grades.
+        assertTrue(graded > STUDENTS / 2, "only " + graded + " students have grades");
+    }
+}
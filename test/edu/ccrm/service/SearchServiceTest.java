@@ -0,0 +1,128 @@
+package edu.ccrm.service;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Student;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchServiceTest {
+
+    private static final String[] FIRST_NAMES = {"Ann", "Anna", "Annabel", "José", "Zoë", "Bo", "Chen", "Maria"};
+    private static final String[] LAST_NAMES = {"Smith", "Smithson", "Lee", "O'Brien", "García", "Andersen"};
+
+    private final DataStore dataStore = DataStore.getInstance();
+
+    @BeforeEach
+    void setUp() {
+        dataStore.clear();
+        dataStore.setJournal(MutationJournal.NONE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.clear();
+    }
+
+    @Test
+    void everyQueryWordMatchesAPrefixOfSomeField() {
+        Random random = new Random(18);
+        for (int id = 1; id <= 2000; id++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            dataStore.addStudent(new Student(id, first + " " + last, first.toLowerCase(Locale.ROOT) + id + "@uni.edu",
+                    "REG" + (2023000 + id), LocalDate.of(2024, 9, 1)));
+        }
+        SearchService searchService = new SearchService();
+
+        List<String> queries = List.of("ann", "anna", "ANN SM", "jose", "José García", "zoe", "o brien",
+                "reg20230", "reg2023017", "smith ann", "uni", "maria1", "x", "ann smithsonx", "!!");
+        for (String query : queries) {
+            Set<Student> expected = identitySet();
+            for (Student student : dataStore.getStudents()) {
+                if (matches(query, student.getFullName(), student.getEmail(), student.getRegistrationNumber())) {
+                    expected.add(student);
+                }
+            }
+            Set<Student> found = identitySet();
+            List<Student> results = searchService.searchStudents(query, Integer.MAX_VALUE);
+            found.addAll(results);
+            assertEquals(results.size(), found.size(), "repeated results for " + query);
+            assertEquals(expected, found, query);
+
+            List<Student> limited = searchService.searchStudents(query, 5);
+            assertEquals(Math.min(5, expected.size()), limited.size(), query);
+            assertTrue(expected.containsAll(limited), query);
+        }
+    }
+
+    @Test
+    void theIndexesFollowTheStore() {
+        SearchService searchService = new SearchService();
+        dataStore.addStudent(new Student(1, "Anna Smith", "anna@uni.edu", "REG1", LocalDate.of(2024, 9, 1)));
+        dataStore.addCourse(new Course.CourseBuilder("CS101", "Introduction to Programming").build());
+        dataStore.addCourse(new Course.CourseBuilder("CS201", "Data Structures").build());
+
+        assertEquals(List.of(dataStore.findStudentById(1)), searchService.searchStudents("ann smi"));
+        assertEquals(List.of(dataStore.findCourseByCode("CS101")), searchService.searchCourses("intro prog"));
+        assertEquals(0, searchService.searchStudents("ann", 0).size());
+
+        dataStore.removeStudent(1);
+        dataStore.removeCourse("CS101");
+        assertEquals(List.of(), searchService.searchStudents("anna"));
+        assertEquals(List.of(), searchService.searchCourses("intro"));
+        assertEquals(List.of(dataStore.findCourseByCode("CS201")), searchService.searchCourses("data"));
+    }
+
+    /**
+     * The rule spelled out the slow way: lower case, no accents, split on anything
+     * that is not a letter or digit, and every query word a prefix of some word.
+     */
+    private static boolean matches(String query, String... fields) {
+        List<String> words = new ArrayList<>();
+        for (String field : fields) {
+            words.addAll(words(field));
+        }
+        List<String> queryWords = words(query);
+        if (queryWords.isEmpty()) {
+            return false;
+        }
+        for (String queryWord : queryWords) {
+            if (words.stream().noneMatch(word -> word.startsWith(queryWord))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> words(String text) {
+        String plain = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        for (String word : plain.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static Set<Student> identitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+}
@@ -0,0 +1,134 @@
+package edu.ccrm.service;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TranscriptCacheTest {
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private final EnrollmentService enrollmentService = new EnrollmentService();
+    private final TranscriptService transcriptService = new TranscriptService();
+
+    @BeforeEach
+    void setUp() {
+        dataStore.clear();
+        dataStore.setJournal(MutationJournal.NONE);
+        dataStore.addCourse(new Course.CourseBuilder("CS101", "Intro").credits(3).semester(Semester.FALL).build());
+        dataStore.addStudent(student(1));
+        dataStore.addStudent(student(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.clear();
+    }
+
+    @Test
+    void aTranscriptIsReusedUntilItsStudentChanges() throws Exception {
+        Student ann = dataStore.findStudentById(1);
+        Student bo = dataStore.findStudentById(2);
+        String first = transcriptService.generateTranscript(ann);
+        String other = transcriptService.generateTranscript(bo);
+        assertSame(first, transcriptService.generateTranscript(ann));
+
+        enrollmentService.enrollStudent(1, "CS101");
+        String enrolled = assertFresh(ann, first);
+        // Another student's change leaves this entry alone.
+        assertSame(other, transcriptService.generateTranscript(bo));
+
+        enrollmentService.assignGrade(1, "CS101", Grade.A);
+        String graded = assertFresh(ann, enrolled);
+        assertTrue(graded.contains("Grade: A"), graded);
+
+        ann.setStatus(Student.Status.GRADUATED);
+        assertFresh(ann, graded);
+    }
+
+    @Test
+    void aStudentReaddedWithTheSameIdIsRenderedAgain() {
+        Student original = dataStore.findStudentById(1);
+        String first = transcriptService.generateTranscript(original);
+        dataStore.removeStudent(1);
+        Student replacement = new Student(1, "Someone Else", "else@example.edu", "REG9", LocalDate.of(2024, 9, 1));
+        dataStore.addStudent(replacement);
+
+        String second = transcriptService.generateTranscript(replacement);
+
+        assertTrue(second.contains("Someone Else"), second);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void aLocaleChangeRendersTheTranscriptAgain() throws Exception {
+        enrollmentService.enrollStudent(1, "CS101");
+        enrollmentService.assignGrade(1, "CS101", Grade.B);
+        Student ann = dataStore.findStudentById(1);
+        Locale original = Locale.getDefault(Locale.Category.FORMAT);
+        try {
+            Locale.setDefault(Locale.Category.FORMAT, Locale.US);
+            assertTrue(transcriptService.generateTranscript(ann).contains("Cumulative GPA: 8.00"));
+            Locale.setDefault(Locale.Category.FORMAT, Locale.GERMANY);
+            assertTrue(transcriptService.generateTranscript(ann).contains("Cumulative GPA: 8,00"));
+        } finally {
+            Locale.setDefault(Locale.Category.FORMAT, original);
+        }
+    }
+
+    @Test
+    void theClockHandEvictsTheFirstEntryNotReadSinceItLastPassed() {
+        TranscriptCache cache = new TranscriptCache(3);
+        Student[] students = new Student[4];
+        for (int i = 0; i < students.length; i++) {
+            students[i] = student(10 + i);
+            if (i < 3) {
+                cache.put(students[i], students[i].getVersion(), "text " + i);
+            }
+        }
+        assertEquals("text 0", cache.get(students[0]));
+
+        cache.put(students[3], students[3].getVersion(), "text 3");
+
+        assertEquals("text 0", cache.get(students[0]));
+        assertNull(cache.get(students[1]));
+        assertEquals("text 2", cache.get(students[2]));
+        assertEquals("text 3", cache.get(students[3]));
+
+        TranscriptCache disabled = new TranscriptCache(0);
+        disabled.put(students[0], students[0].getVersion(), "text 0");
+        assertNull(disabled.get(students[0]));
+    }
+
+    /**
+     * Checks that the student's transcript was rendered again, matches a fresh
+     * rendering and is then served from the cache.
+     */
+    private String assertFresh(Student student, String stale) {
+        String transcript = transcriptService.generateTranscript(student);
+        assertNotSame(stale, transcript);
+        StringBuilder expected = new StringBuilder();
+        transcriptService.appendTranscript(student, expected);
+        assertEquals(expected.toString(), transcript);
+        assertSame(transcript, transcriptService.generateTranscript(student));
+        return transcript;
+    }
+
+    private static Student student(int id) {
+        return new Student(id, "Student " + id, "s" + id + "@example.edu", "REG" + id, LocalDate.of(2024, 9, 1));
+    }
+}
@@ -0,0 +1,79 @@
+package edu.ccrm.service;
+
+import edu.ccrm.config.DataStore;
+import edu.ccrm.config.MutationJournal;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TranscriptServiceTest {
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private final EnrollmentService enrollmentService = new EnrollmentService();
+    private final TranscriptService transcriptService = new TranscriptService();
+
+    @BeforeEach
+    void setUp() {
+        dataStore.clear();
+        dataStore.setJournal(MutationJournal.NONE);
+        dataStore.addCourse(new Course.CourseBuilder("CS101", "Intro").credits(3).semester(Semester.FALL).build());
+        dataStore.addCourse(new Course.CourseBuilder("MATH202", "Calculus II").credits(4).semester(Semester.WINTER).build());
+        dataStore.addCourse(new Course.CourseBuilder("ART1", "Drawing").credits(2).semester(Semester.WINTER).build());
+        for (int id = 1; id <= 3; id++) {
+            dataStore.addStudent(new Student(id, "Student " + id, "s" + id + "@example.edu", "REG" + id,
+                    LocalDate.of(2024, 9, 1)));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.clear();
+    }
+
+    @Test
+    void runningTotalsFollowOverwrittenGrades() throws Exception {
+        enrollmentService.enrollStudent(1, "CS101");
+        enrollmentService.enrollStudent(1, "MATH202");
+        enrollmentService.enrollStudent(1, "ART1");
+        enrollmentService.assignGrade(1, "CS101", Grade.A);
+        enrollmentService.assignGrade(1, "MATH202", Grade.F);
+        enrollmentService.assignGrade(1, "MATH202", Grade.C);
+        enrollmentService.assignGrade(1, "MATH202", Grade.B);
+        Student student = dataStore.findStudentById(1);
+
+        // ART1 is not graded, so only 3 * 9 + 4 * 8 over 7 credits counts.
+        assertEquals(7, student.getGradedCredits());
+        assertEquals((3 * 9.0 + 4 * 8.0) / 7, transcriptService.calculateGpa(student), 1e-9);
+        assertEquals(9.0, student.getGpa(Semester.FALL), 1e-9);
+        assertEquals(8.0, student.getGpa(Semester.WINTER), 1e-9);
+        assertEquals(0.0, student.getGpa(Semester.SUMMER), 1e-9);
+        assertEquals(new GpaEngine().calculateGpa(student), student.getGpa(), 1e-9);
+
+        enrollmentService.assignGrade(1, "ART1", Grade.S);
+        assertEquals(9, student.getGradedCredits());
+        assertEquals((3 * 9.0 + 4 * 8.0 + 2 * 10.0) / 9, student.getGpa(), 1e-9);
+        assertEquals((4 * 8.0 + 2 * 10.0) / 6, student.getGpa(Semester.WINTER), 1e-9);
+    }
+
+    @Test
+    void cohortQueriesSkipStudentsWithoutGrades() throws Exception {
+        enrollmentService.enrollStudent(1, "CS101");
+        enrollmentService.assignGrade(1, "CS101", Grade.D);
+        enrollmentService.enrollStudent(2, "CS101");
+        enrollmentService.assignGrade(2, "CS101", Grade.A);
+        enrollmentService.enrollStudent(3, "CS101");
+
+        assertEquals(List.of(dataStore.findStudentById(1)), transcriptService.findStudentsWithGpaBelow(7.0));
+        assertEquals(List.of(dataStore.findStudentById(2)), transcriptService.findStudentsWithGpaAtLeast(7.0));
+        assertEquals(2, transcriptService.findStudentsWithGpaAtLeast(0.0).size());
+    }
+}